@@ -0,0 +1,107 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.models.BattleMap;
+import org.example.models.ScanResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+import static org.example.Const.*;
+
+/**
+ * Общий HTTP + JSON слой: один HttpClient ({@link Const#httpClient}) и один ObjectMapper
+ * с заранее построенными readers/writer.
+ * <p>
+ * Ответы /scan и карта читаются потоком прямо из тела ответа, без промежуточной строки.
+ * Команды можно отправлять асинхронно ({@link #sendCommandsAsync}), чтобы следующий скан
+ * не ждал ответа на команду. При загрузке класса readers прогреваются на маленьком
+ * образце, чтобы построение десериализаторов не попадало в первый тик.
+ */
+public class ApiTransport {
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final ObjectReader scanReader = mapper.readerFor(ScanResult.class);
+    private static final ObjectReader mapReader = mapper.readerFor(BattleMap.class);
+    private static final ObjectReader responseReader = mapper.readerFor(CommonScripts.Response.class);
+    private static final ObjectWriter writer = mapper.writer();
+
+    private static final String WARMUP_SCAN = "{\"scan\":{\"myShips\":[{\"id\":1,\"x\":1,\"y\":1,\"size\":1,\"hp\":1,"
+            + "\"direction\":\"north\",\"speed\":1}],\"enemyShips\":[],\"zone\":{\"x\":1,\"y\":1,\"radius\":1},\"tick\":1},"
+            + "\"success\":true,\"errors\":[]}";
+
+    static {
+        try {
+            scanReader.readValue(WARMUP_SCAN);
+            responseReader.readValue("{\"success\":true,\"errors\":[{\"message\":\"\"}]}");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static ScanResult scan() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "scan"))
+                .header("X-API-Key", apiKey)
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            return scanReader.readValue(body);
+        }
+    }
+
+    public static BattleMap fetchBattleMap() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(mapUrl))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            return mapReader.readValue(body);
+        }
+    }
+
+    /**
+     * POST /shipCommand, ответ — текстом из {@link CommonScripts#parseResponse}.
+     */
+    public static String sendCommands(Object commands) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(commandRequest(commands), HttpResponse.BodyHandlers.ofString());
+        return CommonScripts.parseResponse(response.body());
+    }
+
+    public static CompletableFuture<String> sendCommandsAsync(Object commands) {
+        HttpRequest request;
+        try {
+            request = commandRequest(commands);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> CommonScripts.parseResponse(response.body()));
+    }
+
+    public static String write(Object value) throws IOException {
+        return writer.writeValueAsString(value);
+    }
+
+    static CommonScripts.Response readResponse(String json) throws IOException {
+        return responseReader.readValue(json);
+    }
+
+    private static HttpRequest commandRequest(Object commands) throws IOException {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "shipCommand"))
+                .header("X-API-Key", apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writer.writeValueAsBytes(commands)))
+                .build();
+    }
+}
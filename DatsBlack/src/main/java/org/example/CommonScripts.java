@@ -2,12 +2,15 @@ package org.example;
 
 import lombok.Data;
 
-import static org.example.Const.gson;
+import java.io.IOException;
 
 public class CommonScripts {
     public static String parseResponse(String responseBody) {
-        Response response = gson.fromJson(responseBody, Response.class);
-        return response.toString();
+        try {
+            return ApiTransport.readResponse(responseBody).toString();
+        } catch (IOException e) {
+            return "Непонятный ответ: " + responseBody;
+        }
     }
 
     @Data
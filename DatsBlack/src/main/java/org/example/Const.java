@@ -1,13 +1,10 @@
 package org.example;
 
-import com.google.gson.Gson;
-
 import java.net.http.HttpClient;
 
 public class Const {
     public static final HttpClient httpClient = HttpClient.newHttpClient();
     public static final String apiKey = "a7e670d0-c3ff-4467-96ca-3ffcd79dca89";
-    public static final Gson gson = new Gson();
     public static final String baseUrl = "https://datsblack.datsteam.dev/api/";
     public static final String mapUrl = "https://datsblack.datsteam.dev/json/map/6586b267d01324.88322035.json";
     public final static int DISTANCE_SCAN = 25;
@@ -16,4 +13,5 @@ public class Const {
     public static final String EAST = "east";
     public static final String WEST = "west";
     public static final int THIS_TICK = 75;
+    public static final long TICK_MS = 3000; // Длительность тика сервера
 }
@@ -0,0 +1,141 @@
+package org.example;
+
+import static org.example.Const.TICK_MS;
+
+/**
+ * Часы тиков сервера для цикла scan → план → shipCommand.
+ * <p>
+ * Начало тика оценивается по середине запроса /scan; следующий скан ставится сразу после
+ * границы следующего тика. Если план не успел до конца тика, команда не отправляется —
+ * она уже устарела. Ведёт задержки по стадиям (скан, план, отправка), число пропущенных,
+ * повторных и опоздавших тиков.
+ */
+public class TickClock {
+    private static final long AFTER_BOUNDARY_MS = 50; // Запас, чтобы сервер успел посчитать тик
+    private static final long SEND_MARGIN_MS = 100; // Меньше этого до конца тика команду не отправляем
+    private static final long RETRY_DELAY_MS = 100; // Повторный скан, если тик ещё не сменился
+    private static final int METRICS_EVERY_TICKS = 20;
+
+    private int lastTick = -1;
+    private long tickStartedNanos;
+    private long stageStartedNanos;
+    private boolean repeatScan;
+
+    private int ticksPlayed;
+    private int ticksSkipped;
+    private int duplicateScans;
+    private int staleTicks;
+    private final Stage scan = new Stage();
+    private final Stage plan = new Stage();
+    private final Stage send = new Stage();
+
+    private static class Stage {
+        private long totalNanos;
+        private long maxNanos;
+        private int count;
+
+        void add(long nanos) {
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            count++;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("среднее %.1f мс, максимум %.1f мс", count == 0 ? 0 : totalNanos / 1e6 / count, maxNanos / 1e6);
+        }
+    }
+
+    /**
+     * Спит до следующего тика (или немного, если прошлый скан вернул тот же тик).
+     */
+    public void awaitNextTick() throws InterruptedException {
+        long sleepMs;
+        if (lastTick < 0) {
+            sleepMs = 0;
+        } else if (repeatScan) {
+            sleepMs = RETRY_DELAY_MS;
+        } else {
+            sleepMs = millisUntil(tickStartedNanos + TICK_MS * 1_000_000L) + AFTER_BOUNDARY_MS;
+        }
+        if (sleepMs > 0) {
+            Thread.sleep(sleepMs);
+        }
+        stageStartedNanos = System.nanoTime();
+    }
+
+    /**
+     * Отмечает полученный скан.
+     *
+     * @param tick Номер тика из ответа; 0 и меньше — сервер его не прислал
+     * @return false, если этот тик уже обработан.
+     */
+    public boolean onScan(int tick) {
+        long now = System.nanoTime();
+        long scanNanos = now - stageStartedNanos;
+        scan.add(scanNanos);
+        repeatScan = false;
+        if (tick > 0) {
+            if (tick == lastTick) {
+                duplicateScans++;
+                repeatScan = true;
+                return false;
+            }
+            if (lastTick > 0 && tick > lastTick + 1) {
+                ticksSkipped += tick - lastTick - 1;
+                System.out.println("Пропущено тиков: " + (tick - lastTick - 1) + " (" + lastTick + " -> " + tick + ")");
+            }
+        }
+        lastTick = Math.max(tick, 0);
+        // Ответ сформирован примерно в середине запроса
+        tickStartedNanos = now - scanNanos / 2;
+        stageStartedNanos = now;
+        return true;
+    }
+
+    /**
+     * Скан не удался: повторить через короткую паузу.
+     */
+    public void onScanFailed() {
+        repeatScan = true;
+    }
+
+    /**
+     * План готов. Возвращает false, если до конца тика отправить уже не успеем.
+     */
+    public boolean onPlanned() {
+        long now = System.nanoTime();
+        plan.add(now - stageStartedNanos);
+        stageStartedNanos = now;
+        if (millisUntil(tickStartedNanos + TICK_MS * 1_000_000L) < SEND_MARGIN_MS) {
+            staleTicks++;
+            System.out.println("Тик " + lastTick + ": план опоздал, команда отброшена");
+            return false;
+        }
+        return true;
+    }
+
+    public void onSent() {
+        send.add(System.nanoTime() - stageStartedNanos);
+        onTickDone();
+    }
+
+    /**
+     * Тик обработан без отправки команды (нечего отправлять, план устарел или упал).
+     */
+    public void onTickDone() {
+        ticksPlayed++;
+        if (ticksPlayed % METRICS_EVERY_TICKS == 0) {
+            printMetrics();
+        }
+    }
+
+    public void printMetrics() {
+        System.out.println("Тиков: " + ticksPlayed + ", пропущено: " + ticksSkipped + ", повторных сканов: " + duplicateScans
+                + ", опоздали: " + staleTicks + "\n  скан: " + scan + "\n  план: " + plan + "\n  отправка: " + send);
+    }
+
+    private static long millisUntil(long nanos) {
+        return (nanos - System.nanoTime()) / 1_000_000;
+    }
+}
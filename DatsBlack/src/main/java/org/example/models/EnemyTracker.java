@@ -0,0 +1,214 @@
+package org.example.models;
+
+import java.util.Arrays;
+
+/**
+ * Трекер вражеских кораблей между сканами.
+ * <p>
+ * Корабли хранятся по id в слотах параллельных массивов фиксированной ёмкости; id → слот —
+ * открытая адресация с линейным пробированием. Для каждого корабля помнятся последние
+ * положение, курс и скорость и сглаженное изменение скорости за тик; прогноз на N тиков
+ * вперёд считается по замкнутой формуле с ограничением скорости. Корабль, которого не
+ * видно дольше STALE_TICKS, освобождает слот; при полном трекере вытесняется самый давно виденный.
+ */
+public class EnemyTracker {
+    public static final int NOT_TRACKED = Integer.MIN_VALUE;
+
+    private static final int CAPACITY = 1024;
+    private static final int STALE_TICKS = 5;
+    private static final double ACCELERATION_SMOOTHING = 0.5; // Вес нового наблюдения
+    private static final int EMPTY = -1;
+
+
+    private final int[] id = new int[CAPACITY];
+    private final int[] x = new int[CAPACITY];
+    private final int[] y = new int[CAPACITY];
+    private final int[] heading = new int[CAPACITY];
+    private final int[] speed = new int[CAPACITY];
+    private final int[] maxSpeed = new int[CAPACITY];
+    private final int[] hp = new int[CAPACITY];
+    private final int[] size = new int[CAPACITY];
+    private final int[] lastSeenTick = new int[CAPACITY];
+    private final int[] lastTurnTick = new int[CAPACITY];
+    private final double[] acceleration = new double[CAPACITY];
+    private final boolean[] used = new boolean[CAPACITY];
+
+    private final int[] freeSlots = new int[CAPACITY];
+    private int freeCount;
+
+    // id → слот; таблица вдвое больше ёмкости, чтобы пробирование оставалось коротким
+    private final int[] tableIds = new int[CAPACITY * 2];
+    private final int[] tableSlots = new int[CAPACITY * 2];
+
+    private int currentTick;
+
+    public EnemyTracker() {
+        Arrays.fill(tableSlots, EMPTY);
+        for (int i = 0; i < CAPACITY; i++) {
+            freeSlots[i] = CAPACITY - 1 - i;
+        }
+        freeCount = CAPACITY;
+    }
+
+    /**
+     * Учитывает очередной скан.
+     *
+     * @param tick Номер тика; 0 и меньше — сервер его не прислал, берётся следующий за прошлым
+     */
+    public void update(int tick, ScanResult.Ship[] enemies) {
+        currentTick = tick > 0 ? tick : currentTick + 1;
+        for (ScanResult.Ship enemy : enemies) {
+            int slot = find(enemy.getId());
+            int newHeading = Heading.index(enemy.getDirection());
+            if (slot == EMPTY) {
+                slot = allocate(enemy.getId());
+                acceleration[slot] = 0;
+                lastTurnTick[slot] = NOT_TRACKED;
+            } else {
+                int elapsed = Math.max(currentTick - lastSeenTick[slot], 1);
+                if (newHeading != heading[slot]) {
+                    // После поворота прежний разгон не показателен
+                    lastTurnTick[slot] = currentTick;
+                    acceleration[slot] = 0;
+                } else {
+                    double observed = (double) (enemy.getSpeed() - speed[slot]) / elapsed;
+                    acceleration[slot] += ACCELERATION_SMOOTHING * (observed - acceleration[slot]);
+                }
+            }
+            x[slot] = enemy.getX();
+            y[slot] = enemy.getY();
+            heading[slot] = newHeading;
+            speed[slot] = enemy.getSpeed();
+            maxSpeed[slot] = Math.max(enemy.getMaxSpeed(), Math.max(maxSpeed[slot], enemy.getSpeed()));
+            hp[slot] = enemy.getHp();
+            size[slot] = enemy.getSize();
+            lastSeenTick[slot] = currentTick;
+        }
+
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            if (used[slot] && currentTick - lastSeenTick[slot] > STALE_TICKS) {
+                release(slot);
+            }
+        }
+    }
+
+    public boolean contains(int shipId) {
+        return find(shipId) != EMPTY;
+    }
+
+    /**
+     * X носа через ticksAhead тиков от текущего, или NOT_TRACKED.
+     */
+    public int predictX(int shipId, int ticksAhead) {
+        int slot = find(shipId);
+        return slot == EMPTY ? NOT_TRACKED : x[slot] + Heading.dx(heading[slot]) * travel(slot, ticksAhead);
+    }
+
+    public int predictY(int shipId, int ticksAhead) {
+        int slot = find(shipId);
+        return slot == EMPTY ? NOT_TRACKED : y[slot] + Heading.dy(heading[slot]) * travel(slot, ticksAhead);
+    }
+
+    /**
+     * Поворачивал ли корабль за последние ticks тиков: такой прогноз менее надёжен.
+     */
+    public boolean turnedWithin(int shipId, int ticks) {
+        int slot = find(shipId);
+        return slot != EMPTY && lastTurnTick[slot] != NOT_TRACKED && currentTick - lastTurnTick[slot] <= ticks;
+    }
+
+    public int getHp(int shipId) {
+        int slot = find(shipId);
+        return slot == EMPTY ? NOT_TRACKED : hp[slot];
+    }
+
+    public int getSize(int shipId) {
+        int slot = find(shipId);
+        return slot == EMPTY ? NOT_TRACKED : size[slot];
+    }
+
+    public int size() {
+        return CAPACITY - freeCount;
+    }
+
+    // Путь за тики от последнего наблюдения до currentTick + ticksAhead: s_k = clamp(s + a·k, 0, max)
+    private int travel(int slot, int ticksAhead) {
+        int n = currentTick - lastSeenTick[slot] + ticksAhead;
+        if (n <= 0) {
+            return 0;
+        }
+        double s = speed[slot];
+        double a = acceleration[slot];
+        if (Math.abs(a) < 1e-6) {
+            return (int) Math.round(s * n);
+        }
+        double bound = a > 0 ? maxSpeed[slot] : 0;
+        // Тиков до упора в предел скорости
+        int m = (int) Math.min(n, Math.max(0, Math.floor((bound - s) / a)));
+        double distance = m * s + a * m * (m + 1) / 2.0 + (n - m) * bound;
+        return (int) Math.round(distance);
+    }
+
+    private int find(int shipId) {
+        int mask = tableIds.length - 1;
+        for (int i = mix(shipId) & mask; tableSlots[i] != EMPTY; i = (i + 1) & mask) {
+            if (tableIds[i] == shipId) {
+                return tableSlots[i];
+            }
+        }
+        return EMPTY;
+    }
+
+    private int allocate(int shipId) {
+        if (freeCount == 0) {
+            int oldest = 0;
+            for (int slot = 1; slot < CAPACITY; slot++) {
+                if (lastSeenTick[slot] < lastSeenTick[oldest]) {
+                    oldest = slot;
+                }
+            }
+            release(oldest);
+        }
+        int slot = freeSlots[--freeCount];
+        used[slot] = true;
+        id[slot] = shipId;
+        maxSpeed[slot] = 0;
+
+        int mask = tableIds.length - 1;
+        int i = mix(shipId) & mask;
+        while (tableSlots[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        tableIds[i] = shipId;
+        tableSlots[i] = slot;
+        return slot;
+    }
+
+    private void release(int slot) {
+        used[slot] = false;
+        freeSlots[freeCount++] = slot;
+
+        // Удаление со сдвигом назад: цепочки пробирования остаются без дыр
+        int mask = tableIds.length - 1;
+        int i = mix(id[slot]) & mask;
+        while (tableSlots[i] != slot) {
+            i = (i + 1) & mask;
+        }
+        tableSlots[i] = EMPTY;
+        for (int j = (i + 1) & mask; tableSlots[j] != EMPTY; j = (j + 1) & mask) {
+            int home = mix(tableIds[j]) & mask;
+            // Запись из j можно перенести в дыру i, если её домашняя ячейка не лежит в (i, j]
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                tableIds[i] = tableIds[j];
+                tableSlots[i] = tableSlots[j];
+                tableSlots[j] = EMPTY;
+                i = j;
+            }
+        }
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
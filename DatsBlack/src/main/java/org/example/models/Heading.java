@@ -0,0 +1,38 @@
+package org.example.models;
+
+import static org.example.Const.*;
+
+/**
+ * Курсы корабля по номерам: по часовой стрелке от севера, rotate 90 — следующий, -90 — предыдущий.
+ * Смещение за клетку хода — {@link #dx}, {@link #dy}.
+ */
+public final class Heading {
+    public static final int COUNT = 4;
+
+    private static final String[] NAMES = {NORTH, EAST, SOUTH, WEST};
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private Heading() {
+    }
+
+    public static int dx(int heading) {
+        return DX[heading];
+    }
+
+    public static int dy(int heading) {
+        return DY[heading];
+    }
+
+    /**
+     * Номер курса по направлению из ответа сервера.
+     */
+    public static int index(String direction) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(direction)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Неправильное направление: " + direction);
+    }
+}
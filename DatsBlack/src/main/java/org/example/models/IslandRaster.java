@@ -0,0 +1,276 @@
+package org.example.models;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.List;
+
+import static org.example.Const.*;
+
+/**
+ * Растр островов всей карты: один бит на клетку, строки подряд в long[].
+ * <p>
+ * Строится один раз из {@link BattleMap#getIslands()} и кэшируется на диск по URL карты
+ * (каталог задаётся -Ddatsblack.cache.dir, по умолчанию java.io.tmpdir/datsblack).
+ * Клетки за пределами карты считаются занятыми.
+ * Координаты корабля — нос, корпус длиной size тянется назад против direction.
+ */
+public class IslandRaster {
+    public static final String CACHE_DIR_PROPERTY = "datsblack.cache.dir";
+
+    private static final int FILE_MAGIC = 0x49534C31; // "ISL1"
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;
+
+    private IslandRaster(int width, int height, long[] bits) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = bits;
+    }
+
+    @FunctionalInterface
+    public interface MapSource {
+        BattleMap fetch() throws IOException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    public interface CellConsumer {
+        void accept(int x, int y);
+    }
+
+    public static IslandRaster of(BattleMap battleMap) {
+        int width = battleMap.getWidth();
+        int height = battleMap.getHeight();
+        int wordsPerRow = (width + 63) >>> 6;
+        long[] bits = new long[wordsPerRow * height];
+
+        if (battleMap.getIslands() != null) {
+            for (BattleMap.Island island : battleMap.getIslands()) {
+                int[][] map = island.getMap();
+                List<Integer> start = island.getStart();
+                int startX = start.get(0);
+                int startY = start.get(1);
+                // map[i][j]: i — строка (y), j — столбец (x)
+                for (int i = 0; i < map.length; i++) {
+                    int y = startY + i;
+                    if (y < 0 || y >= height) {
+                        continue;
+                    }
+                    int row = y * wordsPerRow;
+                    for (int j = 0; j < map[i].length; j++) {
+                        int x = startX + j;
+                        if (map[i][j] == 1 && x >= 0 && x < width) {
+                            bits[row + (x >>> 6)] |= 1L << x;
+                        }
+                    }
+                }
+            }
+        }
+        return new IslandRaster(width, height, bits);
+    }
+
+    /**
+     * Растр из дискового кэша; при промахе карта загружается через source, растеризуется и сохраняется.
+     */
+    public static IslandRaster cached(String mapUrl, MapSource source) throws IOException, InterruptedException {
+        Path file = cacheFile(mapUrl);
+        if (Files.isRegularFile(file)) {
+            try {
+                return read(file);
+            } catch (IOException e) {
+                System.err.println("Кэш растра повреждён, пересобираем: " + e.getMessage());
+            }
+        }
+
+        IslandRaster raster = of(source.fetch());
+        try {
+            raster.write(file);
+        } catch (IOException e) {
+            System.err.println("Не удалось сохранить кэш растра: " + e.getMessage());
+        }
+        return raster;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public boolean isBlocked(int x, int y) {
+        if (!inBounds(x, y)) {
+            return true;
+        }
+        return (bits[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Есть ли остров в строке y на отрезке [x0, x1] (концы в любом порядке). Проверка по словам.
+     */
+    public boolean rowBlocked(int y, int x0, int x1) {
+        int from = Math.min(x0, x1);
+        int to = Math.max(x0, x1);
+        if (from < 0 || to >= width || y < 0 || y >= height) {
+            return true;
+        }
+        int row = y * wordsPerRow;
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (firstWord == lastWord) {
+            return (bits[row + firstWord] & firstMask & lastMask) != 0;
+        }
+        if ((bits[row + firstWord] & firstMask) != 0 || (bits[row + lastWord] & lastMask) != 0) {
+            return true;
+        }
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            if (bits[row + w] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Есть ли остров в столбце x на отрезке [y0, y1].
+     */
+    public boolean columnBlocked(int x, int y0, int y1) {
+        int from = Math.min(y0, y1);
+        int to = Math.max(y0, y1);
+        if (from < 0 || to >= height || x < 0 || x >= width) {
+            return true;
+        }
+        int word = x >>> 6;
+        long mask = 1L << x;
+        for (int y = from, index = from * wordsPerRow + word; y <= to; y++, index += wordsPerRow) {
+            if ((bits[index] & mask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Пересекает ли отрезок остров. Осевые отрезки проверяются по строке/столбцу, остальные — Брезенхэмом.
+     */
+    public boolean segmentBlocked(int x0, int y0, int x1, int y1) {
+        if (y0 == y1) {
+            return rowBlocked(y0, x0, x1);
+        }
+        if (x0 == x1) {
+            return columnBlocked(x0, y0, y1);
+        }
+        int dx = Math.abs(x1 - x0);
+        int dy = -Math.abs(y1 - y0);
+        int sx = x0 < x1 ? 1 : -1;
+        int sy = y0 < y1 ? 1 : -1;
+        int error = dx + dy;
+        int x = x0;
+        int y = y0;
+        while (true) {
+            if (isBlocked(x, y)) {
+                return true;
+            }
+            if (x == x1 && y == y1) {
+                return false;
+            }
+            int e2 = 2 * error;
+            if (e2 >= dy) {
+                error += dy;
+                x += sx;
+            }
+            if (e2 <= dx) {
+                error += dx;
+                y += sy;
+            }
+        }
+    }
+
+    /**
+     * Задевает ли корпус корабля остров или край карты.
+     *
+     * @param x         Нос корабля
+     * @param y         Нос корабля
+     * @param direction north / south / east / west
+     */
+    public boolean footprintBlocked(int x, int y, int size, String direction) {
+        int tail = Math.max(size, 1) - 1;
+        return switch (direction.toLowerCase()) {
+            case NORTH -> columnBlocked(x, y, y + tail);
+            case SOUTH -> columnBlocked(x, y - tail, y);
+            case EAST -> rowBlocked(y, x - tail, x);
+            case WEST -> rowBlocked(y, x, x + tail);
+            default -> throw new IllegalArgumentException("Неправильное направление: " + direction);
+        };
+    }
+
+    public boolean footprintBlocked(ScanResult.Ship ship) {
+        return footprintBlocked(ship.getX(), ship.getY(), ship.getSize(), ship.getDirection());
+    }
+
+    /**
+     * Обход всех занятых клеток; пустые слова пропускаются целиком.
+     */
+    public void forEachBlocked(CellConsumer consumer) {
+        for (int y = 0; y < height; y++) {
+            int row = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = bits[row + w];
+                while (word != 0) {
+                    consumer.accept((w << 6) + Long.numberOfTrailingZeros(word), y);
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    private static Path cacheFile(String mapUrl) {
+        String dir = System.getProperty(CACHE_DIR_PROPERTY,
+                Paths.get(System.getProperty("java.io.tmpdir"), "datsblack").toString());
+        String name = mapUrl.substring(mapUrl.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+        String hash = Integer.toHexString(mapUrl.hashCode());
+        return Paths.get(dir, "islands-" + hash + "-" + name + ".bin");
+    }
+
+    private void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "islands", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(width);
+            out.writeInt(height);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static IslandRaster read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("неизвестный формат " + file);
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            if (width <= 0 || height <= 0) {
+                throw new IOException("неверный размер " + width + "x" + height);
+            }
+            long[] bits = new long[((width + 63) >>> 6) * height];
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = in.readLong();
+            }
+            return new IslandRaster(width, height, bits);
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class ScanResult {
         private Ship[] myShips;
         private Ship[] enemyShips;
         private Zone zone;
+        private int tick;
     }
 
     @Data
@@ -26,6 +27,9 @@ public class ScanResult {
         private int hp;
         private String direction;
         private int speed;
+        private int maxSpeed;
+        private int minSpeed;
+        private int maxChangeSpeed;
         private int cannonCooldown;
         private int cannonCooldownLeft;
         private int cannonShootSuccessCount;
@@ -50,6 +54,25 @@ public class ScanResult {
                     break;
             }
         }
+
+        /**
+         * Координаты носа через тик, как после {@link #move()}, но без изменения корабля.
+         */
+        public int nextX() {
+            return switch (direction.toLowerCase()) {
+                case WEST -> x - speed;
+                case EAST -> x + speed;
+                default -> x;
+            };
+        }
+
+        public int nextY() {
+            return switch (direction.toLowerCase()) {
+                case NORTH -> y - speed;
+                case SOUTH -> y + speed;
+                default -> y;
+            };
+        }
     }
 
     @Data
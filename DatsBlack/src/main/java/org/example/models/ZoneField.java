@@ -0,0 +1,95 @@
+package org.example.models;
+
+import java.util.Arrays;
+
+/**
+ * Поле расстояний (в клетках, 4-связность по воде) до зоны.
+ * <p>
+ * Зона обычно уже прогнозная ({@link ZoneForecaster}), то есть уменьшена на ожидаемое сжатие.
+ * Поле считается одним BFS от всех свободных клеток круга и общее для всего флота;
+ * пересчитывать нужно, только когда зона изменилась ({@link #matches}). Массивы поля
+ * и очереди BFS выделяются один раз и переиспользуются при каждом пересчёте.
+ */
+public class ZoneField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int width;
+    private final int height;
+    private final int[] distance;
+    private final int[] queue;
+    private int zoneX;
+    private int zoneY;
+    private int zoneRadius = -1; // Поле ещё не считалось
+
+    public ZoneField(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.distance = new int[width * height];
+        this.queue = new int[width * height];
+    }
+
+    /**
+     * Пересчитывает поле для зоны на тех же буферах.
+     */
+    public void rebuild(IslandRaster raster, ScanResult.Zone zone) {
+        Arrays.fill(distance, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+
+        // Зона больше карты целиком не бывает, но круг всё равно обрезается по её краям
+        int radius = Math.max(zone.getRadius(), 0);
+        long radiusSquared = (long) radius * radius;
+        int fromY = Math.max(zone.getY() - radius, 0);
+        int toY = Math.min(zone.getY() + radius, height - 1);
+        for (int y = fromY; y <= toY; y++) {
+            long dy = y - zone.getY();
+            int halfWidth = (int) Math.sqrt(Math.max(radiusSquared - dy * dy, 0));
+            int fromX = Math.max(zone.getX() - halfWidth, 0);
+            int toX = Math.min(zone.getX() + halfWidth, width - 1);
+            for (int x = fromX; x <= toX; x++) {
+                if (!raster.isBlocked(x, y)) {
+                    int index = y * width + x;
+                    distance[index] = 0;
+                    queue[tail++] = index;
+                }
+            }
+        }
+
+        while (head < tail) {
+            int index = queue[head++];
+            int x = index % width;
+            int y = index / width;
+            int next = distance[index] + 1;
+            if (x > 0 && distance[index - 1] == UNREACHABLE && !raster.isBlocked(x - 1, y)) {
+                distance[index - 1] = next;
+                queue[tail++] = index - 1;
+            }
+            if (x < width - 1 && distance[index + 1] == UNREACHABLE && !raster.isBlocked(x + 1, y)) {
+                distance[index + 1] = next;
+                queue[tail++] = index + 1;
+            }
+            if (y > 0 && distance[index - width] == UNREACHABLE && !raster.isBlocked(x, y - 1)) {
+                distance[index - width] = next;
+                queue[tail++] = index - width;
+            }
+            if (y < height - 1 && distance[index + width] == UNREACHABLE && !raster.isBlocked(x, y + 1)) {
+                distance[index + width] = next;
+                queue[tail++] = index + width;
+            }
+        }
+        zoneX = zone.getX();
+        zoneY = zone.getY();
+        zoneRadius = zone.getRadius();
+    }
+
+    public boolean matches(ScanResult.Zone zone) {
+        return zone != null && zone.getX() == zoneX && zone.getY() == zoneY && zone.getRadius() == zoneRadius;
+    }
+
+    public int distance(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return UNREACHABLE;
+        }
+        return distance[y * width + x];
+    }
+}
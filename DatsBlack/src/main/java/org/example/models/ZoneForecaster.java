@@ -0,0 +1,78 @@
+package org.example.models;
+
+import static org.example.Const.THIS_TICK;
+
+/**
+ * Прогноз зоны по последовательным сканам.
+ * <p>
+ * Скорость сжатия радиуса и смещение центра за тик сглаживаются экспоненциально.
+ * Пока наблюдений нет, радиус считается уменьшающимся на THIS_TICK за тик, центр — неподвижным.
+ * Рост радиуса означает новый раунд: накопленное сбрасывается.
+ */
+public class ZoneForecaster {
+    private static final double SMOOTHING = 0.5; // Вес нового наблюдения
+
+    private ScanResult.Zone last;
+    private int lastTick;
+    private double shrinkPerTick = THIS_TICK;
+    private double centerDxPerTick;
+    private double centerDyPerTick;
+
+    /**
+     * @param tick Номер тика; 0 и меньше — сервер его не прислал, тогда неизменная зона не считается наблюдением
+     */
+    public void update(int tick, ScanResult.Zone zone) {
+        if (zone == null) {
+            return;
+        }
+        if (last == null || zone.getRadius() > last.getRadius()) {
+            reset(tick, zone);
+            return;
+        }
+        int elapsed;
+        if (tick > 0) {
+            elapsed = tick - lastTick;
+        } else {
+            boolean unchanged = zone.getRadius() == last.getRadius() && zone.getX() == last.getX() && zone.getY() == last.getY();
+            elapsed = unchanged ? 0 : 1;
+        }
+        if (elapsed <= 0) {
+            return;
+        }
+
+        double shrink = (double) (last.getRadius() - zone.getRadius()) / elapsed;
+        double dx = (double) (zone.getX() - last.getX()) / elapsed;
+        double dy = (double) (zone.getY() - last.getY()) / elapsed;
+        shrinkPerTick += SMOOTHING * (shrink - shrinkPerTick);
+        centerDxPerTick += SMOOTHING * (dx - centerDxPerTick);
+        centerDyPerTick += SMOOTHING * (dy - centerDyPerTick);
+        last = zone;
+        lastTick = tick;
+    }
+
+    /**
+     * Зона через ticksAhead тиков после последнего наблюдения, или null, если наблюдений не было.
+     */
+    public ScanResult.Zone forecast(int ticksAhead) {
+        if (last == null) {
+            return null;
+        }
+        ScanResult.Zone zone = new ScanResult.Zone();
+        zone.setX((int) Math.round(last.getX() + centerDxPerTick * ticksAhead));
+        zone.setY((int) Math.round(last.getY() + centerDyPerTick * ticksAhead));
+        zone.setRadius((int) Math.max(0, Math.round(last.getRadius() - shrinkPerTick * ticksAhead)));
+        return zone;
+    }
+
+    public double getShrinkPerTick() {
+        return shrinkPerTick;
+    }
+
+    private void reset(int tick, ScanResult.Zone zone) {
+        last = zone;
+        lastTick = tick;
+        shrinkPerTick = THIS_TICK;
+        centerDxPerTick = 0;
+        centerDyPerTick = 0;
+    }
+}
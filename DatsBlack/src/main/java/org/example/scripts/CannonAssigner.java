@@ -0,0 +1,241 @@
+package org.example.scripts;
+
+import org.example.models.EnemyTracker;
+import org.example.models.ScanResult;
+import org.example.scripts.ScriptRegularScanAndBattle.ResultShootJsonShips;
+import org.example.scripts.ScriptRegularScanAndBattle.ShootClass;
+import org.example.scripts.ScriptRegularScanAndBattle.ShootJson;
+
+import java.util.Arrays;
+
+import static org.example.Const.DISTANCE_SCAN;
+
+/**
+ * Распределение выстрелов всего флота за тик.
+ * <p>
+ * Враги сдвигаются на тик вперёд (по {@link EnemyTracker}, если он есть, иначе
+ * {@link ScanResult.Ship#nextX()}), раскладываются по сетке
+ * с ячейкой DISTANCE_SCAN, и для каждого готового орудия собирается список целей в радиусе
+ * (проверка по Манхэттену, как раньше). Дальше два прохода:
+ * <ol>
+ *     <li>добивание: враги по возрастанию HP, каждому, кого можно убить имеющимися орудиями,
+ *     назначаются ровно нужные выстрелы — от орудий с наименьшим выбором целей;</li>
+ *     <li>оставшиеся орудия бьют по живой цели в радиусе с наименьшим остатком HP.</li>
+ * </ol>
+ * Лишних выстрелов по уже убитым не бывает. Всё на примитивных массивах, объекты кораблей не меняются.
+ */
+public class CannonAssigner {
+    private static final int DAMAGE_PER_SHOT = 1; // Один выстрел — одно попадание
+
+    public static ResultShootJsonShips assign(ScanResult.Ship[] myShips, ScanResult.Ship[] enemyShips) {
+        return assign(myShips, enemyShips, null);
+    }
+
+    public static ResultShootJsonShips assign(ScanResult.Ship[] myShips, ScanResult.Ship[] enemyShips, EnemyTracker tracker) {
+        ResultShootJsonShips result = new ResultShootJsonShips();
+        int enemyCount = enemyShips.length;
+        if (enemyCount == 0) {
+            return result;
+        }
+
+        int[] enemyX = new int[enemyCount];
+        int[] enemyY = new int[enemyCount];
+        int[] enemyHp = new int[enemyCount];
+        for (int e = 0; e < enemyCount; e++) {
+            ScanResult.Ship enemy = enemyShips[e];
+            if (tracker != null && tracker.contains(enemy.getId())) {
+                enemyX[e] = tracker.predictX(enemy.getId(), 1);
+                enemyY[e] = tracker.predictY(enemy.getId(), 1);
+            } else {
+                enemyX[e] = enemy.nextX();
+                enemyY[e] = enemy.nextY();
+            }
+            enemyHp[e] = enemy.getHp();
+        }
+
+        int shooterCount = 0;
+        int[] shooters = new int[myShips.length];
+        for (int s = 0; s < myShips.length; s++) {
+            if (myShips[s].getCannonCooldownLeft() == 0) {
+                shooters[shooterCount++] = s;
+            }
+        }
+        if (shooterCount == 0) {
+            return result;
+        }
+
+        // Кандидаты орудий в формате CSR: цели орудия i — targets[targetStart[i] .. targetStart[i + 1])
+        EnemyGrid grid = new EnemyGrid(enemyX, enemyY, shooterCount * 4);
+        int[] targetStart = new int[shooterCount + 1];
+        for (int i = 0; i < shooterCount; i++) {
+            ScanResult.Ship ship = myShips[shooters[i]];
+            targetStart[i] = grid.size;
+            grid.collect(ship.getX(), ship.getY());
+        }
+        targetStart[shooterCount] = grid.size;
+        int[] targets = grid.found;
+        int[] shooterCountByEnemy = new int[enemyCount];
+        for (int k = 0; k < grid.size; k++) {
+            shooterCountByEnemy[targets[k]]++;
+        }
+
+        int[] assignedTarget = new int[shooterCount];
+        Arrays.fill(assignedTarget, -1);
+        int[] remainingHp = enemyHp.clone();
+
+        // Проход 1: добивание самых слабых целей, пока хватает орудий
+        Integer[] byHp = new Integer[enemyCount];
+        for (int e = 0; e < enemyCount; e++) {
+            byHp[e] = e;
+        }
+        Arrays.sort(byHp, (a, b) -> Integer.compare(enemyHp[a], enemyHp[b]));
+        int[] candidates = new int[shooterCount];
+        for (int e : byHp) {
+            int shotsNeeded = (remainingHp[e] + DAMAGE_PER_SHOT - 1) / DAMAGE_PER_SHOT;
+            if (shotsNeeded <= 0 || shooterCountByEnemy[e] < shotsNeeded) {
+                continue;
+            }
+            int found = 0;
+            for (int i = 0; i < shooterCount; i++) {
+                if (assignedTarget[i] < 0 && canHit(targets, targetStart, i, e)) {
+                    candidates[found++] = i;
+                }
+            }
+            if (found < shotsNeeded) {
+                continue;
+            }
+            // Сначала орудия, которым больше стрелять не во что
+            sortByChoice(candidates, found, targetStart);
+            for (int k = 0; k < shotsNeeded; k++) {
+                assignedTarget[candidates[k]] = e;
+            }
+            remainingHp[e] = 0;
+        }
+
+        // Проход 2: свободные орудия по самой слабой живой цели в радиусе
+        for (int i = 0; i < shooterCount; i++) {
+            if (assignedTarget[i] >= 0) {
+                continue;
+            }
+            int best = -1;
+            for (int k = targetStart[i]; k < targetStart[i + 1]; k++) {
+                int e = targets[k];
+                if (remainingHp[e] > 0 && (best < 0 || remainingHp[e] < remainingHp[best])) {
+                    best = e;
+                }
+            }
+            if (best >= 0) {
+                assignedTarget[i] = best;
+                remainingHp[best] = Math.max(0, remainingHp[best] - DAMAGE_PER_SHOT);
+            }
+        }
+
+        for (int i = 0; i < shooterCount; i++) {
+            int e = assignedTarget[i];
+            if (e < 0) {
+                continue;
+            }
+            ShootJson shootJson = new ShootJson();
+            shootJson.setId(myShips[shooters[i]].getId());
+            shootJson.setCannonShoot(new ShootClass(enemyX[e], enemyY[e], enemyHp[e]));
+            result.getShips().add(shootJson);
+        }
+        return result;
+    }
+
+    private static boolean canHit(int[] targets, int[] targetStart, int shooter, int enemy) {
+        for (int k = targetStart[shooter]; k < targetStart[shooter + 1]; k++) {
+            if (targets[k] == enemy) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Вставками: кандидатов на одну цель немного
+    private static void sortByChoice(int[] candidates, int count, int[] targetStart) {
+        for (int i = 1; i < count; i++) {
+            int value = candidates[i];
+            int choice = targetStart[value + 1] - targetStart[value];
+            int j = i - 1;
+            while (j >= 0 && targetStart[candidates[j] + 1] - targetStart[candidates[j]] > choice) {
+                candidates[j + 1] = candidates[j];
+                j--;
+            }
+            candidates[j + 1] = value;
+        }
+    }
+
+    /**
+     * Враги по ячейкам DISTANCE_SCAN × DISTANCE_SCAN (сортировка подсчётом по ключу ячейки).
+     */
+    private static class EnemyGrid {
+        private final int[] enemyX;
+        private final int[] enemyY;
+        private final int minCellX;
+        private final int minCellY;
+        private final int cellsX;
+        private final int cellsY;
+        private final int[] cellStart;
+        private final int[] cellItems;
+
+        int[] found; // Найденные цели всех запросов подряд
+        int size;
+
+        EnemyGrid(int[] enemyX, int[] enemyY, int capacity) {
+            this.enemyX = enemyX;
+            this.enemyY = enemyY;
+            int count = enemyX.length;
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (int e = 0; e < count; e++) {
+                minX = Math.min(minX, enemyX[e]);
+                minY = Math.min(minY, enemyY[e]);
+                maxX = Math.max(maxX, enemyX[e]);
+                maxY = Math.max(maxY, enemyY[e]);
+            }
+            minCellX = Math.floorDiv(minX, DISTANCE_SCAN);
+            minCellY = Math.floorDiv(minY, DISTANCE_SCAN);
+            cellsX = Math.floorDiv(maxX, DISTANCE_SCAN) - minCellX + 1;
+            cellsY = Math.floorDiv(maxY, DISTANCE_SCAN) - minCellY + 1;
+
+            int[] cellOf = new int[count];
+            cellStart = new int[cellsX * cellsY + 1];
+            for (int e = 0; e < count; e++) {
+                cellOf[e] = (Math.floorDiv(enemyY[e], DISTANCE_SCAN) - minCellY) * cellsX
+                        + Math.floorDiv(enemyX[e], DISTANCE_SCAN) - minCellX;
+                cellStart[cellOf[e] + 1]++;
+            }
+            for (int c = 0; c < cellsX * cellsY; c++) {
+                cellStart[c + 1] += cellStart[c];
+            }
+            found = new int[Math.max(capacity, 16)];
+            cellItems = new int[count];
+            int[] fill = Arrays.copyOf(cellStart, cellStart.length - 1);
+            for (int e = 0; e < count; e++) {
+                cellItems[fill[cellOf[e]]++] = e;
+            }
+        }
+
+        /**
+         * Дописывает в found врагов в радиусе от (x, y).
+         */
+        void collect(int x, int y) {
+            int cellX = Math.floorDiv(x, DISTANCE_SCAN) - minCellX;
+            int cellY = Math.floorDiv(y, DISTANCE_SCAN) - minCellY;
+            for (int cy = Math.max(cellY - 1, 0); cy <= Math.min(cellY + 1, cellsY - 1); cy++) {
+                for (int cx = Math.max(cellX - 1, 0); cx <= Math.min(cellX + 1, cellsX - 1); cx++) {
+                    int cell = cy * cellsX + cx;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int e = cellItems[k];
+                        if (Math.abs(enemyX[e] - x) + Math.abs(enemyY[e] - y) <= DISTANCE_SCAN) {
+                            if (size == found.length) {
+                                found = Arrays.copyOf(found, size * 2);
+                            }
+                            found[size++] = e;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
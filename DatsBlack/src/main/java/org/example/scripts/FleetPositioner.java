@@ -0,0 +1,213 @@
+package org.example.scripts;
+
+import org.example.models.IslandRaster;
+import org.example.models.ScanResult;
+import org.example.models.ZoneForecaster;
+
+import java.util.*;
+
+/**
+ * Расстановка флота по позициям внутри прогнозируемой зоны.
+ * <p>
+ * Позиции — узлы решётки с шагом SLOT_SPACING (решётка глобальная, поэтому позиции
+ * сохраняют идентичность между тиками) внутри зоны через FORECAST_TICKS тиков, со свободным
+ * от островов квадратом вокруг узла. Каждый тик корабль сохраняет свою позицию, если она
+ * всё ещё допустима; остальные корабли назначаются на свободные позиции венгерским
+ * алгоритмом по стоимости: Манхэттен плюс штраф, если прямой путь перекрыт островом.
+ * Кандидаты корабля ограничены ближайшими позициями, поэтому пересчёт дешёвый.
+ */
+public class FleetPositioner {
+    private static final int FORECAST_TICKS = 3;
+    private static final int SLOT_SPACING = 15;
+    private static final int SLOT_CLEARANCE = 5; // Полуширина свободного квадрата вокруг позиции
+    private static final int BLOCKED_PATH_PENALTY = 500;
+    private static final int NOT_CANDIDATE = 1_000_000;
+
+    public record Slot(int x, int y) {
+    }
+
+    private final IslandRaster raster;
+    private final ZoneForecaster forecaster = new ZoneForecaster();
+    private final Map<Integer, Slot> slotByShip = new HashMap<>();
+
+    public FleetPositioner(IslandRaster raster) {
+        this.raster = raster;
+    }
+
+    public ZoneForecaster getForecaster() {
+        return forecaster;
+    }
+
+    /**
+     * Позиции кораблей на этот тик (id → позиция). Кораблям без позиции цель не назначена.
+     */
+    public Map<Integer, Slot> update(int tick, ScanResult.Zone zone, ScanResult.Ship[] ships) {
+        forecaster.update(tick, zone);
+        ScanResult.Zone target = forecaster.forecast(FORECAST_TICKS);
+        if (target == null) {
+            return Map.of();
+        }
+        Set<Slot> valid = new HashSet<>(slots(target));
+
+        // Сохраняем допустимые назначения, остальные корабли — на пересчёт
+        Set<Integer> alive = new HashSet<>();
+        List<ScanResult.Ship> pending = new ArrayList<>();
+        Set<Slot> taken = new HashSet<>();
+        for (ScanResult.Ship ship : ships) {
+            alive.add(ship.getId());
+            Slot slot = slotByShip.get(ship.getId());
+            if (slot != null && valid.contains(slot) && taken.add(slot)) {
+                continue;
+            }
+            slotByShip.remove(ship.getId());
+            pending.add(ship);
+        }
+        slotByShip.keySet().retainAll(alive);
+
+        List<Slot> free = new ArrayList<>();
+        for (Slot slot : valid) {
+            if (!taken.contains(slot)) {
+                free.add(slot);
+            }
+        }
+        if (!pending.isEmpty() && !free.isEmpty()) {
+            assign(pending, free);
+        }
+        return Collections.unmodifiableMap(slotByShip);
+    }
+
+    private void assign(List<ScanResult.Ship> ships, List<Slot> allSlots) {
+        // Каждому кораблю — столько ближайших позиций, сколько кораблей: полное паросочетание
+        // среди кандидатов существует (условие Холла), а матрица остаётся маленькой
+        int candidatesPerShip = Math.min(ships.size(), allSlots.size());
+        Map<Slot, Integer> columns = new LinkedHashMap<>();
+        List<List<Slot>> candidates = new ArrayList<>();
+        for (ScanResult.Ship ship : ships) {
+            List<Slot> nearest = allSlots.stream()
+                    .sorted(Comparator.comparingInt(slot -> Math.abs(ship.getX() - slot.x()) + Math.abs(ship.getY() - slot.y())))
+                    .limit(candidatesPerShip)
+                    .toList();
+            candidates.add(nearest);
+            for (Slot slot : nearest) {
+                columns.putIfAbsent(slot, columns.size());
+            }
+        }
+        List<Slot> slots = new ArrayList<>(columns.keySet());
+
+        int[][] cost = new int[ships.size()][slots.size()];
+        for (int i = 0; i < ships.size(); i++) {
+            ScanResult.Ship ship = ships.get(i);
+            Arrays.fill(cost[i], NOT_CANDIDATE);
+            for (Slot slot : candidates.get(i)) {
+                cost[i][columns.get(slot)] = Math.abs(ship.getX() - slot.x()) + Math.abs(ship.getY() - slot.y())
+                        + (raster.segmentBlocked(ship.getX(), ship.getY(), slot.x(), slot.y()) ? BLOCKED_PATH_PENALTY : 0);
+            }
+        }
+
+        if (ships.size() <= slots.size()) {
+            int[] match = hungarian(cost, ships.size(), slots.size(), false);
+            for (int i = 0; i < ships.size(); i++) {
+                slotByShip.put(ships.get(i).getId(), slots.get(match[i]));
+            }
+        } else {
+            // Позиций меньше, чем кораблей: каждой позиции — лучший корабль
+            int[] match = hungarian(cost, slots.size(), ships.size(), true);
+            for (int j = 0; j < slots.size(); j++) {
+                slotByShip.put(ships.get(match[j]).getId(), slots.get(j));
+            }
+        }
+    }
+
+    private List<Slot> slots(ScanResult.Zone zone) {
+        List<Slot> slots = new ArrayList<>();
+        int radius = zone.getRadius() - SLOT_CLEARANCE;
+        if (radius < 0) {
+            return slots;
+        }
+        long radiusSquared = (long) radius * radius;
+        int fromX = Math.floorDiv(zone.getX() - radius, SLOT_SPACING) * SLOT_SPACING;
+        int fromY = Math.floorDiv(zone.getY() - radius, SLOT_SPACING) * SLOT_SPACING;
+        for (int y = fromY; y <= zone.getY() + radius; y += SLOT_SPACING) {
+            for (int x = fromX; x <= zone.getX() + radius; x += SLOT_SPACING) {
+                long dx = x - zone.getX();
+                long dy = y - zone.getY();
+                if (dx * dx + dy * dy <= radiusSquared && clear(x, y)) {
+                    slots.add(new Slot(x, y));
+                }
+            }
+        }
+        return slots;
+    }
+
+    private boolean clear(int x, int y) {
+        for (int row = y - SLOT_CLEARANCE; row <= y + SLOT_CLEARANCE; row++) {
+            if (raster.rowBlocked(row, x - SLOT_CLEARANCE, x + SLOT_CLEARANCE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Венгерский алгоритм с потенциалами, O(n²·m) для n ≤ m.
+     *
+     * @param transposed строки — второй индекс cost (cost[столбец][строка])
+     * @return столбец для каждой строки
+     */
+    private static int[] hungarian(int[][] cost, int n, int m, boolean transposed) {
+        long[] u = new long[n + 1];
+        long[] v = new long[m + 1];
+        int[] p = new int[m + 1]; // Строка (с 1), занявшая столбец
+        int[] way = new int[m + 1];
+        long[] minv = new long[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Long.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                long delta = Long.MAX_VALUE;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        long c = (transposed ? cost[j - 1][i0 - 1] : cost[i0 - 1][j - 1]) - u[i0] - v[j];
+                        if (c < minv[j]) {
+                            minv[j] = c;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] match = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                match[p[j] - 1] = j - 1;
+            }
+        }
+        return match;
+    }
+}
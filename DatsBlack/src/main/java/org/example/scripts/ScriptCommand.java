@@ -1,37 +1,36 @@
 package org.example.scripts;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.example.ApiTransport;
+import org.example.models.IslandRaster;
 import org.example.models.ScanResult;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.example.CommonScripts.parseResponse;
 import static org.example.Const.*;
 import static org.example.scripts.ScriptMap.fetchScanResult;
 
 public class ScriptCommand {
-    public static final Integer CHANGE_SPEED = null; // Изменяемая скорость
-    public static final Integer ROTATE_ANGLE = null; // Угол поворота
+    public static final Integer CHANGE_SPEED = null; // Изменяемая скорость, если зона неизвестна
+    public static final Integer ROTATE_ANGLE = null; // Угол поворота, если зона неизвестна
 
     public static void main(String[] args) {
         try {
             System.out.println("Запуск команды контроля кораблей");
             ScanResult scanResult = fetchScanResult();
             ScanResult.Ship[] myShips = scanResult.getScan().getMyShips();
+            ScanResult.Zone zone = scanResult.getScan().getZone();
 
-//            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-//            String prettyJson = gson.toJson(scanResult);
-//            System.out.println("Обработанный результат сканирования: \n" + prettyJson);
-
-            sendShipCommands(myShips);
+            if (zone != null) {
+                ShipRoutePlanner planner = new ShipRoutePlanner(IslandRaster.cached(mapUrl, ScriptMap::fetchBattleMap));
+                sendShipCommands(planner.plan(myShips, zone));
+            } else {
+                sendShipCommands(myShips);
+            }
         } catch (IOException | InterruptedException e) {
             System.err.println("Ошибка: " + e.getMessage());
         }
@@ -50,21 +49,13 @@ public class ScriptCommand {
             commands.add(command);
         }
 
-        ShipsWrapper shipsWrapper = new ShipsWrapper(commands);
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        String requestBody = objectMapper.writeValueAsString(shipsWrapper);
-        System.out.println("Отправляемые команды: " + requestBody);
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "shipCommand"))
-                .header("X-API-Key", apiKey)
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                .build();
+        sendShipCommands(commands);
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        System.out.println("Результат: " + parseResponse(response.body()));
+    public static void sendShipCommands(List<ShipCommand> commands) throws IOException, InterruptedException {
+        ShipsWrapper shipsWrapper = new ShipsWrapper(commands);
+        System.out.println("Отправляемые команды: " + ApiTransport.write(shipsWrapper));
+        System.out.println("Результат: " + ApiTransport.sendCommands(shipsWrapper));
     }
 
     @Data
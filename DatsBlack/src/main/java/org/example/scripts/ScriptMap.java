@@ -1,87 +1,91 @@
 package org.example.scripts;
 
-import com.google.gson.Gson;
+import org.example.ApiTransport;
 import org.example.models.BattleMap;
+import org.example.models.IslandRaster;
 import org.example.models.ScanResult;
+import org.example.models.ZoneForecaster;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.example.Const.*;
 
 public class ScriptMap {
-    private static JFrame frame;
+    private static volatile JFrame frame;
+    private static BufferedImage islandsImage; // Острова не меняются: рисуются один раз, в фоновом потоке
+
+    // Последний кадр данных: фоновый поток подменяет его целиком, EDT только читает
+    private static volatile MapSnapshot snapshot;
+    private static final ZoneForecaster zoneForecaster = new ZoneForecaster(); // Только в фоновом потоке
+
+    private record MapSnapshot(BufferedImage islandsImage, ScanResult.Ship[] myShips,
+                               ScanResult.Ship[] enemyShips, ScanResult.Zone zone, ScanResult.Zone nextZone) {
+    }
 
     public static void main(String[] args) {
-        frame = new JFrame("Battle Map");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setPreferredSize(new Dimension(1000, 1000));
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setVisible(true);
-
-        Timer timer = new Timer(1000, e -> updateMap());
-        timer.start();
-        updateMap();
+        SwingUtilities.invokeLater(() -> {
+            frame = new JFrame("Battle Map");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.setPreferredSize(new Dimension(1000, 1000));
+            frame.getContentPane().add(new MapDrawer());
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+
+        // Загрузка по HTTP — не на EDT; следующий запрос только после завершения предыдущего
+        ScheduledExecutorService fetcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "map-fetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fetcher.scheduleWithFixedDelay(ScriptMap::updateMap, 0, 1, TimeUnit.SECONDS);
     }
 
     private static void updateMap() {
         try {
-            BattleMap battleMap = fetchBattleMap();
+            if (islandsImage == null) {
+                islandsImage = renderIslands(IslandRaster.cached(mapUrl, ScriptMap::fetchBattleMap));
+            }
             ScanResult scanResult = fetchScanResult();
-            ScanResult.Zone zone = scanResult.getScan().getZone();
-            MapDrawer mapDrawer;
-            mapDrawer = new MapDrawer(battleMap, scanResult.getScan().getMyShips(),
-                    scanResult.getScan().getEnemyShips(), zone);
-
-            frame.getContentPane().removeAll();
-            frame.getContentPane().add(mapDrawer);
-            frame.revalidate();
-            frame.repaint();
-        } catch (IOException | InterruptedException e) {
+            ScanResult.ScanData scan = scanResult.getScan();
+            zoneForecaster.update(scan.getTick(), scan.getZone());
+            snapshot = new MapSnapshot(islandsImage, scan.getMyShips(), scan.getEnemyShips(), scan.getZone(),
+                    zoneForecaster.forecast(1));
+            if (frame != null) {
+                frame.repaint();
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
             e.printStackTrace();
         }
     }
 
-    private static BattleMap fetchBattleMap() throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(mapUrl))
-                .GET()
-                .build();
+    // Масштаб 1:2, как у остальной отрисовки
+    private static BufferedImage renderIslands(IslandRaster raster) {
+        BufferedImage image = new BufferedImage((raster.getWidth() + 1) / 2, (raster.getHeight() + 1) / 2,
+                BufferedImage.TYPE_INT_ARGB);
+        int black = Color.BLACK.getRGB();
+        raster.forEachBlocked((x, y) -> image.setRGB(x / 2, y / 2, black));
+        return image;
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        return gson.fromJson(response.body(), BattleMap.class);
+    static BattleMap fetchBattleMap() throws IOException, InterruptedException {
+        return ApiTransport.fetchBattleMap();
     }
 
     static ScanResult fetchScanResult() throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "scan"))
-                .header("X-API-Key", apiKey)
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        Gson gson = new Gson();
-        return gson.fromJson(response.body(), ScanResult.class);
+        return ApiTransport.scan();
     }
 
     private static class MapDrawer extends JPanel {
-        private final BattleMap battleMap;
-        private final ScanResult.Ship[] myShips;
-        private final ScanResult.Ship[] enemyShips;
-        private final ScanResult.Zone zone;
-
-        public MapDrawer(BattleMap battleMap, ScanResult.Ship[] myShips,
-                         ScanResult.Ship[] enemyShips, ScanResult.Zone zone) {
-            this.battleMap = battleMap;
-            this.myShips = myShips;
-            this.enemyShips = enemyShips;
-            this.zone = zone;
+
+        public MapDrawer() {
             setPreferredSize(new Dimension(800, 800));
         }
 
@@ -90,21 +94,21 @@ public class ScriptMap {
             super.paintComponent(g);
 
             drawGrid(g);
-            if (battleMap != null) {
-                drawShips(g, myShips, Color.BLUE);
-                drawShips(g, enemyShips, Color.RED);
-                for (BattleMap.Island island : battleMap.getIslands()) {
-                    drawIsland(g, island);
+            MapSnapshot current = snapshot;
+            if (current != null) {
+                drawShips(g, current.myShips(), Color.BLUE);
+                drawShips(g, current.enemyShips(), Color.RED);
+                g.drawImage(current.islandsImage(), 0, 0, null);
+                if (current.zone() != null) {
+                    drawZone(g, current.zone(), current.nextZone());
                 }
             }
-            if (zone != null) {
-                drawZone(g, zone);
-            }
             drawBorder(g);
-            displayShipInfoAboveMap(g, myShips);
-
-            if (myShips.length > 0) {
-                drawDirectionArrow(g, myShips[0].getDirection());
+            if (current != null) {
+                displayShipInfoAboveMap(g, current.myShips());
+                if (current.myShips().length > 0) {
+                    drawDirectionArrow(g, current.myShips()[0].getDirection());
+                }
             }
         }
 
@@ -157,23 +161,7 @@ public class ScriptMap {
             }
         }
 
-        private void drawIsland(Graphics g, BattleMap.Island island) {
-            g.setColor(Color.BLACK);
-            int[][] map = island.getMap();
-            List<Integer> start = island.getStart();
-            int startX = start.get(0) / 2;
-            int startY = start.get(1) / 2;
-
-            for (int i = 0; i < map.length; i++) {
-                for (int j = 0; j < map[i].length; j++) {
-                    if (map[i][j] == 1) {
-                        g.fillRect(startX + j / 2, startY + i / 2, 1, 1);
-                    }
-                }
-            }
-        }
-
-        private void drawZone(Graphics g, ScanResult.Zone zone) {
+        private void drawZone(Graphics g, ScanResult.Zone zone, ScanResult.Zone nextZone) {
             Graphics2D g2d = (Graphics2D) g;
 
             g2d.setColor(Color.GREEN);
@@ -186,8 +174,11 @@ public class ScriptMap {
             int radius = zone.getRadius() / 2;
             g2d.drawOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
 
+            // Прогноз зоны на следующий тик
             g2d.setColor(Color.ORANGE);
-            radius = radius - THIS_TICK / 2;
+            centerX = nextZone.getX() / 2;
+            centerY = nextZone.getY() / 2;
+            radius = nextZone.getRadius() / 2;
             g2d.drawOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
         }
 
@@ -1,79 +1,134 @@
 package org.example.scripts;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.example.ApiTransport;
+import org.example.TickClock;
+import org.example.models.EnemyTracker;
+import org.example.models.IslandRaster;
 import org.example.models.ScanResult;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import static org.example.Const.*;
 
 
 public class ScriptRegularScanAndBattle {
+    private static final EnemyTracker enemyTracker = new EnemyTracker();
+    private static ShipRoutePlanner routePlanner; // Появляются после загрузки карты
+    private static FleetPositioner fleetPositioner;
 
     public static void main(String[] args) {
         startRegularScans();
     }
 
     public static void shoootingAPI(ResultShootJsonShips resultShootJsonShips) throws IOException, InterruptedException {
-        // Преобразование объекта в JSON-строку
-        ObjectMapper objectMapper = new ObjectMapper();
-        String requestBody = objectMapper.writeValueAsString(resultShootJsonShips);
-//        System.out.println(requestBody);
-        // Создание POST-запроса с передачей тела запроса
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "shipCommand"))
-                .header("X-API-Key", apiKey)
-                .header("Content-Type", "application/json") // Указываем тип контента как JSON
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-//        System.out.println("Результат: " + parseResponse(response.body()));
+        ApiTransport.sendCommands(resultShootJsonShips);
     }
 
+    /**
+     * Цикл по тикам сервера: скан сразу после начала тика, план, отправка, если ещё успеваем.
+     * Ошибка в планировании пропускает тик, но не останавливает цикл.
+     */
     public static void startRegularScans() {
-        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
-        executorService.scheduleAtFixedRate(ScriptRegularScanAndBattle::scanAndPrint, 0, 5, TimeUnit.SECONDS);
+        Thread loop = new Thread(() -> {
+            TickClock clock = new TickClock();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    clock.awaitNextTick();
+                    try {
+                        scanAndBattle(clock);
+                    } catch (RuntimeException e) {
+                        System.err.println("Ошибка обработки тика: " + e);
+                        clock.onTickDone();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "scan-loop");
+        loop.start();
     }
 
-    private static void scanAndPrint() {
+    private static void scanAndBattle(TickClock clock) throws InterruptedException {
+        ScanResult scanResult;
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "scan"))
-                    .header("X-API-Key", apiKey)
-                    .build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-//            System.out.println("Ответ сервера: " + response.body());
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            ScanResult scanResult = gson.fromJson(response.body(), ScanResult.class);
-            String prettyJson = gson.toJson(scanResult);
-
-//            System.out.println("Обработанный результат сканирования: \n" + prettyJson);
-            System.out.println(getAverageShipSpeed(scanResult.getScan().getMyShips()));
+            scanResult = ApiTransport.scan();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ошибка при выполнении сканирования: " + e.getMessage());
+            clock.onScanFailed();
+            return;
+        }
+        if (scanResult == null || scanResult.getScan() == null) {
+            clock.onScanFailed();
+            return;
+        }
+        ScanResult.ScanData scan = scanResult.getScan();
+        if (!clock.onScan(scan.getTick())) {
+            return;
+        }
 
+        enemyTracker.update(scan.getTick(), scan.getEnemyShips());
+        System.out.println(getAverageShipSpeed(scan.getMyShips()));
+        ResultShootJsonShips ships = new ResultShootJsonShips();
+        if (scan.getEnemyShips().length != 0) {
+            System.out.println("Рядом есть вражеские игроки: " + scan.getEnemyShips().length);
+            ships = battle(scan.getMyShips(), scan.getEnemyShips());
+        }
 
-            if (scanResult.getScan().getEnemyShips().length != 0) {
-                System.out.println("Рядом есть вражеские игроки: " + Arrays.toString(scanResult.getScan().getEnemyShips()));
+        if (scan.getZone() != null) {
+            addMovement(ships, scan);
+        }
 
-                ResultShootJsonShips ships = battle(scanResult.getScan().getMyShips(), scanResult.getScan().getEnemyShips());
-                if (!ships.getShips().isEmpty()) {
-                    shoootingAPI(ships);
+        if (!clock.onPlanned() || ships.getShips().isEmpty()) {
+            clock.onTickDone();
+            return;
+        }
+        // Ответ на команду не ждём: следующий скан идёт параллельно
+        ApiTransport.sendCommandsAsync(ships).whenComplete((result, error) -> {
+            if (error != null) {
+                System.err.println("Ошибка отправки команд: " + error.getMessage());
+            }
+        });
+        clock.onSent();
+    }
 
-                }
+    // Позиции в прогнозируемой зоне и маршруты к ним: команды движения дописываются к выстрелам
+    private static void addMovement(ResultShootJsonShips ships, ScanResult.ScanData scan) {
+        if (routePlanner == null) {
+            try {
+                IslandRaster raster = IslandRaster.cached(mapUrl, ScriptMap::fetchBattleMap);
+                routePlanner = new ShipRoutePlanner(raster);
+                fleetPositioner = new FleetPositioner(raster);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                System.err.println("Карта не загружена, корабли без маршрутов: " + e.getMessage());
+                return;
             }
-        } catch (IOException | InterruptedException e) {
-            System.err.println("Ошибка при выполнении сканирования: " + e.getMessage());
+        }
+        Map<Integer, FleetPositioner.Slot> slots = fleetPositioner.update(scan.getTick(), scan.getZone(), scan.getMyShips());
+        Map<Integer, ShootJson> byId = new HashMap<>();
+        for (ShootJson shootJson : ships.getShips()) {
+            byId.put(shootJson.getId(), shootJson);
+        }
+        // Маршруты — в зону следующего тика по выученной скорости сжатия
+        ScanResult.Zone nextZone = fleetPositioner.getForecaster().forecast(1);
+        if (nextZone == null) {
+            return; // Зону ещё ни разу не видели
+        }
+        for (ScriptCommand.ShipCommand command : routePlanner.plan(scan.getMyShips(), nextZone, slots)) {
+            if (command.getChangeSpeed() == null && command.getRotate() == null) {
+                continue;
+            }
+            ShootJson shootJson = byId.computeIfAbsent(command.getId(), id -> {
+                ShootJson created = new ShootJson();
+                created.setId(id);
+                ships.getShips().add(created);
+                return created;
+            });
+            shootJson.setChangeSpeed(command.getChangeSpeed());
+            shootJson.setRotate(command.getRotate());
         }
     }
 
@@ -92,95 +147,23 @@ public class ScriptRegularScanAndBattle {
     }
 
     private static ResultShootJsonShips battle(ScanResult.Ship[] myShips, ScanResult.Ship[] enemyShips) {
-        System.out.println("Орудия готовы!");
-        Arrays.stream(enemyShips).forEach(ScanResult.Ship::move);
-        for (ScanResult.Ship enemyShip : enemyShips) {
-            System.out.println("Стапые координты: (x,у) и скорость,направление" + enemyShip.getX() + "," + enemyShip.getY() + "," + enemyShip.getSpeed() + "," + enemyShip.getDirection());
-            enemyShip.move();
-            System.out.println("Новые координты: (x,у) " + enemyShip.getX() + "," + enemyShip.getY());
-        }
-        ResultShootJsonShips resultShootJsonShips = new ResultShootJsonShips();
-
-        for (ScanResult.Ship myShip : myShips) {
-            if (myShip.getCannonCooldownLeft() == 0) {
-                List<ScanResult.Ship> enemyShipsList = getNewCoordinatesInEnemyArray(myShip, enemyShips);
-                List<ScanResult.Ship> shootClassList = enemyShipsList.stream()
-                        .filter(enemyShip -> calculateDistance(myShip.getX(), myShip.getY(), enemyShip.getX(), enemyShip.getY()) <= DISTANCE_SCAN)
-                        .sorted(Comparator.comparingInt(ScanResult.Ship::getHp))
-                        .toList();
-                System.out.println("--------Корабль " + myShip.getId() + " может стрелять по " + shootClassList + "------------");
-
-                if (!shootClassList.isEmpty()) {
-                    Optional<ScanResult.Ship> enemyShipRadius = shootClassList.stream()
-                            .filter(enemyShip -> enemyShip.getHp() > enemyShip.getNumberTarget())
-                            .findFirst();
-                    if (enemyShipRadius.isEmpty()) {
-                        enemyShipRadius = shootClassList.stream()
-                                .findFirst();
-                    }
-                    Optional<ShootClass> closestEnemy =
-                            enemyShipRadius.map(enemyShip -> {
-                                enemyShip.setNumberTarget(enemyShip.getNumberTarget() + 1);
-                                return new ShootClass(enemyShip.getX(), enemyShip.getY(), enemyShip.getHp());
-                            });
-                    System.out.println("Бабах! Корабль c попаданиями " + myShip.getId() + "," + myShip.getCannonShootSuccessCount() + " стреляет по " + closestEnemy);
-                    ShootJson shootJson = new ShootJson();
-                    shootJson.setId(myShip.getId());
-                    shootJson.setCannonShoot(closestEnemy.get());
-                    resultShootJsonShips.getShips().add(shootJson);
-                }
-            }
-        }
-        System.out.println("\n");
+        ResultShootJsonShips resultShootJsonShips = CannonAssigner.assign(myShips, enemyShips, enemyTracker);
+        System.out.println("Орудия готовы! Выстрелов: " + resultShootJsonShips.getShips().size() + "\n");
         return resultShootJsonShips;
     }
 
-    private static List<ScanResult.Ship> getNewCoordinatesInEnemyArray(ScanResult.Ship myShip, ScanResult.Ship[] enemyShips) {
-        List<ScanResult.Ship> enemyShipsList = new ArrayList<>(List.of(enemyShips));
-        enemyShipsList
-                .forEach(enemy -> {
-                   /* switch (enemy.getDirection().toLowerCase()) {
-                        case NORTH:
-                            if(myShip.getY()>enemy.getY()){
-                                enemy.setY(enemy.getY()+enemy.getSize());
-                            }
-                            break;
-                        case SOUTH:
-                            if(myShip.getY()<enemy.getY()){
-                                enemy.setY(enemy.getY()-enemy.getSize());
-                            }
-                            break;
-                        case EAST:
-                            if(myShip.getX()>enemy.getX()){
-                                enemy.setX(enemy.getX()+enemy.getSize());
-                            }
-                            break;
-                        case WEST:
-                            if(myShip.getX()<enemy.getX()){
-                                enemy.setX(enemy.getX()-enemy.getSize());
-                            }
-                            break;
-                        default:
-                            System.out.println("Неправильное направление: " + enemy.getDirection());
-                            break;
-                    }*/
-                });
-        return enemyShipsList;
-    }
-
-    private static int calculateDistance(int x1, int y1, int x2, int y2) {
-        return Math.abs(x2 - x1) + Math.abs(y2 - y1);
-    }
-
     @Data
     public static class ResultShootJsonShips {
         List<ShootJson> ships = new ArrayList<>();
     }
 
     @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class ShootJson {
         private int id;
         private ShootClass cannonShoot;
+        private Integer changeSpeed;
+        private Integer rotate;
     }
 
     @Data
@@ -0,0 +1,192 @@
+package org.example.scripts;
+
+import org.example.models.Heading;
+import org.example.models.IslandRaster;
+import org.example.models.ScanResult;
+import org.example.models.ZoneField;
+import org.example.models.ZoneForecaster;
+import org.example.scripts.ScriptCommand.ShipCommand;
+
+import java.util.*;
+
+import static org.example.Const.*;
+
+/**
+ * Планировщик маршрутов флота к зоне.
+ * <p>
+ * Для каждого корабля A* по состояниям (x, y, курс, скорость) с шагом в один тик.
+ * Переход проверяется по заметаемому корпусу: от кормы после поворота до носа после хода.
+ * Эвристика (с весом) — поле расстояний до зоны, делённое на максимальную скорость; поле общее
+ * для флота, пересчитывается только при смене зоны и на тех же буферах. Цель — зона
+ * следующего тика по прогнозу {@link ZoneForecaster}. Корабли планируются параллельно,
+ * на выходе — команды changeSpeed/rotate на текущий тик.
+ * Поворот считается вокруг носа, скорость меняется не больше чем на maxChangeSpeed за тик.
+ * Конечное состояние принимается, только если из него можно затормозить, не задев остров
+ * и не выйдя из зоны.
+ * Если кораблю назначена позиция ({@link FleetPositioner}), цель — оказаться в зоне не дальше
+ * SLOT_TOLERANCE от неё.
+ */
+public class ShipRoutePlanner {
+    private static final int MAX_EXPANSIONS = 4000; // На один корабль за тик
+    private static final int MAX_DEPTH = 40;
+    private static final int HEURISTIC_WEIGHT = 2; // Взвешенный A*: путь чуть длиннее, поиск в разы короче
+    private static final int DEFAULT_MAX_SPEED = 10; // Если сервер не прислал характеристики корабля
+    private static final int DEFAULT_MAX_CHANGE_SPEED = 2;
+    private static final int SLOT_TOLERANCE = 10;
+
+    private static final int[] ROTATIONS = {0, 90, -90};
+
+    private final IslandRaster raster;
+    private final ZoneField zoneField;
+
+    public ShipRoutePlanner(IslandRaster raster) {
+        this.raster = raster;
+        this.zoneField = new ZoneField(raster.getWidth(), raster.getHeight());
+    }
+
+    private record Node(int x, int y, int heading, int speed, int g, int h, int firstChange, int firstRotate) {
+        int f() {
+            return g + HEURISTIC_WEIGHT * h;
+        }
+    }
+
+    /**
+     * Команды на тик для всех кораблей по одному скану: без истории зона следующего тика —
+     * прогноз {@link ZoneForecaster} по умолчанию.
+     */
+    public List<ShipCommand> plan(ScanResult.Ship[] ships, ScanResult.Zone zone) {
+        ZoneForecaster forecaster = new ZoneForecaster();
+        forecaster.update(0, zone);
+        return plan(ships, forecaster.forecast(1), Map.of());
+    }
+
+    /**
+     * Команды на тик с учётом назначенных позиций (id корабля → позиция).
+     *
+     * @param targetZone Прогноз зоны на следующий тик ({@link ZoneForecaster#forecast}).
+     */
+    public List<ShipCommand> plan(ScanResult.Ship[] ships, ScanResult.Zone targetZone, Map<Integer, FleetPositioner.Slot> slots) {
+        if (!zoneField.matches(targetZone)) {
+            zoneField.rebuild(raster, targetZone);
+        }
+        ZoneField field = zoneField;
+        return Arrays.stream(ships).parallel()
+                .map(ship -> planShip(ship, field, slots.get(ship.getId())))
+                .toList();
+    }
+
+    private ShipCommand planShip(ScanResult.Ship ship, ZoneField field, FleetPositioner.Slot slot) {
+        int heading = Heading.index(ship.getDirection());
+        int maxSpeed = ship.getMaxSpeed() > 0 ? ship.getMaxSpeed() : Math.max(DEFAULT_MAX_SPEED, ship.getSpeed());
+        int minSpeed = ship.getMinSpeed();
+        int maxChange = ship.getMaxChangeSpeed() > 0 ? ship.getMaxChangeSpeed() : DEFAULT_MAX_CHANGE_SPEED;
+        int size = Math.max(ship.getSize(), 1);
+        int[] speedChanges = {0, maxChange, -maxChange};
+
+        PriorityQueue<Node> open = new PriorityQueue<>(Comparator.comparingInt(Node::f).thenComparingInt(Node::h));
+        Set<Long> closed = new HashSet<>();
+        open.add(new Node(ship.getX(), ship.getY(), heading, ship.getSpeed(), 0,
+                heuristic(field, slot, ship.getX(), ship.getY(), maxSpeed), 0, 0));
+
+        Node best = null; // Ближайшее к зоне безопасное состояние, если до неё не дошли
+        int expansions = 0;
+        while (!open.isEmpty() && expansions < MAX_EXPANSIONS) {
+            Node node = open.poll();
+            if (!closed.add(key(node))) {
+                continue;
+            }
+            int braking = brakingDistance(node.speed(), minSpeed, maxChange);
+            if (node.g() > 0 && !brakingBlocked(node, size, braking)) {
+                // В зоне должна остаться и точка остановки, иначе корабль проскочит зону
+                if (node.h() == 0 && field.distance(node.x() + Heading.dx(node.heading()) * braking,
+                        node.y() + Heading.dy(node.heading()) * braking) == 0) {
+                    return command(ship, node);
+                }
+                if (best == null || node.h() < best.h() || node.h() == best.h() && node.g() < best.g()) {
+                    best = node;
+                }
+            }
+            if (node.g() >= MAX_DEPTH) {
+                continue;
+            }
+            expansions++;
+
+            for (int rotate : ROTATIONS) {
+                int nextHeading = Math.floorMod(node.heading() + rotate / 90, Heading.COUNT);
+                for (int change : speedChanges) {
+                    int nextSpeed = Math.max(minSpeed, Math.min(maxSpeed, node.speed() + change));
+                    if (change != 0 && nextSpeed == node.speed()) {
+                        continue; // Упёрлись в предел: то же, что без изменения
+                    }
+                    int nextX = node.x() + Heading.dx(nextHeading) * nextSpeed;
+                    int nextY = node.y() + Heading.dy(nextHeading) * nextSpeed;
+                    if (sweptBlocked(node.x(), node.y(), nextX, nextY, nextHeading, size)) {
+                        continue;
+                    }
+                    int h = heuristic(field, slot, nextX, nextY, maxSpeed);
+                    if (h == Integer.MAX_VALUE) {
+                        continue;
+                    }
+                    boolean first = node.g() == 0;
+                    open.add(new Node(nextX, nextY, nextHeading, nextSpeed, node.g() + 1, h,
+                            first ? nextSpeed - node.speed() : node.firstChange(),
+                            first ? rotate : node.firstRotate()));
+                }
+            }
+        }
+
+        if (best != null) {
+            return command(ship, best);
+        }
+        // Безопасного хода не нашлось: тормозим, не поворачивая
+        return new ShipCommand(ship.getId(), -maxChange, null);
+    }
+
+    // Корпус после поворота вокруг носа и хода на скорость: от кормы в старой точке до нового носа
+    private boolean sweptBlocked(int x, int y, int nextX, int nextY, int heading, int size) {
+        int tailX = x - Heading.dx(heading) * (size - 1);
+        int tailY = y - Heading.dy(heading) * (size - 1);
+        return raster.segmentBlocked(tailX, tailY, nextX, nextY);
+    }
+
+    // Путь торможения по прямой до минимальной скорости
+    private static int brakingDistance(int speed, int minSpeed, int maxChange) {
+        int distance = 0;
+        for (int next = speed - maxChange; next > minSpeed; next -= maxChange) {
+            distance += next;
+        }
+        return distance + minSpeed;
+    }
+
+    private boolean brakingBlocked(Node node, int size, int braking) {
+        if (braking == 0) {
+            return false;
+        }
+        int heading = node.heading();
+        return sweptBlocked(node.x(), node.y(), node.x() + Heading.dx(heading) * braking,
+                node.y() + Heading.dy(heading) * braking, heading, size);
+    }
+
+    private static int heuristic(ZoneField field, FleetPositioner.Slot slot, int x, int y, int maxSpeed) {
+        int distance = field.distance(x, y);
+        if (distance == ZoneField.UNREACHABLE) {
+            return Integer.MAX_VALUE;
+        }
+        if (slot != null) {
+            int toSlot = Math.abs(x - slot.x()) + Math.abs(y - slot.y()) - SLOT_TOLERANCE;
+            distance = Math.max(distance, toSlot);
+        }
+        return (distance + maxSpeed - 1) / Math.max(maxSpeed, 1);
+    }
+
+    private static ShipCommand command(ScanResult.Ship ship, Node node) {
+        return new ShipCommand(ship.getId(),
+                node.firstChange() != 0 ? node.firstChange() : null,
+                node.firstRotate() != 0 ? node.firstRotate() : null);
+    }
+
+    private static long key(Node node) {
+        return ((long) node.x() & 0xFFFFF) << 40 | ((long) node.y() & 0xFFFFF) << 20
+                | (long) node.heading() << 16 | node.speed() & 0xFFFF;
+    }
+}
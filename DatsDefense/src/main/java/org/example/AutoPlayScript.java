@@ -8,9 +8,12 @@ import org.example.models.mapInfo.Base;
 import org.example.models.mapInfo.InfoResponse;
 import org.example.models.mapInfo.Zombie;
 import org.example.models.play.*;
-import org.example.models.worldInfo.WorldDataResponse;
+import org.example.clients.WorldDataCache;
+import org.example.models.worldInfo.StaticWorld;
+import org.example.simulator.ReplayStore;
 import org.example.scripts.ShootScript.AttackResponse;
 import org.example.scripts.MoveScript;
+import org.example.scripts.ZombiePredictor;
 
 import static org.example.MainCommands.*;
 import static org.example.scripts.BuildScript.build;
@@ -19,55 +22,56 @@ import static org.example.scripts.ShootScript.shoot;
 
 public class AutoPlayScript {
 
+    private static final WorldDataCache worldDataCache = new WorldDataCache();
+    private static final TurnClock turnClock = new TurnClock();
+    private static final ReplayStore replayStore = ReplayStore.fromSystemProperty();
+
+    private static final int FORECAST_TURNS = 8; // Горизонт общего прогноза зомби
+
     public static void main(String[] args) throws InterruptedException {
 
         while (true) {
             try {
-                // Каждую секунду пробрасываем роут №3
+                // Роут №3 запрашиваем сразу после границы хода
+                turnClock.awaitNextTurn();
+                long requestStarted = System.nanoTime();
                 InfoResponse infoResponse;
                 try {
                     infoResponse = MainCommands.getApiResponse();
                     if (infoResponse == null) throw new Exception("Failed to get game info.");
                 } catch (Exception e) {
                     System.err.println(e.getMessage());
-                    Thread.sleep(1000);
+                    Thread.sleep(turnClock.retryDelayMs());
                     continue;
                 }
+                if (!turnClock.onInfo(infoResponse, requestStarted)) {
+                    // Сервер ещё не перешёл на новый ход
+                    Thread.sleep(turnClock.retryDelayMs());
+                    continue;
+                }
+                if (replayStore != null) {
+                    replayStore.record(infoResponse);
+                }
 
-                // Каждую секунду пробрасываем роут №1
-                WorldDataResponse worldDataResponse;
-                try {
-                    worldDataResponse = getWorldDataResponse();
-                    if (worldDataResponse == null) throw new Exception("Failed to get world data.");
-                } catch (Exception e) {
-                    System.err.println(e.getMessage());
-                    Thread.sleep(1000);
+                // Роут №4 не меняется в течение раунда: берём из кэша
+                StaticWorld world = worldDataCache.get(infoResponse);
+                if (world == null) {
+                    System.err.println("Failed to get world data.");
+                    Thread.sleep(turnClock.retryDelayMs());
                     continue;
                 }
 
-                PlayRequest playRequest = new PlayRequest();
+                PlayRequest playRequest;
                 try {
-                    AttackResponse attackResponse = shoot(infoResponse);
-
-                    List<Attack> attack = attackResponse.attacks();
-                    InfoResponse updatedInfoResponse = attackResponse.updatedInfoResponse();
-                    List<Build> builds = build(updatedInfoResponse, worldDataResponse);
-
-                    // Получение текущих координат базы
-                    Base centerBaseBlock = findCenterBaseBlock(infoResponse.getBase());
-                    assert centerBaseBlock != null;
-                    int currentX = centerBaseBlock.getX();
-                    int currentY = centerBaseBlock.getY();
-
-                    MoveBase moveBase = MoveScript.moveBaseToSafestCell(updatedInfoResponse, currentX, currentY);
-
-                    playRequest.setAttack(attack);
-                    playRequest.setBuild(builds);
-                    playRequest.setMoveBase(moveBase);
+                    playRequest = planTurn(infoResponse, world);
                 } catch (NullPointerException e) {
                     e.printStackTrace();
 //                    getPlay();
-                    Thread.sleep(1000);
+                    Thread.sleep(turnClock.retryDelayMs());
+                    continue;
+                }
+
+                if (!turnClock.canSend()) {
                     continue;
                 }
 
@@ -77,22 +81,50 @@ public class AutoPlayScript {
                     if (playResponse == null) throw new Exception("Failed to send play response.");
                     System.out.println(playResponse);
                     System.out.println("Commands sent and Info updated.");
+                    turnClock.onSent();
                 } catch (Exception e) {
                     System.err.println(e.getMessage());
-                    Thread.sleep(1000);
                 }
                 System.out.println(infoResponse.getBase().length + " - Размер базы; " + infoResponse.getPlayer().getZombieKills() + " - убито зомби; " + infoResponse.getPlayer().getGold() + " - золото");
                 System.out.println("==================================");
-                Thread.sleep(2000);
 
             } catch (Exception e) {
                 e.printStackTrace();
-                Thread.sleep(1000);
+                Thread.sleep(turnClock.retryDelayMs());
             }
         }
     }
 
 
+    /**
+     * Команды на ход: атака, постройка по состоянию после атаки, перенос центра управления.
+     * Прогноз зомби считается один раз до выстрелов и общий для всех скриптов: убитые
+     * на этом ходу зомби в нём остаются, как и прочие допущения прогноза, это оценка сверху.
+     * Используется и в живой игре, и в локальном симуляторе.
+     */
+    public static PlayRequest planTurn(InfoResponse infoResponse, StaticWorld world) {
+        PlayRequest playRequest = new PlayRequest();
+        ZombiePredictor forecast = ZombiePredictor.simulate(infoResponse, FORECAST_TURNS);
+        AttackResponse attackResponse = shoot(infoResponse, forecast);
+
+        List<Attack> attack = attackResponse.attacks();
+        InfoResponse updatedInfoResponse = attackResponse.updatedInfoResponse();
+        List<Build> builds = build(updatedInfoResponse, world, forecast);
+
+        // Получение текущих координат базы
+        Base centerBaseBlock = findCenterBaseBlock(infoResponse.getBase());
+        assert centerBaseBlock != null;
+        int currentX = centerBaseBlock.getX();
+        int currentY = centerBaseBlock.getY();
+
+        MoveBase moveBase = MoveScript.moveBaseToSafestCell(updatedInfoResponse, currentX, currentY, forecast);
+
+        playRequest.setAttack(attack);
+        playRequest.setBuild(builds);
+        playRequest.setMoveBase(moveBase);
+        return playRequest;
+    }
+
     // Метод для нахождения центрального блока базы
     private static Base findCenterBaseBlock(Base[] baseBlocks) {
         for (Base base : baseBlocks) {
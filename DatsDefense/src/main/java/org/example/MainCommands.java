@@ -14,11 +14,17 @@ import org.example.models.worldInfo.WorldDataResponse;
 
 public class MainCommands {
 
+    // Клиенты не держат состояния, соединения и разбор JSON общие (ApiTransport)
+    private static final GameCommandApiClient gameCommandApiClient = new GameCommandApiClient();
+    private static final ParticipationApiClient participationApiClient = new ParticipationApiClient();
+    private static final ZombiDefApiClient zombiDefApiClient = new ZombiDefApiClient();
+    private static final WorldDataApiClient worldDataApiClient = new WorldDataApiClient();
+    private static final RoundsApiClient roundsApiClient = new RoundsApiClient();
+
     //№1 - commands to build and attack, should be sent only once per turn
     public static CommandResponse playResponse(PlayRequest playRequest) {
         try {
-            GameCommandApiClient client = new GameCommandApiClient();
-            return client.sendCommand(playRequest);
+            return gameCommandApiClient.sendCommand(playRequest);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -27,7 +33,6 @@ public class MainCommands {
 
     //№2 - you MUST send this request in lobby time to participate in the game (once per round)
     public static ParticipationResponse getPlay() {
-        ParticipationApiClient participationApiClient = new ParticipationApiClient();
         try {
             return participationApiClient.participate();
         } catch (Exception e) {
@@ -40,8 +45,7 @@ public class MainCommands {
     // №3 - world parts around player that are changing during the game (zombies, players, current player, etc...)
     public static InfoResponse getApiResponse() {
         try {
-            ZombiDefApiClient client = new ZombiDefApiClient();
-            return client.fetchUnits();
+            return zombiDefApiClient.fetchUnits();
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -51,8 +55,7 @@ public class MainCommands {
     // №4 - world parts around player that are not changing during the game (zombie zpots)
     public static WorldDataResponse getWorldDataResponse() {
         try {
-            WorldDataApiClient client = new WorldDataApiClient();
-            return client.fetchWorldData();
+            return worldDataApiClient.fetchWorldData();
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -62,8 +65,7 @@ public class MainCommands {
     // №5 - game rounds
     public static RoundsResponse zombieDef() {
         try {
-            RoundsApiClient client = new RoundsApiClient();
-            return client.fetchRounds();
+            return roundsApiClient.fetchRounds();
         } catch (Exception e) {
             e.printStackTrace();
             return null;
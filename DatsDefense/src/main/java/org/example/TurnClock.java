@@ -0,0 +1,137 @@
+package org.example;
+
+import org.example.models.mapInfo.InfoResponse;
+
+import java.util.logging.Logger;
+
+/**
+ * Часы ходов сервера.
+ * <p>
+ * По turn и turnEndsInMs из /units оценивает момент конца текущего хода (с поправкой
+ * на половину времени запроса) и подсказывает, сколько спать до начала следующего.
+ * Цикл: {@link #awaitNextTurn} → запрос /units → {@link #onInfo} → план → {@link #canSend} → отправка →
+ * {@link #onSent}. Ведёт метрики: пропущенные ходы, повторно полученные ходы,
+ * команды, не успевшие до конца хода, и время планирования.
+ */
+public class TurnClock {
+
+    private static final Logger logger = Logger.getLogger(TurnClock.class.getName());
+
+    private static final long AFTER_BOUNDARY_MS = 30; // Запас после границы хода, чтобы сервер успел его посчитать
+    private static final long SEND_MARGIN_MS = 50; // Меньше этого до конца хода команду уже не отправляем
+    private static final long RETRY_DELAY_MS = 200;
+    private static final long FALLBACK_TURN_MS = 2000; // Если сервер не сообщил время хода
+    private static final int METRICS_EVERY_TURNS = 20;
+
+    private int lastTurn = -1;
+    private long turnEndsAtNanos;
+    private long planStartedNanos;
+
+    private int turnsPlayed;
+    private int turnsSkipped;
+    private int duplicateTurns;
+    private int lateTurns;
+    private long planNanosTotal;
+    private long planNanosMax;
+
+    /**
+     * Спит до начала следующего хода (если конец текущего известен).
+     */
+    public void awaitNextTurn() throws InterruptedException {
+        long sleepMs = millisUntil(turnEndsAtNanos) + AFTER_BOUNDARY_MS;
+        if (lastTurn >= 0 && sleepMs > 0) {
+            Thread.sleep(sleepMs);
+        }
+    }
+
+    /**
+     * Запоминает ход из ответа /units.
+     *
+     * @param requestStartedNanos System.nanoTime() перед запросом
+     * @return false, если этот ход уже обработан и планировать нечего.
+     */
+    public boolean onInfo(InfoResponse infoResponse, long requestStartedNanos) {
+        long now = System.nanoTime();
+        int turn = infoResponse.getTurn();
+        if (turn == lastTurn) {
+            duplicateTurns++;
+            return false;
+        }
+        if (lastTurn >= 0 && turn > lastTurn + 1) {
+            turnsSkipped += turn - lastTurn - 1;
+            logger.warning(String.format("Пропущено ходов: %d (ход %d -> %d)", turn - lastTurn - 1, lastTurn, turn));
+        }
+        lastTurn = turn;
+
+        // Ответ сформирован примерно в середине запроса
+        long halfRequest = (now - requestStartedNanos) / 2;
+        long endsInMs = infoResponse.getTurnEndsInMs() > 0 ? infoResponse.getTurnEndsInMs() : FALLBACK_TURN_MS;
+        turnEndsAtNanos = now - halfRequest + endsInMs * 1_000_000;
+        planStartedNanos = now;
+        return true;
+    }
+
+    /**
+     * Успеет ли команда до конца хода; иначе ход засчитывается как опоздавший.
+     */
+    public boolean canSend() {
+        long planNanos = System.nanoTime() - planStartedNanos;
+        planNanosTotal += planNanos;
+        planNanosMax = Math.max(planNanosMax, planNanos);
+        if (millisUntil(turnEndsAtNanos) < SEND_MARGIN_MS) {
+            lateTurns++;
+            logger.warning(String.format("Ход %d: план готов за %d мс, до конца хода не успеваем", lastTurn, planNanos / 1_000_000));
+            return false;
+        }
+        return true;
+    }
+
+    public void onSent() {
+        turnsPlayed++;
+        if (turnsPlayed % METRICS_EVERY_TURNS == 0) {
+            logMetrics();
+        }
+    }
+
+    /**
+     * Пауза после ошибки: не дольше, чем осталось до конца хода.
+     */
+    public long retryDelayMs() {
+        long untilEnd = millisUntil(turnEndsAtNanos);
+        return untilEnd > 0 ? Math.min(RETRY_DELAY_MS, untilEnd + AFTER_BOUNDARY_MS) : RETRY_DELAY_MS;
+    }
+
+    public int getTurnsPlayed() {
+        return turnsPlayed;
+    }
+
+    public int getTurnsSkipped() {
+        return turnsSkipped;
+    }
+
+    public int getDuplicateTurns() {
+        return duplicateTurns;
+    }
+
+    public int getLateTurns() {
+        return lateTurns;
+    }
+
+    public double getAveragePlanMs() {
+        int planned = turnsPlayed + lateTurns;
+        return planned == 0 ? 0 : planNanosTotal / 1e6 / planned;
+    }
+
+    public double getMaxPlanMs() {
+        return planNanosMax / 1e6;
+    }
+
+    public void logMetrics() {
+        logger.info(String.format("Ходов сыграно: %d, пропущено: %d, повторных: %d, опоздали: %d, план: среднее %.1f мс, максимум %.1f мс",
+                turnsPlayed, turnsSkipped, duplicateTurns, lateTurns, getAveragePlanMs(), getMaxPlanMs()));
+    }
+
+    private static long millisUntil(long nanos) {
+        return (nanos - System.nanoTime()) / 1_000_000;
+    }
+}
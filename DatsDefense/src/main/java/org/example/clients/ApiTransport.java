@@ -0,0 +1,107 @@
+package org.example.clients;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.exeptions.ApiErrorResponse;
+import org.example.exeptions.ApiException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Общий транспорт для всех клиентов API.
+ * <p>
+ * Один HttpClient на процесс (соединения переиспользуются между запросами и ходами),
+ * один ObjectMapper и закэшированные ObjectReader по типу ответа, поэтому разбор
+ * JSON не прогревается заново на каждом вызове. Асинхронные запросы идут через sendAsync,
+ * ошибки API приходят как {@link ApiException} внутри CompletionException.
+ */
+public final class ApiTransport {
+
+    private static final String AUTH_HEADER = "X-Auth-Token";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writer();
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    private ApiTransport() {
+    }
+
+    public static <T> T get(String url, String apiKey, Class<T> type) throws IOException, InterruptedException, ApiException {
+        HttpResponse<String> response = HTTP_CLIENT.send(request(url, apiKey).GET().build(), HttpResponse.BodyHandlers.ofString());
+        return parse(response, type);
+    }
+
+    public static <T> CompletableFuture<T> getAsync(String url, String apiKey, Class<T> type) {
+        return HTTP_CLIENT.sendAsync(request(url, apiKey).GET().build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> parseUnchecked(response, type));
+    }
+
+    public static <T> T post(String url, String apiKey, Object body, Class<T> type) throws IOException, InterruptedException, ApiException {
+        String jsonBody = OBJECT_WRITER.writeValueAsString(body);
+        HttpRequest request = request(url, apiKey).POST(HttpRequest.BodyPublishers.ofString(jsonBody)).build();
+        HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+        System.out.println("response: " + response);
+        return parse(response, type);
+    }
+
+    public static <T> T put(String url, String apiKey, Class<T> type) throws IOException, InterruptedException, ApiException {
+        HttpRequest request = request(url, apiKey).PUT(HttpRequest.BodyPublishers.noBody()).build();
+        return parse(HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString()), type);
+    }
+
+    public static String write(Object value) throws IOException {
+        return OBJECT_WRITER.writeValueAsString(value);
+    }
+
+    // Разбор JSON закэшированным ObjectReader
+    public static <T> T read(String json, Class<T> type) throws IOException {
+        return reader(type).readValue(json);
+    }
+
+    private static HttpRequest.Builder request(String url, String apiKey) {
+        return HttpRequest.newBuilder().uri(URI.create(url)).header(AUTH_HEADER, apiKey).header("Content-Type", "application/json");
+    }
+
+    private static ObjectReader reader(Class<?> type) {
+        return READERS.computeIfAbsent(type, OBJECT_MAPPER::readerFor);
+    }
+
+    private static <T> T parse(HttpResponse<String> response, Class<T> type) throws IOException, ApiException {
+        int statusCode = response.statusCode();
+        String responseBody = response.body();
+
+        if (statusCode == 200) {
+            return read(responseBody, type);
+        } else if (statusCode == 400 || statusCode == 401 || statusCode == 403 || statusCode == 404 || statusCode == 429) {
+            ApiErrorResponse errorResponse = read(responseBody, ApiErrorResponse.class);
+            throw new ApiException(statusCode, errorResponse);
+        } else {
+            throw new RuntimeException("Unexpected response status: " + statusCode);
+        }
+    }
+
+    private static <T> T parseUnchecked(HttpResponse<String> response, Class<T> type) {
+        try {
+            return parse(response, type);
+        } catch (ApiException e) {
+            throw new CompletionException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
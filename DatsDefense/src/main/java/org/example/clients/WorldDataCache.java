@@ -0,0 +1,131 @@
+package org.example.clients;
+
+import org.example.models.Round;
+import org.example.models.RoundsResponse;
+import org.example.models.mapInfo.InfoResponse;
+import org.example.models.worldInfo.StaticWorld;
+import org.example.models.worldInfo.WorldDataResponse;
+
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Кэш неизменяемой части мира.
+ * <p>
+ * Споты загружаются один раз за раунд. Снимок перезагружается синхронно, если сменился
+ * realmName в ответе /units или активный раунд. Раунды опрашиваются в фоне не чаще
+ * ROUND_CHECK_INTERVAL_MS: ответ только отмечает смену, и перезагрузка происходит
+ * на следующем ходу, поэтому {@link #get} не ждёт /rounds.
+ * Раз в REVALIDATE_EVERY_TURNS ходов /world запрашивается в фоне, и снимок заменяется,
+ * только если хэш содержимого отличается.
+ */
+public class WorldDataCache {
+
+    private static final Logger logger = Logger.getLogger(WorldDataCache.class.getName());
+
+    private static final long ROUND_CHECK_INTERVAL_MS = 30_000;
+    private static final int REVALIDATE_EVERY_TURNS = 100;
+
+    private final WorldDataApiClient worldDataApiClient = new WorldDataApiClient();
+    private final RoundsApiClient roundsApiClient = new RoundsApiClient();
+
+    private volatile StaticWorld current;
+    private String activeRound;
+    private boolean roundChanged;
+    private long lastRoundCheck;
+    private boolean checkingRounds;
+    private int turnsSinceValidation;
+    private boolean revalidating;
+
+    /**
+     * Актуальный снимок мира или null, если его ещё ни разу не удалось загрузить.
+     */
+    public synchronized StaticWorld get(InfoResponse infoResponse) {
+        StaticWorld world = current;
+        boolean realmChanged = world != null && !Objects.equals(infoResponse.getRealmName(), world.getRealmName());
+        boolean roundChanged = this.roundChanged;
+        this.roundChanged = false;
+        pollRounds();
+        if (world == null || realmChanged || roundChanged) {
+            reload();
+            return current;
+        }
+
+        if (++turnsSinceValidation >= REVALIDATE_EVERY_TURNS && !revalidating) {
+            turnsSinceValidation = 0;
+            revalidating = true;
+            worldDataApiClient.fetchWorldDataAsync().whenComplete((response, error) -> {
+                synchronized (this) {
+                    revalidating = false;
+                    if (error != null) {
+                        logger.warning("Не удалось перепроверить данные мира: " + error.getMessage());
+                    } else {
+                        accept(response);
+                    }
+                }
+            });
+        }
+        return world;
+    }
+
+    private void reload() {
+        try {
+            accept(worldDataApiClient.fetchWorldData());
+            turnsSinceValidation = 0;
+        } catch (Exception e) {
+            // Старый снимок лучше, чем никакого
+            logger.warning("Не удалось загрузить данные мира: " + e.getMessage());
+        }
+    }
+
+    // Заменяет снимок, только если содержимое изменилось
+    private void accept(WorldDataResponse response) {
+        StaticWorld world = current;
+        if (world != null && Objects.equals(world.getRealmName(), response.getRealmName())
+                && Objects.equals(world.getRoundName(), activeRound)
+                && world.getContentHash() == StaticWorld.contentHash(response)) {
+            return;
+        }
+        int version = world != null ? world.getVersion() + 1 : 1;
+        current = new StaticWorld(version, activeRound, response);
+        logger.info(String.format("Данные мира обновлены: версия %d, спотов %d", version, current.getZpots().size()));
+    }
+
+    // Запрашивает /rounds в фоне; смена раунда отмечается для следующего get
+    private void pollRounds() {
+        long now = System.currentTimeMillis();
+        if (checkingRounds || now - lastRoundCheck < ROUND_CHECK_INTERVAL_MS) {
+            return;
+        }
+        lastRoundCheck = now;
+        checkingRounds = true;
+        roundsApiClient.fetchRoundsAsync().whenComplete((response, error) -> {
+            synchronized (this) {
+                checkingRounds = false;
+                if (error != null) {
+                    logger.warning("Не удалось получить раунды: " + error.getMessage());
+                    return;
+                }
+                String round = findActiveRound(response);
+                if (round == null || round.equals(activeRound)) {
+                    return;
+                }
+                // Первый ответ только запоминает раунд: снимок уже загружен для него
+                roundChanged = activeRound != null;
+                activeRound = round;
+            }
+        });
+    }
+
+    private static String findActiveRound(RoundsResponse roundsResponse) {
+        if (roundsResponse == null || roundsResponse.getRounds() == null) {
+            return null;
+        }
+        for (Round round : roundsResponse.getRounds()) {
+            if ("active".equalsIgnoreCase(round.getStatus())) {
+                return round.getName();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,265 @@
+package org.example.models;
+
+import org.example.models.mapInfo.Base;
+import org.example.models.mapInfo.EnemyBlock;
+import org.example.models.mapInfo.InfoResponse;
+import org.example.models.mapInfo.Zombie;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Поле опасности над прямоугольником, охватывающим базу.
+ * <p>
+ * Угрозы (вражеские блоки и зомби) растеризуются в счётчики по клеткам, затем каждая
+ * занятая клетка раскладывается ядром 1/d радиуса KERNEL_RADIUS. Дальние угрозы дают
+ * тот же вклад 1/d, но считаются грубо: для блока FAR_BLOCK x FAR_BLOCK клеток — по
+ * расстоянию до центра блока, одним значением на блок, а угрозы дальше AGGREGATE_DISTANCE
+ * от блока — целыми кластерами FAR_BLOCK x FAR_BLOCK по их центру масс. Угрозы у границы ядра
+ * (расстояние до центра блока в пределах полудиагонали блока от KERNEL_RADIUS) считаются
+ * по каждой клетке, поэтому ни одна угроза не учитывается дважды и не теряется.
+ * Поле считается полосами строк параллельно: каждая полоса пишет только в свои строки.
+ * После построения опасность клетки читается за O(1).
+ */
+public class DangerField {
+
+    private static final int KERNEL_RADIUS = 24;
+    private static final double SAME_CELL_DANGER = 2.0; // Угроза в самой клетке: вдвое больше, чем от соседа
+    private static final int BAND_HEIGHT = 16;
+    private static final int FAR_BLOCK = 8; // Делит BAND_HEIGHT: блок дальнего поля целиком в одной полосе
+    private static final double AGGREGATE_DISTANCE = 4.0 * KERNEL_RADIUS; // Дальше кластер угроз — одна точка
+
+    private static final double[] KERNEL = buildKernel();
+
+    private final int originX;
+    private final int originY;
+    private final int width;
+    private final int height;
+    private final double[] danger;
+
+    private DangerField(int originX, int originY, int width, int height) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        this.danger = new double[width * height];
+    }
+
+    public static DangerField of(InfoResponse infoResponse) {
+        Base[] bases = infoResponse.getBase() != null ? infoResponse.getBase() : new Base[0];
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (Base base : bases) {
+            minX = Math.min(minX, base.getX());
+            minY = Math.min(minY, base.getY());
+            maxX = Math.max(maxX, base.getX());
+            maxY = Math.max(maxY, base.getY());
+        }
+        if (bases.length == 0) {
+            return new DangerField(0, 0, 0, 0);
+        }
+        DangerField field = new DangerField(minX, minY, maxX - minX + 1, maxY - minY + 1);
+
+        // Растеризация: количество угроз в клетке
+        Map<Long, Integer> threats = new HashMap<>();
+        if (infoResponse.getEnemyBlocks() != null) {
+            for (EnemyBlock enemyBlock : infoResponse.getEnemyBlocks()) {
+                field.addThreat(threats, enemyBlock.getX(), enemyBlock.getY());
+            }
+        }
+        if (infoResponse.getZombies() != null) {
+            for (Zombie zombie : infoResponse.getZombies()) {
+                field.addThreat(threats, zombie.getX(), zombie.getY());
+            }
+        }
+
+        int count = threats.size();
+        int[] threatX = new int[count];
+        int[] threatY = new int[count];
+        int[] threatWeight = new int[count];
+        int k = 0;
+        for (Map.Entry<Long, Integer> entry : threats.entrySet()) {
+            threatX[k] = TargetIndex.unpackX(entry.getKey());
+            threatY[k] = TargetIndex.unpackY(entry.getKey());
+            threatWeight[k] = entry.getValue();
+            k++;
+        }
+
+        Clusters clusters = Clusters.of(threatX, threatY, threatWeight);
+
+        int bands = (field.height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+        IntStream.range(0, bands).parallel()
+                .forEach(band -> {
+                    int fromRow = band * BAND_HEIGHT;
+                    int toRow = Math.min(field.height, (band + 1) * BAND_HEIGHT);
+                    field.splat(fromRow, toRow, threatX, threatY, threatWeight);
+                    field.farField(fromRow, toRow, threatX, threatY, threatWeight, clusters);
+                });
+        return field;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= originX && y >= originY && x < originX + width && y < originY + height;
+    }
+
+    /**
+     * Опасность клетки; вне поля — 0.
+     */
+    public double danger(int x, int y) {
+        return contains(x, y) ? danger[(y - originY) * width + (x - originX)] : 0;
+    }
+
+    private void addThreat(Map<Long, Integer> threats, int x, int y) {
+        threats.merge(TargetIndex.pack(x, y), 1, Integer::sum);
+    }
+
+    // Вклад всех угроз в строки [fromRow, toRow) поля
+    private void splat(int fromRow, int toRow, int[] threatX, int[] threatY, int[] threatWeight) {
+        int size = 2 * KERNEL_RADIUS + 1;
+        for (int t = 0; t < threatX.length; t++) {
+            int cx = threatX[t] - originX;
+            int cy = threatY[t] - originY;
+            if (cx < -KERNEL_RADIUS || cx >= width + KERNEL_RADIUS) {
+                continue; // Ядро не достаёт до поля
+            }
+            int rowStart = Math.max(fromRow, cy - KERNEL_RADIUS);
+            int rowEnd = Math.min(toRow, cy + KERNEL_RADIUS + 1);
+            int colStart = Math.max(0, cx - KERNEL_RADIUS);
+            int colEnd = Math.min(width, cx + KERNEL_RADIUS + 1);
+            double weight = threatWeight[t];
+            for (int row = rowStart; row < rowEnd; row++) {
+                int kernelRow = (row - cy + KERNEL_RADIUS) * size - cx + KERNEL_RADIUS;
+                int fieldRow = row * width;
+                for (int col = colStart; col < colEnd; col++) {
+                    danger[fieldRow + col] += weight * KERNEL[kernelRow + col];
+                }
+            }
+        }
+    }
+
+    // Вклад угроз дальше KERNEL_RADIUS в строки [fromRow, toRow) поля, блоками FAR_BLOCK x FAR_BLOCK
+    private void farField(int fromRow, int toRow, int[] threatX, int[] threatY, int[] threatWeight, Clusters clusters) {
+        double halfDiagonal = (FAR_BLOCK - 1) * Math.sqrt(2) / 2;
+        double innerSquared = Math.max(0, KERNEL_RADIUS - halfDiagonal) * Math.max(0, KERNEL_RADIUS - halfDiagonal);
+        double outerSquared = (KERNEL_RADIUS + halfDiagonal) * (KERNEL_RADIUS + halfDiagonal);
+        double aggregateSquared = AGGREGATE_DISTANCE * AGGREGATE_DISTANCE;
+        int kernelSquared = KERNEL_RADIUS * KERNEL_RADIUS;
+        int[] border = new int[threatX.length];
+
+        for (int blockRow = fromRow; blockRow < toRow; blockRow += FAR_BLOCK) {
+            int blockRowEnd = Math.min(toRow, blockRow + FAR_BLOCK);
+            for (int blockCol = 0; blockCol < width; blockCol += FAR_BLOCK) {
+                int blockColEnd = Math.min(width, blockCol + FAR_BLOCK);
+                double centerX = originX + (blockCol + blockColEnd - 1) / 2.0;
+                double centerY = originY + (blockRow + blockRowEnd - 1) / 2.0;
+
+                double far = 0;
+                int borderCount = 0;
+                for (int c = 0; c < clusters.weight.length; c++) {
+                    double cdx = clusters.x[c] - centerX;
+                    double cdy = clusters.y[c] - centerY;
+                    double clusterSquared = cdx * cdx + cdy * cdy;
+                    if (clusterSquared > aggregateSquared) {
+                        far += clusters.weight[c] / Math.sqrt(clusterSquared);
+                        continue;
+                    }
+                    for (int m = clusters.start[c]; m < clusters.start[c + 1]; m++) {
+                        int t = clusters.members[m];
+                        double dx = threatX[t] - centerX;
+                        double dy = threatY[t] - centerY;
+                        double distanceSquared = dx * dx + dy * dy;
+                        if (distanceSquared > outerSquared) {
+                            far += threatWeight[t] / Math.sqrt(distanceSquared);
+                        } else if (distanceSquared >= innerSquared) {
+                            border[borderCount++] = t;
+                        }
+                    }
+                }
+
+                for (int row = blockRow; row < blockRowEnd; row++) {
+                    int fieldRow = row * width;
+                    int y = originY + row;
+                    for (int col = blockCol; col < blockColEnd; col++) {
+                        int x = originX + col;
+                        double value = far;
+                        for (int b = 0; b < borderCount; b++) {
+                            int t = border[b];
+                            int dx = threatX[t] - x;
+                            int dy = threatY[t] - y;
+                            int distanceSquared = dx * dx + dy * dy;
+                            if (distanceSquared > kernelSquared) {
+                                value += threatWeight[t] / Math.sqrt(distanceSquared);
+                            }
+                        }
+                        danger[fieldRow + col] += value;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Угрозы, сгруппированные по клеткам FAR_BLOCK x FAR_BLOCK: суммарный вес, центр масс
+     * и номера угроз кластера c в members[start[c] .. start[c + 1]).
+     */
+    private record Clusters(double[] x, double[] y, double[] weight, int[] start, int[] members) {
+
+        static Clusters of(int[] threatX, int[] threatY, int[] threatWeight) {
+            Map<Long, Integer> ids = new HashMap<>();
+            int[] clusterOf = new int[threatX.length];
+            for (int t = 0; t < threatX.length; t++) {
+                long key = TargetIndex.pack(Math.floorDiv(threatX[t], FAR_BLOCK), Math.floorDiv(threatY[t], FAR_BLOCK));
+                Integer id = ids.putIfAbsent(key, ids.size());
+                clusterOf[t] = id != null ? id : ids.size() - 1;
+            }
+
+            int count = ids.size();
+            double[] x = new double[count];
+            double[] y = new double[count];
+            double[] weight = new double[count];
+            int[] start = new int[count + 1];
+            for (int t = 0; t < threatX.length; t++) {
+                int c = clusterOf[t];
+                x[c] += (double) threatX[t] * threatWeight[t];
+                y[c] += (double) threatY[t] * threatWeight[t];
+                weight[c] += threatWeight[t];
+                start[c + 1]++;
+            }
+            for (int c = 0; c < count; c++) {
+                x[c] /= weight[c];
+                y[c] /= weight[c];
+                start[c + 1] += start[c];
+            }
+            int[] filled = new int[count];
+            int[] members = new int[threatX.length];
+            for (int t = 0; t < threatX.length; t++) {
+                int c = clusterOf[t];
+                members[start[c] + filled[c]++] = t;
+            }
+            return new Clusters(x, y, weight, start, members);
+        }
+    }
+
+    private static double[] buildKernel() {
+        int size = 2 * KERNEL_RADIUS + 1;
+        double[] kernel = new double[size * size];
+        for (int dy = -KERNEL_RADIUS; dy <= KERNEL_RADIUS; dy++) {
+            for (int dx = -KERNEL_RADIUS; dx <= KERNEL_RADIUS; dx++) {
+                double distanceSquared = dx * dx + dy * dy;
+                double value;
+                if (distanceSquared == 0) {
+                    value = SAME_CELL_DANGER;
+                } else if (distanceSquared > KERNEL_RADIUS * KERNEL_RADIUS) {
+                    value = 0;
+                } else {
+                    value = 1 / Math.sqrt(distanceSquared); // Чем ближе угроза, тем выше опасность
+                }
+                kernel[(dy + KERNEL_RADIUS) * size + dx + KERNEL_RADIUS] = value;
+            }
+        }
+        return kernel;
+    }
+}
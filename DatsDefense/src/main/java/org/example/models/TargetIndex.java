@@ -0,0 +1,145 @@
+package org.example.models;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Индекс целей по корзинам сетки BUCKET_SIZE x BUCKET_SIZE.
+ * <p>
+ * Корзины плотные: прямоугольник корзин, покрывающий все цели, хранится как смещения
+ * bucketStart в общий массив номеров целей (в исходном порядке внутри корзины), поэтому
+ * запрос обходится без хэширования. Запрос по радиусу обходит только корзины, пересекающие
+ * квадрат вокруг точки, и фильтрует цели по квадрату евклидова расстояния.
+ * {@link #pack} — общий ключ клетки для HashMap по координатам.
+ */
+public class TargetIndex {
+
+    private static final int BUCKET_SHIFT = 3;
+
+    private final int[] targetX;
+    private final int[] targetY;
+    private final int minBucketX;
+    private final int minBucketY;
+    private final int bucketsX;
+    private final int bucketsY;
+    private final int[] bucketStart; // Номера целей корзины b — targets[bucketStart[b] .. bucketStart[b + 1])
+    private final int[] targets;
+
+    private TargetIndex(int[] targetX, int[] targetY, int minBucketX, int minBucketY, int bucketsX, int bucketsY,
+                        int[] bucketStart, int[] targets) {
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.minBucketX = minBucketX;
+        this.minBucketY = minBucketY;
+        this.bucketsX = bucketsX;
+        this.bucketsY = bucketsY;
+        this.bucketStart = bucketStart;
+        this.targets = targets;
+    }
+
+    private static final int KEY_MIX = 0x9E3779B9; // Золотое сечение: разносит соседние x по хэшам
+
+    /**
+     * Ключ клетки: x в старшей половине, y ^ (x * KEY_MIX) в младшей. Long.hashCode — это
+     * XOR половин, и без перемешивания x у всех клеток с одинаковым x ^ y был бы один хэш:
+     * на тысячах блоков корзины HashMap вырождались в деревья.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | ((y ^ (x * KEY_MIX)) & 0xFFFFFFFFL);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int unpackY(long key) {
+        return (int) key ^ (unpackX(key) * KEY_MIX);
+    }
+
+    /**
+     * Строит индекс по первым count координатам; номер цели — её позиция в массивах.
+     */
+    public static TargetIndex of(int[] targetX, int[] targetY, int count) {
+        if (count == 0) {
+            return new TargetIndex(targetX, targetY, 0, 0, 0, 0, new int[1], new int[0]);
+        }
+        int minBucketX = Integer.MAX_VALUE;
+        int minBucketY = Integer.MAX_VALUE;
+        int maxBucketX = Integer.MIN_VALUE;
+        int maxBucketY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            minBucketX = Math.min(minBucketX, targetX[i] >> BUCKET_SHIFT);
+            minBucketY = Math.min(minBucketY, targetY[i] >> BUCKET_SHIFT);
+            maxBucketX = Math.max(maxBucketX, targetX[i] >> BUCKET_SHIFT);
+            maxBucketY = Math.max(maxBucketY, targetY[i] >> BUCKET_SHIFT);
+        }
+        int bucketsX = maxBucketX - minBucketX + 1;
+        int bucketsY = maxBucketY - minBucketY + 1;
+
+        // Подсчёт размеров корзин, затем раскладка номеров целей по смещениям
+        int[] bucketStart = new int[bucketsX * bucketsY + 1];
+        int[] bucketOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            int bucket = ((targetY[i] >> BUCKET_SHIFT) - minBucketY) * bucketsX + ((targetX[i] >> BUCKET_SHIFT) - minBucketX);
+            bucketOf[i] = bucket;
+            bucketStart[bucket + 1]++;
+        }
+        for (int b = 0; b < bucketsX * bucketsY; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        int[] filled = new int[bucketsX * bucketsY];
+        int[] targets = new int[count];
+        for (int i = 0; i < count; i++) {
+            int bucket = bucketOf[i];
+            targets[bucketStart[bucket] + filled[bucket]++] = i;
+        }
+        return new TargetIndex(targetX, targetY, minBucketX, minBucketY, bucketsX, bucketsY, bucketStart, targets);
+    }
+
+    /**
+     * Вызывает action для каждой цели на расстоянии не больше range от (x, y).
+     */
+    public void forEachInRange(int x, int y, int range, IntConsumer action) {
+        long rangeSquared = (long) range * range;
+        int fromX = Math.max((x - range) >> BUCKET_SHIFT, minBucketX) - minBucketX;
+        int toX = Math.min((x + range) >> BUCKET_SHIFT, minBucketX + bucketsX - 1) - minBucketX;
+        int fromY = Math.max((y - range) >> BUCKET_SHIFT, minBucketY) - minBucketY;
+        int toY = Math.min((y + range) >> BUCKET_SHIFT, minBucketY + bucketsY - 1) - minBucketY;
+
+        for (int bx = fromX; bx <= toX; bx++) {
+            for (int by = fromY; by <= toY; by++) {
+                int bucket = by * bucketsX + bx;
+                for (int k = bucketStart[bucket]; k < bucketStart[bucket + 1]; k++) {
+                    int i = targets[k];
+                    long dx = targetX[i] - x;
+                    long dy = targetY[i] - y;
+                    if (dx * dx + dy * dy <= rangeSquared) {
+                        action.accept(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Номер ближайшей к (x, y) цели в пределах maxRange или -1, если такой нет.
+     * Радиус поиска удваивается, начиная с размера корзины.
+     */
+    public int nearest(int x, int y, int maxRange) {
+        int[] best = {-1};
+        long[] bestDistanceSquared = {Long.MAX_VALUE};
+        for (int range = Math.min(1 << BUCKET_SHIFT, maxRange); ; range = Math.min(range * 2, maxRange)) {
+            forEachInRange(x, y, range, i -> {
+                long dx = targetX[i] - x;
+                long dy = targetY[i] - y;
+                long distanceSquared = dx * dx + dy * dy;
+                if (distanceSquared < bestDistanceSquared[0]) {
+                    bestDistanceSquared[0] = distanceSquared;
+                    best[0] = i;
+                }
+            });
+            if (best[0] >= 0 || range >= maxRange) {
+                return best[0];
+            }
+        }
+    }
+}
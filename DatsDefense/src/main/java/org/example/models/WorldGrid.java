@@ -0,0 +1,235 @@
+package org.example.models;
+
+import org.example.models.mapInfo.Base;
+import org.example.models.mapInfo.EnemyBlock;
+import org.example.models.mapInfo.InfoResponse;
+import org.example.models.mapInfo.Zombie;
+import org.example.models.worldInfo.StaticWorld;
+import org.example.models.worldInfo.ZPot;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Снимок мира на один ход: плотная сетка вокруг центра управления.
+ * <p>
+ * Хранит флаги занятости клетки (наша база, вражеский блок, зомби, спот, запланированная постройка)
+ * и поля квадрата евклидова расстояния до ближайшего вражеского блока, зомби и спота.
+ * Поля точные в пределах FIELD_RADIUS: каждый источник записывает расстояние в свой круг
+ * этого радиуса, дальше поле равно UNREACHABLE. Поэтому проверки "ближе чем N клеток"
+ * при N не больше FIELD_RADIUS дают тот же результат, что и перебор через Math.sqrt,
+ * но за O(1) на клетку, а построение стоит O(источников), а не O(площади окна).
+ * <p>
+ * Окно сетки — квадрат radius + MARGIN вокруг центра. Объекты за окном не учитываются:
+ * запас MARGIN больше любого порога расстояния, с которым сетка опрашивается.
+ */
+public class WorldGrid {
+
+    public static final byte BASE = 1;
+    public static final byte ENEMY = 1 << 1;
+    public static final byte ZOMBIE = 1 << 2;
+    public static final byte ZPOT = 1 << 3;
+    public static final byte PLANNED = 1 << 4;
+
+    public static final int UNREACHABLE = 1 << 28; // Источника нет в окне или он дальше FIELD_RADIUS
+
+    private static final int MARGIN = 8;
+    private static final int FIELD_RADIUS = MARGIN; // Дальше поля расстояний не считаются
+    private static final int[] HALF_WIDTH = halfWidths(FIELD_RADIUS);
+
+    private final int originX;
+    private final int originY;
+    private final int width;
+    private final int height;
+
+    private final byte[] cells;
+    private final int[] enemyDistanceSquared;
+    private final int[] zombieDistanceSquared;
+    private final int[] zpotDistanceSquared;
+
+    private WorldGrid(int originX, int originY, int width, int height) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        this.cells = new byte[size];
+        this.enemyDistanceSquared = new int[size];
+        this.zombieDistanceSquared = new int[size];
+        this.zpotDistanceSquared = new int[size];
+    }
+
+    private WorldGrid(WorldGrid other) {
+        this.originX = other.originX;
+        this.originY = other.originY;
+        this.width = other.width;
+        this.height = other.height;
+        this.cells = other.cells.clone();
+        // Поля расстояний после построения не меняются: копии могут их делить
+        this.enemyDistanceSquared = other.enemyDistanceSquared;
+        this.zombieDistanceSquared = other.zombieDistanceSquared;
+        this.zpotDistanceSquared = other.zpotDistanceSquared;
+    }
+
+    /**
+     * Копия с независимыми флагами клеток: для раздельного планирования нескольких вариантов.
+     */
+    public WorldGrid copy() {
+        return new WorldGrid(this);
+    }
+
+    /**
+     * Строит сетку вокруг (centerX, centerY), покрывающую все клетки в пределах radius.
+     */
+    public static WorldGrid around(InfoResponse infoResponse, StaticWorld world,
+                                   int centerX, int centerY, int radius) {
+        int minX = Math.max(0, centerX - radius - MARGIN);
+        int minY = Math.max(0, centerY - radius - MARGIN);
+        int maxX = centerX + radius + MARGIN;
+        int maxY = centerY + radius + MARGIN;
+        WorldGrid grid = new WorldGrid(minX, minY, maxX - minX + 1, maxY - minY + 1);
+
+        Arrays.fill(grid.enemyDistanceSquared, UNREACHABLE);
+        Arrays.fill(grid.zombieDistanceSquared, UNREACHABLE);
+        Arrays.fill(grid.zpotDistanceSquared, UNREACHABLE);
+
+        if (infoResponse.getBase() != null) {
+            for (Base base : infoResponse.getBase()) {
+                grid.mark(base.x, base.y, BASE, null);
+            }
+        }
+        if (infoResponse.getEnemyBlocks() != null) {
+            for (EnemyBlock enemyBlock : infoResponse.getEnemyBlocks()) {
+                grid.mark(enemyBlock.x, enemyBlock.y, ENEMY, grid.enemyDistanceSquared);
+            }
+        }
+        if (infoResponse.getZombies() != null) {
+            for (Zombie zombie : infoResponse.getZombies()) {
+                grid.mark(zombie.x, zombie.y, ZOMBIE, grid.zombieDistanceSquared);
+            }
+        }
+        if (world != null) {
+            // Только споты, попадающие в окно: описанная окружность квадрата окна
+            List<ZPot> zpots = world.getZpots();
+            int windowRadius = (int) Math.ceil((radius + MARGIN) * Math.sqrt(2));
+            world.getZpotIndex().forEachInRange(centerX, centerY, windowRadius, i ->
+                    grid.mark(zpots.get(i).getX(), zpots.get(i).getY(), ZPOT, grid.zpotDistanceSquared));
+        }
+        return grid;
+    }
+
+    // Полуширина круга радиуса r в строке на расстоянии dy от центра
+    private static int[] halfWidths(int r) {
+        int[] result = new int[r + 1];
+        for (int dy = 0; dy <= r; dy++) {
+            result[dy] = (int) Math.floor(Math.sqrt((double) r * r - (double) dy * dy));
+        }
+        return result;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= originX && y >= originY && x < originX + width && y < originY + height;
+    }
+
+    public boolean has(int x, int y, byte flag) {
+        return contains(x, y) && (cells[index(x, y)] & flag) != 0;
+    }
+
+    /**
+     * Отмечает клетку как занятую постройкой, выбранной на этом ходу.
+     */
+    public void markPlanned(int x, int y) {
+        if (contains(x, y)) {
+            cells[index(x, y)] |= PLANNED;
+        }
+    }
+
+    /**
+     * Клетка соседствует по стороне с нашей базой или постройкой этого хода (диагональ не считается).
+     */
+    public boolean isAdjacentToBase(int x, int y) {
+        byte filled = BASE | PLANNED;
+        return has(x - 1, y, filled) || has(x + 1, y, filled) || has(x, y - 1, filled) || has(x, y + 1, filled);
+    }
+
+    /**
+     * Сколько из 8 соседних клеток занято нашей базой или постройками этого хода.
+     */
+    public int filledNeighbours(int x, int y) {
+        byte filled = BASE | PLANNED;
+        int count = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if ((dx != 0 || dy != 0) && has(x + dx, y + dy, filled)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public int enemyDistanceSquared(int x, int y) {
+        return contains(x, y) ? enemyDistanceSquared[index(x, y)] : UNREACHABLE;
+    }
+
+    public int zombieDistanceSquared(int x, int y) {
+        return contains(x, y) ? zombieDistanceSquared[index(x, y)] : UNREACHABLE;
+    }
+
+    public int zpotDistanceSquared(int x, int y) {
+        return contains(x, y) ? zpotDistanceSquared[index(x, y)] : UNREACHABLE;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    // Индекс клетки в плоских массивах; для клеток вне окна не определён
+    public int index(int x, int y) {
+        return (y - originY) * width + (x - originX);
+    }
+
+    public int xOf(int index) {
+        return originX + index % width;
+    }
+
+    public int yOf(int index) {
+        return originY + index / width;
+    }
+
+    private void mark(int x, int y, byte flag, int[] field) {
+        if (!contains(x, y)) {
+            return;
+        }
+        int i = index(x, y);
+        if (field != null && (cells[i] & flag) == 0) {
+            stamp(x, y, field);
+        }
+        cells[i] |= flag;
+    }
+
+    /**
+     * Записывает квадрат расстояния от источника (x, y) во все клетки окна в пределах FIELD_RADIUS,
+     * если он меньше уже записанного. Источник должен лежать в окне.
+     */
+    private void stamp(int x, int y, int[] field) {
+        int minRow = Math.max(y - FIELD_RADIUS, originY) - originY;
+        int maxRow = Math.min(y + FIELD_RADIUS, originY + height - 1) - originY;
+        int cx = x - originX;
+        int cy = y - originY;
+        for (int row = minRow; row <= maxRow; row++) {
+            int dy = row - cy;
+            int reach = HALF_WIDTH[Math.abs(dy)];
+            int from = Math.max(cx - reach, 0);
+            int to = Math.min(cx + reach, width - 1);
+            int offset = row * width;
+            for (int column = from; column <= to; column++) {
+                int dx = column - cx;
+                int distanceSquared = dx * dx + dy * dy;
+                if (distanceSquared < field[offset + column]) {
+                    field[offset + column] = distanceSquared;
+                }
+            }
+        }
+    }
+}
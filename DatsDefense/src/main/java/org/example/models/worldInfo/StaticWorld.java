@@ -0,0 +1,48 @@
+package org.example.models.worldInfo;
+
+import lombok.Getter;
+import org.example.models.TargetIndex;
+
+import java.util.List;
+
+/**
+ * Неизменяемая часть мира (споты зомби) с предрасчитанным индексом.
+ * Версия растёт при каждой замене снимка в кэше.
+ */
+@Getter
+public class StaticWorld {
+    private final int version;
+    private final String realmName;
+    private final String roundName;
+    private final int contentHash;
+    private final List<ZPot> zpots;
+    private final TargetIndex zpotIndex;
+
+    public StaticWorld(int version, String roundName, WorldDataResponse worldDataResponse) {
+        this.version = version;
+        this.realmName = worldDataResponse.getRealmName();
+        this.roundName = roundName;
+        this.zpots = worldDataResponse.getZpots() != null ? List.copyOf(worldDataResponse.getZpots()) : List.of();
+        this.contentHash = contentHash(worldDataResponse);
+
+        int[] zpotX = new int[zpots.size()];
+        int[] zpotY = new int[zpots.size()];
+        for (int i = 0; i < zpots.size(); i++) {
+            zpotX[i] = zpots.get(i).getX();
+            zpotY[i] = zpots.get(i).getY();
+        }
+        this.zpotIndex = TargetIndex.of(zpotX, zpotY, zpots.size());
+    }
+
+    public static int contentHash(WorldDataResponse worldDataResponse) {
+        int hash = 1;
+        if (worldDataResponse.getZpots() != null) {
+            for (ZPot zpot : worldDataResponse.getZpots()) {
+                hash = 31 * hash + zpot.getX();
+                hash = 31 * hash + zpot.getY();
+                hash = 31 * hash + (zpot.getType() != null ? zpot.getType().hashCode() : 0);
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.scripts;
+
+import org.example.models.WorldGrid;
+import org.example.models.mapInfo.Base;
+import org.example.models.play.Build;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Фронт расширения базы: клетки, соседние с базой и уже выбранными постройками.
+ * <p>
+ * Фронт заполняется один раз от существующих блоков и дальше меняется только вокруг
+ * выбранной постройки: её соседи добавляются, а соседи, уже стоящие в очереди,
+ * переоцениваются (эвристика может зависеть от занятых соседей). Поэтому работа
+ * пропорциональна периметру базы, а не площади квадрата поиска.
+ * <p>
+ * Клетки, отвергнутые только из-за близости вражеских блоков, откладываются:
+ * {@link #relax} уменьшает порог и возвращает их во фронт без повторного обхода.
+ */
+public class BuildFrontier {
+
+    private static final byte UNSEEN = 0;
+    private static final byte QUEUED = 1;
+    private static final byte DEFERRED = 2;
+    private static final byte CLOSED = 3;
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final WorldGrid grid;
+    private final BuildHeuristic heuristic;
+    private final int headX;
+    private final int headY;
+    private final int maxRadiusSquared;
+    private final int distanceSpotsZombie;
+    private final int distanceZombie;
+    private int distanceEnemy;
+
+    private final byte[] state;
+    private final double[] cost;
+    private final PriorityQueue<Candidate> queue = new PriorityQueue<>();
+    private int[] deferred = new int[64];
+    private int deferredCount;
+
+    public BuildFrontier(WorldGrid grid, BuildHeuristic heuristic, int headX, int headY, int maxRadius,
+                         int distanceEnemy, int distanceSpotsZombie, int distanceZombie) {
+        this.grid = grid;
+        this.heuristic = heuristic;
+        this.headX = headX;
+        this.headY = headY;
+        this.maxRadiusSquared = maxRadius * maxRadius;
+        this.distanceEnemy = distanceEnemy;
+        this.distanceSpotsZombie = distanceSpotsZombie;
+        this.distanceZombie = distanceZombie;
+        this.state = new byte[grid.size()];
+        this.cost = new double[grid.size()];
+    }
+
+    /**
+     * Заполняет фронт соседями существующих блоков базы.
+     */
+    public void seed(Base[] bases) {
+        for (Base base : bases) {
+            expandAround(base.getX(), base.getY());
+        }
+    }
+
+    public int getDistanceEnemy() {
+        return distanceEnemy;
+    }
+
+    /**
+     * Лучшая клетка фронта или null, если при текущем пороге кандидатов не осталось.
+     * Выбранная клетка отмечается в сетке как постройка этого хода.
+     */
+    public Build next() {
+        while (!queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            int i = candidate.index();
+            if (state[i] != QUEUED || candidate.cost() != cost[i]) {
+                continue; // Устаревшая запись после переоценки
+            }
+            state[i] = CLOSED;
+
+            int x = grid.xOf(i);
+            int y = grid.yOf(i);
+            grid.markPlanned(x, y);
+            expandAround(x, y);
+            rescoreAround(x, y);
+
+            Build build = new Build();
+            build.setX(x);
+            build.setY(y);
+            return build;
+        }
+        return null;
+    }
+
+    /**
+     * Ослабляет порог до вражеских блоков на единицу и возвращает отложенные клетки во фронт.
+     *
+     * @return false, если порог уже минимальный.
+     */
+    public boolean relax(int minDistanceEnemy) {
+        if (distanceEnemy <= minDistanceEnemy) {
+            return false;
+        }
+        distanceEnemy--;
+        int count = deferredCount;
+        int[] pending = Arrays.copyOf(deferred, count);
+        deferredCount = 0;
+        for (int k = 0; k < count; k++) {
+            int i = pending[k];
+            state[i] = UNSEEN;
+            offer(grid.xOf(i), grid.yOf(i));
+        }
+        return true;
+    }
+
+    private void expandAround(int x, int y) {
+        for (int d = 0; d < DX.length; d++) {
+            offer(x + DX[d], y + DY[d]);
+        }
+    }
+
+    // Соседи выбранной клетки: их эвристика могла измениться
+    private void rescoreAround(int x, int y) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                int nx = x + dx;
+                int ny = y + dy;
+                if (!grid.contains(nx, ny)) {
+                    continue;
+                }
+                int i = grid.index(nx, ny);
+                if (state[i] != QUEUED) {
+                    continue;
+                }
+                double newCost = heuristic.cost(nx, ny, grid);
+                if (newCost != cost[i]) {
+                    cost[i] = newCost;
+                    queue.add(new Candidate(i, newCost));
+                }
+            }
+        }
+    }
+
+    private void offer(int x, int y) {
+        if (x < 0 || y < 0 || !grid.contains(x, y)) {
+            return;
+        }
+        int i = grid.index(x, y);
+        if (state[i] != UNSEEN) {
+            return;
+        }
+        int dx = x - headX;
+        int dy = y - headY;
+        if (dx * dx + dy * dy > maxRadiusSquared
+                || !BuildScript.isSafeCell(x, y, grid, distanceSpotsZombie, distanceZombie)
+                || BuildScript.shouldSkipCoordinates(x, y)) {
+            state[i] = CLOSED;
+            return;
+        }
+        if (grid.enemyDistanceSquared(x, y) <= distanceEnemy * distanceEnemy) {
+            state[i] = DEFERRED;
+            if (deferredCount == deferred.length) {
+                deferred = Arrays.copyOf(deferred, deferredCount * 2);
+            }
+            deferred[deferredCount++] = i;
+            return;
+        }
+        state[i] = QUEUED;
+        cost[i] = heuristic.cost(x, y, grid);
+        queue.add(new Candidate(i, cost[i]));
+    }
+
+    private record Candidate(int index, double cost) implements Comparable<Candidate> {
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.scripts;
+
+import org.example.models.WorldGrid;
+
+/**
+ * Стоимость постройки в клетке: чем меньше, тем раньше клетка будет занята.
+ * Вызывается только для клеток, прошедших проверки безопасности.
+ */
+@FunctionalInterface
+public interface BuildHeuristic {
+
+    double cost(int x, int y, WorldGrid grid);
+
+    /**
+     * Расстояние от центра управления: база растёт кольцами вокруг головы.
+     */
+    static BuildHeuristic distanceFrom(int headX, int headY) {
+        return (x, y, grid) -> Math.sqrt((double) (x - headX) * (x - headX) + (double) (y - headY) * (y - headY));
+    }
+
+    /**
+     * Плотность обороны: клетки, окружённые нашими блоками, дешевле — база остаётся
+     * компактной и без выступов, которые легко отрезать.
+     */
+    static BuildHeuristic defensiveCoverage() {
+        return (x, y, grid) -> -grid.filledNeighbours(x, y);
+    }
+
+    default BuildHeuristic plus(BuildHeuristic other, double weight) {
+        return (x, y, grid) -> cost(x, y, grid) + weight * other.cost(x, y, grid);
+    }
+}
@@ -0,0 +1,228 @@
+package org.example.scripts;
+
+import org.example.models.TargetIndex;
+import org.example.models.WorldGrid;
+import org.example.models.mapInfo.Base;
+import org.example.models.mapInfo.InfoResponse;
+import org.example.models.mapInfo.Zombie;
+import org.example.models.play.Build;
+import org.example.models.worldInfo.StaticWorld;
+import org.example.models.worldInfo.ZPot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+/**
+ * Выбор набора построек из нескольких вариантов с оценкой по прогнозу зомби.
+ * <p>
+ * Варианты отличаются эвристикой фронта: компактное пятно вокруг головы, кольцо по периметру
+ * и стена в сторону спотов. Компактный вариант строится сразу и служит запасным,
+ * остальные считаются параллельно в собственном ограниченном пуле и учитываются, только если успели
+ * в бюджет времени. Сами варианты проверяют дедлайн и бросают работу, когда он прошёл:
+ * прервать задачу CompletableFuture снаружи нельзя. Оценка по общему прогнозу {@link ZombiePredictor} хода, дополненному
+ * новыми блоками ({@link ZombiePredictor#damageWithBlocks}), — штраф за ожидаемый урон
+ * (по голове сильнее) и бонус за зомби, которые окажутся в радиусе новых блоков.
+ */
+public class BuildPlanner {
+
+    private static final Logger logger = Logger.getLogger(BuildPlanner.class.getName());
+
+    private static final int ALTERNATIVES = 2; // Варианты, считающиеся в фоне
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // Свой пул, а не общий ForkJoinPool: тот делит DangerField. Очередь ограничена —
+    // если варианты прошлого хода ещё досчитываются, новые не копятся, а пропускаются
+    private static final ThreadPoolExecutor POOL = new ThreadPoolExecutor(ALTERNATIVES, ALTERNATIVES,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(ALTERNATIVES), runnable -> {
+        Thread thread = new Thread(runnable, "build-planner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final double HEAD_DAMAGE_WEIGHT = 10.0;
+    private static final double COVERED_ZOMBIE_BONUS = 20.0;
+    private static final int NEW_BLOCK_RANGE = 8; // Радиус атаки обычного блока
+    private static final int ZPOT_SEARCH_RADIUS = 512; // Дальше споты для стены не ищем
+
+    private final InfoResponse infoResponse;
+    private final ZombiePredictor forecast;
+    private final StaticWorld world;
+    private final WorldGrid grid;
+    private final int headX;
+    private final int headY;
+    private final int maxRadius;
+    private final int distanceEnemy;
+    private final int minDistanceEnemy;
+    private final int distanceSpotsZombie;
+    private final int distanceZombie;
+
+    public BuildPlanner(InfoResponse infoResponse, ZombiePredictor forecast, StaticWorld world, WorldGrid grid,
+                        int headX, int headY, int maxRadius,
+                        int distanceEnemy, int minDistanceEnemy, int distanceSpotsZombie, int distanceZombie) {
+        this.infoResponse = infoResponse;
+        this.forecast = forecast;
+        this.world = world;
+        this.grid = grid;
+        this.headX = headX;
+        this.headY = headY;
+        this.maxRadius = maxRadius;
+        this.distanceEnemy = distanceEnemy;
+        this.minDistanceEnemy = minDistanceEnemy;
+        this.distanceSpotsZombie = distanceSpotsZombie;
+        this.distanceZombie = distanceZombie;
+    }
+
+    private record Plan(String name, List<Build> builds, double score) {
+    }
+
+    /**
+     * Лучший из вариантов, оценённых за budgetMs.
+     *
+     * @param compact Эвристика основного варианта (он всегда оценивается).
+     */
+    public List<Build> plan(int money, BuildHeuristic compact, long budgetMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+
+        List<CompletableFuture<Plan>> alternatives = new ArrayList<>();
+        submit(alternatives, "ring", money, ringHeuristic(), deadline);
+        submit(alternatives, "zpot-wall", money, zpotWallHeuristic(), deadline);
+
+        // Запасной вариант нужен всегда, поэтому считается без дедлайна
+        Plan best = evaluate("compact", money, compact, NO_DEADLINE);
+        for (CompletableFuture<Plan> future : alternatives) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                Plan plan = future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                if (plan == null) {
+                    logger.info("Вариант постройки не уложился в бюджет времени");
+                } else if (plan.score() > best.score()) {
+                    best = plan;
+                }
+            } catch (TimeoutException e) {
+                // Задача сама остановится на дедлайне
+                logger.info("Вариант постройки не уложился в бюджет времени");
+            } catch (Exception e) {
+                logger.warning("Ошибка оценки варианта постройки: " + e.getMessage());
+            }
+        }
+
+        logger.info(String.format("Выбран вариант постройки %s (%d блоков, оценка %.1f)", best.name(), best.builds().size(), best.score()));
+        return best.builds();
+    }
+
+    private void submit(List<CompletableFuture<Plan>> alternatives, String name, int money,
+                        BuildHeuristic heuristic, long deadline) {
+        if (heuristic == null) {
+            return;
+        }
+        try {
+            alternatives.add(CompletableFuture.supplyAsync(() -> evaluate(name, money, heuristic, deadline), POOL));
+        } catch (RejectedExecutionException e) {
+            logger.info("Пул вариантов постройки занят, вариант " + name + " пропущен");
+        }
+    }
+
+    /**
+     * Вариант с оценкой или null, если дедлайн прошёл раньше, чем он был досчитан.
+     */
+    private Plan evaluate(String name, int money, BuildHeuristic heuristic, long deadline) {
+        List<Build> builds = expand(money, heuristic, deadline);
+        if (builds == null) {
+            return null;
+        }
+        double score = score(builds, deadline);
+        return Double.isNaN(score) ? null : new Plan(name, builds, score);
+    }
+
+    private static boolean expired(long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * Жадное расширение фронта на своей копии сетки; null — дедлайн прошёл.
+     */
+    private List<Build> expand(int money, BuildHeuristic heuristic, long deadline) {
+        BuildFrontier frontier = new BuildFrontier(grid.copy(), heuristic, headX, headY, maxRadius,
+                distanceEnemy, distanceSpotsZombie, distanceZombie);
+        frontier.seed(infoResponse.getBase());
+
+        List<Build> builds = new ArrayList<>();
+        while (builds.size() < money) {
+            if (expired(deadline)) {
+                return null;
+            }
+            Build next = frontier.next();
+            if (next == null) {
+                if (!frontier.relax(minDistanceEnemy)) {
+                    break;
+                }
+                continue;
+            }
+            builds.add(next);
+        }
+        return builds;
+    }
+
+    // NaN — дедлайн прошёл
+    private double score(List<Build> builds, long deadline) {
+        int[] buildX = new int[builds.size()];
+        int[] buildY = new int[builds.size()];
+        for (int i = 0; i < builds.size(); i++) {
+            buildX[i] = builds.get(i).getX();
+            buildY[i] = builds.get(i).getY();
+        }
+
+        if (expired(deadline)) {
+            return Double.NaN;
+        }
+        double damage = forecast.damageWithBlocks(buildX, buildY, builds.size(),
+                (x, y) -> x == headX && y == headY ? HEAD_DAMAGE_WEIGHT : 1.0);
+
+        // Зомби, по которым новые блоки смогут стрелять уже на следующем ходу
+        int covered = 0;
+        if (infoResponse.getZombies() != null && !builds.isEmpty()) {
+            TargetIndex index = TargetIndex.of(buildX, buildY, builds.size());
+            for (Zombie zombie : infoResponse.getZombies()) {
+                if (expired(deadline)) {
+                    return Double.NaN;
+                }
+                boolean[] inRange = new boolean[1];
+                index.forEachInRange(zombie.getX(), zombie.getY(), NEW_BLOCK_RANGE, i -> inRange[0] = true);
+                if (inRange[0]) {
+                    covered++;
+                }
+            }
+        }
+        return covered * COVERED_ZOMBIE_BONUS - damage;
+    }
+
+    // Кольцо: клетки на расстоянии внешнего края базы от головы и дальше по периметру
+    private BuildHeuristic ringHeuristic() {
+        double ringRadius = 0;
+        for (Base base : infoResponse.getBase()) {
+            ringRadius = Math.max(ringRadius, Math.hypot(base.getX() - headX, base.getY() - headY));
+        }
+        double radius = ringRadius + 1;
+        return (x, y, cells) -> Math.abs(Math.hypot(x - headX, y - headY) - radius);
+    }
+
+    // Стена к спотам: ближе к ближайшему к голове споту — дешевле. Спот ищется по индексу мира,
+    // а не по окну сетки, поэтому направление есть и для спотов за окном. null — спотов рядом нет
+    private BuildHeuristic zpotWallHeuristic() {
+        int nearest = world != null ? world.getZpotIndex().nearest(headX, headY, ZPOT_SEARCH_RADIUS) : -1;
+        if (nearest < 0) {
+            return null;
+        }
+        ZPot zpot = world.getZpots().get(nearest);
+        int zpotX = zpot.getX();
+        int zpotY = zpot.getY();
+        return (x, y, cells) -> Math.hypot(x - zpotX, y - zpotY);
+    }
+}
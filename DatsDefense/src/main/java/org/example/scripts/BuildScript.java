@@ -1,21 +1,26 @@
 package org.example.scripts;
 
+import org.example.models.WorldGrid;
 import org.example.models.mapInfo.*;
 import org.example.models.play.Build;
-import org.example.models.worldInfo.WorldDataResponse;
-import org.example.models.worldInfo.ZPot;
+import org.example.models.worldInfo.StaticWorld;
 
 import java.util.*;
 
 public class BuildScript {
-    public static List<Build> build(InfoResponse infoResponse, WorldDataResponse worldDataResponse) {
+    private static final int MAX_RADIUS = 200;
+    private static final int MIN_DISTANCE_ENEMY = 2;
+    private static final double COVERAGE_WEIGHT = 0.5; // Сосед-блок стоит как полклетки расстояния от головы
+    private static final long PLAN_BUDGET_MS = 300; // Время на оценку вариантов постройки за ход
+
+    public static List<Build> build(InfoResponse infoResponse, StaticWorld world, ZombiePredictor forecast) {
         List<Build> build;
 
-        build = findNextBuildLocation(infoResponse, infoResponse.getPlayer().getGold(), worldDataResponse);
+        build = findNextBuildLocation(infoResponse, infoResponse.getPlayer().getGold(), world, forecast);
         return build;
     }
 
-    public static List<Build> findNextBuildLocation(InfoResponse infoResponse, int money, WorldDataResponse worldDataResponse) {
+    public static List<Build> findNextBuildLocation(InfoResponse infoResponse, int money, StaticWorld world, ZombiePredictor forecast) {
         Base[] bases = infoResponse.getBase();
         int startX = -1;
         int startY = -1;
@@ -36,44 +41,24 @@ public class BuildScript {
             throw new IllegalArgumentException("No head base found");
         }
 
-        int radius;
-        int distanceEnemy = 5, distanceSpotsZombie = 1, distanceZombie = 1;
-
-        // PriorityQueue для мест размещения с учетом их безопасности и стратегической ценности
-        PriorityQueue<Build> priorityQueue = new PriorityQueue<>(new BuildDistanceComparator(startX, startY));
-
-        while (firstPartMoney > 0 && distanceEnemy != 1) {
-            radius = 0;
-            distanceEnemy--;
-
-
-            while (firstPartMoney > 0 && radius <= 200) {
-                radius++;
-                int x, y;
-                int maxX = startX + radius;
-                int maxY = startY + radius;
-
-                for (x = startX - radius; x <= maxX; x++) {
-                    for (y = startY - radius; y <= maxY; y++) {
-                        double distance = calculateDistance(startX, startY, x, y);
-                        if (distance <= radius) {
-                            if (checkCoordinates(x, y, infoResponse, worldDataResponse, build, distanceEnemy, distanceSpotsZombie, distanceZombie)) {
-                                // Пропускаем координаты, если обе четные
-                                if (!shouldSkipCoordinates(x, y)) {
-                                    System.out.println("Point: (" + x + ", " + y + ")");
-                                    priorityQueue.add(createBase(x, y));
-                                }
-                            }
-                        }
-                    }
-                }
-
-                while (!priorityQueue.isEmpty() && firstPartMoney > 0) {
-                    Build nextBuild = priorityQueue.poll();
-                    build.add(nextBuild);
-                    firstPartMoney--;
-                }
-            }
+        int distanceEnemy = 4, distanceSpotsZombie = 1, distanceZombie = 1;
+
+        // Фронт уходит от базы не дальше, чем на число построек: окно сетки больше не нужно
+        int extent = 0;
+        for (Base base : bases) {
+            extent = Math.max(extent, Math.max(Math.abs(base.getX() - startX), Math.abs(base.getY() - startY)));
+        }
+        int gridRadius = Math.min(MAX_RADIUS, extent + firstPartMoney + 1);
+        WorldGrid grid = WorldGrid.around(infoResponse, world, startX, startY, gridRadius);
+        BuildHeuristic heuristic = BuildHeuristic.distanceFrom(startX, startY)
+                .plus(BuildHeuristic.defensiveCoverage(), COVERAGE_WEIGHT);
+
+        // Варианты постройки оцениваются параллельно, компактный — запасной
+        BuildPlanner planner = new BuildPlanner(infoResponse, forecast, world, grid, startX, startY, MAX_RADIUS,
+                distanceEnemy, MIN_DISTANCE_ENEMY, distanceSpotsZombie, distanceZombie);
+        for (Build nextBuild : planner.plan(firstPartMoney, heuristic, PLAN_BUDGET_MS)) {
+            System.out.println("Point: (" + nextBuild.getX() + ", " + nextBuild.getY() + ")");
+            build.add(nextBuild);
         }
 
         return build;
@@ -85,94 +70,43 @@ public class BuildScript {
         //return (x % 2 == 0) && (y % 2 == 0);
     }
 
-    public static boolean checkCoordinates(int x, int y, InfoResponse infoResponse, WorldDataResponse worldDataResponse, List<Build> currentBuild, int distanceEnemy, int distanceSpotsZombie, int distanceZombie) {
-        if (x < 0 || y < 0) {
+    /**
+     * Можно ли ставить постройку в (x, y): клетка свободна, примыкает к нашей базе
+     * и не ближе заданных порогов к зомби, вражеским блокам и спотам.
+     * Все проверки — чтение из {@link WorldGrid}, без перебора объектов.
+     */
+    public static boolean checkCoordinates(int x, int y, WorldGrid grid, int distanceEnemy, int distanceSpotsZombie, int distanceZombie) {
+        if (!grid.isAdjacentToBase(x, y)) {
             return false;
         }
-        double distance = 1000;
-        double newDistance;
-        if (!currentBuild.isEmpty()) {
-            for (Build build : currentBuild) {
-                if (build.getX() == x && build.getY() == y) {
-                    return false;
-                }
-            }
-        }
-        for (Base base : infoResponse.getBase()) {
-            if (base.x == x && base.y == y) {
-                return false;
-            }
 
-            newDistance = Math.sqrt(Math.pow(base.x - x, 2) + Math.pow(base.y - y, 2));
-            if (newDistance < distance) {
-                distance = newDistance;
-            }
-        }
-        if (distance > 1) {
+        // Enemy
+        if (grid.enemyDistanceSquared(x, y) <= distanceEnemy * distanceEnemy) {
             return false;
         }
 
-        // Zombie
-        if (infoResponse.getZombies() != null) {
-            for (Zombie zombie : infoResponse.getZombies()) {
-                if (zombie.x == x && zombie.y == y) {
-                    return false;
-                }
-                if (Math.sqrt(Math.pow(zombie.x - x, 2) + Math.pow(zombie.y - y, 2)) <= distanceZombie) {
-                    return false;
-                }
-            }
-        }
+        return isSafeCell(x, y, grid, distanceSpotsZombie, distanceZombie);
+    }
 
-        // Enemy
-        if (infoResponse.getEnemyBlocks() != null) {
-            for (EnemyBlock enemyBlock : infoResponse.getEnemyBlocks()) {
-                int enemyX = enemyBlock.getX();
-                int enemyY = enemyBlock.getY();
-                if (Math.sqrt(Math.pow(enemyX - x, 2) + Math.pow(enemyY - y, 2)) <= distanceEnemy) {
-                    return false;
-                }
-            }
+    /**
+     * Проверки, не зависящие от порога до вражеских блоков: клетка свободна,
+     * рядом нет зомби и спотов. Соседство с базой не проверяется.
+     */
+    public static boolean isSafeCell(int x, int y, WorldGrid grid, int distanceSpotsZombie, int distanceZombie) {
+        if (x < 0 || y < 0 || !grid.contains(x, y)) {
+            return false;
         }
-
-        // Spots
-        if (worldDataResponse != null && worldDataResponse.getZpots() != null) {
-            for (ZPot zpot : worldDataResponse.getZpots()) {
-                int zpotX = zpot.getX();
-                int zpotY = zpot.getY();
-                if (Math.sqrt(Math.pow(zpotX - x, 2) + Math.pow(zpotY - y, 2)) <= distanceSpotsZombie) {
-                    return false;
-                }
-
-                if (zpotX == x && zpotY == y) {
-                    return false;
-                }
-                if (zpotX == x - 1 && zpotY == y) {
-                    return false;
-                }
-                if (zpotX == x + 1 && zpotY == y) {
-                    return false;
-                }
-                if (zpotX == x && zpotY == y - 1) {
-                    return false;
-                }
-                if (zpotX == x && zpotY == y + 1) {
-                    return false;
-                }
-            }
+        if (grid.has(x, y, (byte) (WorldGrid.BASE | WorldGrid.PLANNED))) {
+            return false;
         }
 
-        return true;
-    }
-
-    private static Build createBase(int x, int y) {
-        Build base = new Build();
-        base.setX(x);
-        base.setY(y);
-        return base;
-    }
+        // Zombie
+        if (grid.zombieDistanceSquared(x, y) <= distanceZombie * distanceZombie) {
+            return false;
+        }
 
-    private static double calculateDistance(int x1, int y1, int x2, int y2) {
-        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
+        // Spots: сам спот и соседние с ним клетки запрещены всегда
+        int spotDistance = Math.max(distanceSpotsZombie, 1);
+        return grid.zpotDistanceSquared(x, y) > spotDistance * spotDistance;
     }
 }
@@ -1,53 +1,45 @@
 package org.example.scripts;
 
+import org.example.models.DangerField;
 import org.example.models.mapInfo.*;
 import org.example.models.play.MoveBase;
 
-import java.util.*;
 import java.util.logging.Logger;
 
 public class MoveScript {
 
     private static final Logger logger = Logger.getLogger(MoveScript.class.getName());
 
+    private static final double FORECAST_DAMAGE_WEIGHT = 0.01; // Единица опасности за 100 ожидаемого урона
+
     // Метод для нахождения самой безопасной клетки базы
-    public static Base findSafestBaseCell(InfoResponse infoResponse, int currentX, int currentY) {
+    public static Base findSafestBaseCell(InfoResponse infoResponse, int currentX, int currentY, ZombiePredictor forecast) {
         Base[] baseCells = infoResponse.getBase();
-        List<EnemyBlock> enemyBlocks = Optional.ofNullable(infoResponse.getEnemyBlocks()).map(Arrays::asList).orElse(Collections.emptyList());
-        List<Zombie> zombies = Optional.ofNullable(infoResponse.getZombies()).map(Arrays::asList).orElse(Collections.emptyList());
-
-        Map<Base, Double> dangerMap = new HashMap<>();
-
-        // Оценка угрозы от EnemyBlock и зомби для каждой клетки базы
-        for (Base baseCell : baseCells) {
-            double dangerLevel = 0;
 
-            for (EnemyBlock enemyBlock : enemyBlocks) {
-                double distance = calculateDistance(baseCell.getX(), baseCell.getY(), enemyBlock.getX(), enemyBlock.getY());
-                dangerLevel += 1 / distance; // Чем ближе враг, тем выше угроза
+        // Оценка угрозы от EnemyBlock и зомби: поле опасности плюс прогноз ударов зомби
+        DangerField dangerField = DangerField.of(infoResponse);
+
+        double[] dangerLevels = new double[baseCells.length];
+        double minDangerLevel = Double.MAX_VALUE;
+        double maxDangerLevel = -Double.MAX_VALUE;
+        int currentIndex = -1;
+        for (int i = 0; i < baseCells.length; i++) {
+            Base baseCell = baseCells[i];
+            double dangerLevel = dangerField.danger(baseCell.getX(), baseCell.getY())
+                    + FORECAST_DAMAGE_WEIGHT * forecast.expectedDamage(baseCell.getX(), baseCell.getY());
+            dangerLevels[i] = dangerLevel;
+            minDangerLevel = Math.min(minDangerLevel, dangerLevel);
+            maxDangerLevel = Math.max(maxDangerLevel, dangerLevel);
+            if (baseCell.getX() == currentX && baseCell.getY() == currentY) {
+                currentIndex = i;
             }
-
-            for (Zombie zombie : zombies) {
-                double distance = calculateDistance(baseCell.getX(), baseCell.getY(), zombie.getX(), zombie.getY());
-                dangerLevel += 1 / distance; // Чем ближе зомби, тем выше угроза
-            }
-
-            dangerMap.put(baseCell, dangerLevel);
         }
 
-        // Поиск клеток с наименьшим уровнем угрозы
-        double minDangerLevel = Collections.min(dangerMap.values());
-        double maxDangerLevel = Collections.max(dangerMap.values());
-        List<Base> safestCells = new ArrayList<>();
-        for (Map.Entry<Base, Double> entry : dangerMap.entrySet()) {
-            if (entry.getValue() == minDangerLevel) {
-                safestCells.add(entry.getKey());
-            }
+        if (currentIndex < 0) {
+            throw new IllegalArgumentException("Current position is not part of the base");
         }
-
-        Base currentBaseCell = Arrays.stream(baseCells).filter(base -> base.getX() == currentX && base.getY() == currentY).findFirst().orElseThrow(() -> new IllegalArgumentException("Current position is not part of the base"));
-
-        double currentDangerLevel = dangerMap.get(currentBaseCell);
+        Base currentBaseCell = baseCells[currentIndex];
+        double currentDangerLevel = dangerLevels[currentIndex];
 
         // Логирование информации
         logger.info(String.format("Максимальный уровень опасности: %.2f", maxDangerLevel));
@@ -61,10 +53,22 @@ public class MoveScript {
         }
 
         // Найти самую близкую безопасную клетку к текущей позиции
-        Base safestBaseCell = Collections.min(safestCells, Comparator.comparingDouble(cell -> calculateDistance(currentX, currentY, cell.getX(), cell.getY())));
+        int safestIndex = -1;
+        double safestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < baseCells.length; i++) {
+            if (dangerLevels[i] != minDangerLevel) {
+                continue;
+            }
+            double distance = calculateDistance(currentX, currentY, baseCells[i].getX(), baseCells[i].getY());
+            if (distance < safestDistance) {
+                safestDistance = distance;
+                safestIndex = i;
+            }
+        }
+        Base safestBaseCell = baseCells[safestIndex];
 
         // Логирование информации о безопасной клетке
-        logger.info(String.format("Перемещение в клетку: (%d, %d) с уровнем опасности: %.2f", safestBaseCell.getX(), safestBaseCell.getY(), dangerMap.get(safestBaseCell)));
+        logger.info(String.format("Перемещение в клетку: (%d, %d) с уровнем опасности: %.2f", safestBaseCell.getX(), safestBaseCell.getY(), dangerLevels[safestIndex]));
 
         return safestBaseCell;
     }
@@ -75,8 +79,8 @@ public class MoveScript {
     }
 
     // Метод для перемещения базы в самую безопасную клетку
-    public static MoveBase moveBaseToSafestCell(InfoResponse infoResponse, int currentX, int currentY) {
-        Base safestBaseCell = findSafestBaseCell(infoResponse, currentX, currentY);
+    public static MoveBase moveBaseToSafestCell(InfoResponse infoResponse, int currentX, int currentY, ZombiePredictor forecast) {
+        Base safestBaseCell = findSafestBaseCell(infoResponse, currentX, currentY, forecast);
         MoveBase moveBase = new MoveBase();
         moveBase.setX(safestBaseCell.getX());
         moveBase.setY(safestBaseCell.getY());
@@ -1,21 +1,49 @@
 package org.example.scripts;
 
+import org.example.models.TargetIndex;
 import org.example.models.mapInfo.*;
 import org.example.models.play.Attack;
 import org.example.models.play.Target;
 
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
+/**
+ * Распределение выстрелов блоков базы по целям.
+ * <p>
+ * Цели — вражеские блоки и клетки с зомби (выстрел по клетке бьёт всех зомби на ней).
+ * Для каждого блока цели в радиусе берутся из {@link TargetIndex}, а пары (блок, цель)
+ * выбираются жадным взвешенным паросочетанием: на каждом шаге берётся выстрел с наибольшей
+ * ценностью с учётом урона, уже назначенного другими блоками. Ценность — снятая угроза
+ * (урон, умноженный на уровень угрозы) плюс бонус за убийство, поэтому второй блок
+ * не стреляет в уже добитую цель. Выстрелы по вражеским блокам всегда идут раньше выстрелов
+ * по зомби: ценности сравниваются только внутри своего приоритета.
+ * <p>
+ * Угроза зомби масштабируется прогнозом {@link ZombiePredictor}: чем раньше зомби ударит
+ * по базе, тем он ценнее; зомби, не доходящие до базы за горизонт, стоят в разы меньше.
+ */
 public class ShootScript {
 
     private static final Logger logger = Logger.getLogger(ShootScript.class.getName());
 
+    private static final int ENEMY_HEAD_ATTACK = 40; // Атака центра управления противника
+    private static final int ENEMY_HEAD_THREAT = 100;
+    private static final int ENEMY_BLOCK_THREAT = 20;
+    private static final int ENEMY_BLOCK_PRIORITY = 1; // Блоки врага бьём раньше любых зомби
+    private static final int ZOMBIE_PRIORITY = 0;
+    private static final int KILL_BONUS = 50; // В единицах урона
+    private static final double UNREACHING_FACTOR = 0.25; // Зомби, не доходящий до базы за горизонт прогноза
+
     public record AttackResponse(List<Attack> attacks, InfoResponse updatedInfoResponse) {
     }
 
-    public static AttackResponse shoot(InfoResponse infoResponse) {
+    private record Shot(int base, int target, int priority, double value) {
+    }
+
+    /**
+     * @param forecast Прогноз зомби на этот ход (считается один раз в AutoPlayScript.planTurn).
+     */
+    public static AttackResponse shoot(InfoResponse infoResponse, ZombiePredictor forecast) {
         List<Attack> attacks = new ArrayList<>();
         logger.info("Начало процесса атаки");
 
@@ -33,223 +61,186 @@ public class ShootScript {
             return new AttackResponse(attacks, infoResponse);
         }
 
-        int centerX = centerBaseBlock.getX();
-        int centerY = centerBaseBlock.getY();
-
-        // Обработка зомби, если они существуют
-        Map<String, List<Zombie>> zombiesByLocation = Optional.ofNullable(infoResponse.getZombies())
-                .map(Arrays::asList)
-                .map(ShootScript::mapZombiesByLocation)
-                .orElseGet(HashMap::new);
-
-        // Сортировка зомби по расстоянию от центра и уровню угрозы
-        List<Map.Entry<String, List<Zombie>>> sortedZombiesByLocation = zombiesByLocation.entrySet().stream()
-                .sorted(Comparator.<Map.Entry<String, List<Zombie>>>comparingDouble(entry -> calculateDistance(centerX, centerY, entry.getValue().get(0).getX(), entry.getValue().get(0).getY()))
-                        .thenComparing(entry -> getZombieThreatLevel(entry.getValue().get(0))))
-                .collect(Collectors.toList());
-
-        List<Base> remainingBaseBlocks = new ArrayList<>(Arrays.asList(infoResponse.getBase()));
-        List<EnemyBlock> highPriorityEnemyBlocks = Optional.ofNullable(infoResponse.getEnemyBlocks())
-                .map(Arrays::asList)
-                .map(ShootScript::findHighPriorityEnemyBlocks)
-                .orElseGet(ArrayList::new);
-
-        List<EnemyBlock> remainingEnemyBlocks = Optional.ofNullable(infoResponse.getEnemyBlocks())
-                .map(Arrays::asList)
-                .map(ArrayList::new)
-                .orElseGet(ArrayList::new);
+        Targets targets = new Targets(infoResponse, forecast);
+        TargetIndex index = TargetIndex.of(targets.x, targets.y, targets.count);
+        Base[] baseBlocks = infoResponse.getBase();
+
+        // Все возможные выстрелы с ценностью на момент начала хода
+        PriorityQueue<Shot> shots = new PriorityQueue<>(Comparator.comparingInt(Shot::priority)
+                .thenComparingDouble(Shot::value).reversed());
+        for (int b = 0; b < baseBlocks.length; b++) {
+            Base baseBlock = baseBlocks[b];
+            int power = baseBlock.getAttack();
+            if (power <= 0) {
+                continue;
+            }
+            int base = b;
+            index.forEachInRange(baseBlock.getX(), baseBlock.getY(), baseBlock.getRange(), target -> {
+                double value = targets.value(target, power);
+                if (value > 0) {
+                    shots.add(new Shot(base, target, targets.priority(target), value));
+                }
+            });
+        }
 
+        // Жадный выбор с ленивой переоценкой: ценность выстрела только падает по мере назначения урона
+        boolean[] used = new boolean[baseBlocks.length];
         int highPriorityAttacks = 0;
         int totalEnemyBlockAttacks = 0;
+        while (!shots.isEmpty()) {
+            Shot shot = shots.poll();
+            if (used[shot.base()]) {
+                continue;
+            }
+            Base baseBlock = baseBlocks[shot.base()];
+            double value = targets.value(shot.target(), baseBlock.getAttack());
+            if (value <= 0) {
+                continue;
+            }
+            if (value < shot.value()) {
+                shots.add(new Shot(shot.base(), shot.target(), shot.priority(), value));
+                continue;
+            }
 
-        // Выполнение атак по EnemyBlock с атакой 40
-        if (!highPriorityEnemyBlocks.isEmpty()) {
-            highPriorityAttacks = executeHighPriorityEnemyBlockAttacks(attacks, remainingBaseBlocks, highPriorityEnemyBlocks);
-            remainingEnemyBlocks.removeAll(highPriorityEnemyBlocks);
-        }
+            used[shot.base()] = true;
+            targets.applyDamage(shot.target(), baseBlock.getAttack());
+            attacks.add(createAttack(baseBlock, targets.x[shot.target()], targets.y[shot.target()]));
 
-        // Выполнение атак по обычным EnemyBlock
-        if (!remainingEnemyBlocks.isEmpty()) {
-            totalEnemyBlockAttacks = executeEnemyBlockAttacks(attacks, remainingBaseBlocks, remainingEnemyBlocks, sortedZombiesByLocation);
+            EnemyBlock enemyBlock = targets.enemyBlocks[shot.target()];
+            if (enemyBlock != null) {
+                totalEnemyBlockAttacks++;
+                if (enemyBlock.getAttack() == ENEMY_HEAD_ATTACK) {
+                    highPriorityAttacks++;
+                }
+            }
         }
 
-        // Выполнение атак по зомби
-        if (!sortedZombiesByLocation.isEmpty()) {
-            List<Zombie> remainingZombies = new ArrayList<>(Arrays.asList(infoResponse.getZombies()));
-            executeZombieAttacks(attacks, remainingBaseBlocks, sortedZombiesByLocation, remainingZombies);
+        int totalZombies = infoResponse.getZombies() != null ? infoResponse.getZombies().length : 0;
 
-            // Обновить массив зомби после атак
-            infoResponse.setZombies(remainingZombies.toArray(new Zombie[0]));
+        // Обновление InfoResponse: убитые цели больше не учитываются при постройке и движении
+        if (infoResponse.getZombies() != null) {
+            infoResponse.setZombies(Arrays.stream(infoResponse.getZombies())
+                    .filter(zombie -> zombie.getHealth() > 0)
+                    .toArray(Zombie[]::new));
+        }
+        if (infoResponse.getEnemyBlocks() != null) {
+            infoResponse.setEnemyBlocks(Arrays.stream(infoResponse.getEnemyBlocks())
+                    .filter(enemyBlock -> enemyBlock.getHealth() > 0)
+                    .toArray(EnemyBlock[]::new));
         }
 
-        logAttackSummary(attacks, Arrays.asList(infoResponse.getZombies()), infoResponse, highPriorityAttacks, totalEnemyBlockAttacks);
-
-        // Обновление InfoResponse
-        infoResponse.setEnemyBlocks(remainingEnemyBlocks.toArray(new EnemyBlock[0]));
+        logAttackSummary(attacks, totalZombies, infoResponse, highPriorityAttacks, totalEnemyBlockAttacks);
 
         logger.info("Процесс атаки завершен");
         return new AttackResponse(attacks, infoResponse);
     }
 
-    private static Base findCenterBaseBlock(Base[] baseBlocks) {
-        return Arrays.stream(baseBlocks)
-                .filter(Base::isHead)
-                .findFirst()
-                .orElse(null);
-    }
-
-    private static Map<String, List<Zombie>> mapZombiesByLocation(List<Zombie> zombies) {
-        return zombies.stream()
-                .collect(Collectors.groupingBy(zombie -> zombie.getX() + "," + zombie.getY()));
-    }
+    /**
+     * Цели хода в плоских массивах: вражеский блок или клетка со всеми зомби на ней.
+     */
+    private static final class Targets {
+        int count;
+        int[] x;
+        int[] y;
+        EnemyBlock[] enemyBlocks;
+        List<List<Zombie>> zombies = new ArrayList<>();
+        ZombiePredictor forecast;
+
+        Targets(InfoResponse infoResponse, ZombiePredictor forecast) {
+            this.forecast = forecast;
+            EnemyBlock[] enemies = Optional.ofNullable(infoResponse.getEnemyBlocks()).orElse(new EnemyBlock[0]);
+            Zombie[] allZombies = Optional.ofNullable(infoResponse.getZombies()).orElse(new Zombie[0]);
+            int capacity = enemies.length + allZombies.length;
+            x = new int[capacity];
+            y = new int[capacity];
+            enemyBlocks = new EnemyBlock[capacity];
+
+            for (EnemyBlock enemyBlock : enemies) {
+                enemyBlocks[count] = enemyBlock;
+                zombies.add(List.of());
+                add(enemyBlock.getX(), enemyBlock.getY());
+            }
 
-    private static void executeZombieAttacks(List<Attack> attacks, List<Base> baseBlocks, List<Map.Entry<String, List<Zombie>>> sortedZombiesByLocation, List<Zombie> remainingZombies) {
-        List<Base> baseBlocksToRemove = new ArrayList<>();
-
-        for (Base baseBlock : baseBlocks) {
-            int baseX = baseBlock.getX();
-            int baseY = baseBlock.getY();
-            int attackRadius = baseBlock.getRange();
-            int attackPower = baseBlock.getAttack();
-
-            for (Map.Entry<String, List<Zombie>> entry : sortedZombiesByLocation) {
-                List<Zombie> zombiesInLocation = entry.getValue();
-                if(!zombiesInLocation.isEmpty()){
-                    int targetX = zombiesInLocation.get(0).getX();
-                    int targetY = zombiesInLocation.get(0).getY();
-                    double distance = calculateDistance(baseX, baseY, targetX, targetY);
-
-                    if (distance <= attackRadius) {
-                        shootZombies(attacks, baseBlock, attackPower, zombiesInLocation, remainingZombies);
-                        baseBlocksToRemove.add(baseBlock);  // Добавить блок базы для удаления после атаки
-                        break;
-                    }
+            // Зомби на одной клетке — одна цель
+            Map<Long, Integer> cells = new HashMap<>();
+            for (Zombie zombie : allZombies) {
+                Integer target = cells.get(TargetIndex.pack(zombie.getX(), zombie.getY()));
+                if (target == null) {
+                    target = count;
+                    cells.put(TargetIndex.pack(zombie.getX(), zombie.getY()), target);
+                    zombies.add(new ArrayList<>());
+                    add(zombie.getX(), zombie.getY());
                 }
-
+                zombies.get(target).add(zombie);
             }
         }
 
-        baseBlocks.removeAll(baseBlocksToRemove);  // Удалить блоки базы после атаки
-    }
-
-    private static int executeHighPriorityEnemyBlockAttacks(List<Attack> attacks, List<Base> baseBlocks, List<EnemyBlock> enemyBlocks) {
-        int highPriorityAttacks = 0;
-        List<Base> baseBlocksToRemove = new ArrayList<>();
+        private void add(int targetX, int targetY) {
+            x[count] = targetX;
+            y[count] = targetY;
+            count++;
+        }
 
-        for (Base baseBlock : baseBlocks) {
-            int baseX = baseBlock.getX();
-            int baseY = baseBlock.getY();
-            int attackRadius = baseBlock.getRange();
+        int priority(int target) {
+            return enemyBlocks[target] != null ? ENEMY_BLOCK_PRIORITY : ZOMBIE_PRIORITY;
+        }
 
-            for (EnemyBlock enemyBlock : enemyBlocks) {
-                double distance = calculateDistance(baseX, baseY, enemyBlock.getX(), enemyBlock.getY());
-                if (distance <= attackRadius) {
-                    shootEnemyBlock(attacks, baseBlock, enemyBlock);
-                    highPriorityAttacks++;
-                    baseBlocksToRemove.add(baseBlock);  // Добавить блок базы для удаления после атаки
-                    break;
-                }
+        double value(int target, int power) {
+            EnemyBlock enemyBlock = enemyBlocks[target];
+            if (enemyBlock != null) {
+                int threat = enemyBlock.getAttack() == ENEMY_HEAD_ATTACK ? ENEMY_HEAD_THREAT : ENEMY_BLOCK_THREAT;
+                return hitValue(enemyBlock.getHealth(), power, threat);
             }
+            double value = 0;
+            for (Zombie zombie : zombies.get(target)) {
+                value += hitValue(zombie.getHealth(), power, getZombieThreatLevel(zombie)) * urgency(zombie);
+            }
+            return value;
         }
 
-        baseBlocks.removeAll(baseBlocksToRemove);  // Удалить блоки базы после атаки
-        return highPriorityAttacks;
-    }
-
-    private static int executeEnemyBlockAttacks(List<Attack> attacks, List<Base> baseBlocks, List<EnemyBlock> enemyBlocks, List<Map.Entry<String, List<Zombie>>> sortedZombiesByLocation) {
-        int totalEnemyBlockAttacks = 0;
-        List<Base> baseBlocksToRemove = new ArrayList<>();
-
-        for (Base baseBlock : baseBlocks) {
-            int baseX = baseBlock.getX();
-            int baseY = baseBlock.getY();
-            int attackRadius = baseBlock.getRange();
-            int attackPower = baseBlock.getAttack();
-
-            boolean attacked = false;
-
-            // Атакуем обычные EnemyBlock
-            for (EnemyBlock enemyBlock : enemyBlocks) {
-                double distance = calculateDistance(baseX, baseY, enemyBlock.getX(), enemyBlock.getY());
-                if (distance <= attackRadius) {
-                    shootEnemyBlock(attacks, baseBlock, enemyBlock);
-                    totalEnemyBlockAttacks++;
-                    baseBlocksToRemove.add(baseBlock);  // Добавить блок базы для удаления после атаки
-                    attacked = true;
-                    break;
-                }
+        void applyDamage(int target, int power) {
+            EnemyBlock enemyBlock = enemyBlocks[target];
+            if (enemyBlock != null) {
+                enemyBlock.setHealth(enemyBlock.getHealth() - power);
+                return;
             }
-
-            if (attacked) continue;
-            if(!sortedZombiesByLocation.isEmpty()){
-                for (Map.Entry<String, List<Zombie>> entry : sortedZombiesByLocation) {
-
-                    List<Zombie> zombiesInLocation = entry.getValue();
-                    if(!zombiesInLocation.isEmpty()){
-                        int targetX = zombiesInLocation.get(0).getX();
-                        int targetY = zombiesInLocation.get(0).getY();
-                        double distance = calculateDistance(baseX, baseY, targetX, targetY);
-
-                        if (distance <= attackRadius) {
-                            shootZombies(attacks, baseBlock, attackPower, zombiesInLocation, new ArrayList<>(zombiesInLocation));
-                            baseBlocksToRemove.add(baseBlock);  // Добавить блок базы для удаления после атаки
-                            break;
-                        }
-                    }
-
+            for (Zombie zombie : zombies.get(target)) {
+                if (zombie.getHealth() > 0) {  // Проверка на живого зомби
+                    zombie.setHealth(zombie.getHealth() - power);
                 }
             }
-            // Если нет EnemyBlock, атакуем зомби
+        }
 
+        // 2 для удара на следующем ходу, ближе к 1 для дальних, UNREACHING_FACTOR если не дойдёт
+        private double urgency(Zombie zombie) {
+            int hitTurn = forecast.hitTurn(zombie);
+            return hitTurn == ZombiePredictor.NEVER ? UNREACHING_FACTOR : 1.0 + 1.0 / hitTurn;
         }
 
-        baseBlocks.removeAll(baseBlocksToRemove);  // Удалить блоки базы после атаки
-        return totalEnemyBlockAttacks;
+        private static double hitValue(int health, int power, int threat) {
+            if (health <= 0) {
+                return 0;
+            }
+            int damage = Math.min(power, health);
+            return threat * (damage + (power >= health ? KILL_BONUS : 0));
+        }
     }
 
-    private static List<EnemyBlock> findHighPriorityEnemyBlocks(List<EnemyBlock> enemyBlocks) {
-        return enemyBlocks.stream()
-                .filter(enemyBlock -> enemyBlock.getAttack() == 40)
-                .collect(Collectors.toList());
+    private static Base findCenterBaseBlock(Base[] baseBlocks) {
+        return Arrays.stream(baseBlocks)
+                .filter(Base::isHead)
+                .findFirst()
+                .orElse(null);
     }
 
-    private static void shootZombies(List<Attack> attacks, Base baseBlock, int attackPower, List<Zombie> zombiesInLocation, List<Zombie> remainingZombies) {
-        int targetX = zombiesInLocation.get(0).getX();
-        int targetY = zombiesInLocation.get(0).getY();
+    private static Attack createAttack(Base baseBlock, int targetX, int targetY) {
         Attack attack = new Attack();
         attack.setBlockId(baseBlock.getId());
         Target target = new Target();
         target.setX(targetX);
         target.setY(targetY);
         attack.setTarget(target);
-        attacks.add(attack);
-
-        Iterator<Zombie> iterator = zombiesInLocation.iterator();
-        while (iterator.hasNext()) {
-            Zombie zombie = iterator.next();
-            if (zombie.getHealth() > 0) {  // Проверка на живого зомби
-                zombie.setHealth(zombie.getHealth() - attackPower);
-                if (zombie.getHealth() <= 0) {
-                    remainingZombies.remove(zombie);
-                    iterator.remove();  // Удаляем зомби из текущей локации
-                }
-            }
-        }
-    }
-
-    private static void shootEnemyBlock(List<Attack> attacks, Base baseBlock, EnemyBlock enemyBlock) {
-        Attack attack = new Attack();
-        attack.setBlockId(baseBlock.getId());
-        Target target = new Target();
-        target.setX(enemyBlock.getX());
-        target.setY(enemyBlock.getY());
-        attack.setTarget(target);
-        attacks.add(attack);
-        enemyBlock.setHealth(enemyBlock.getHealth() - baseBlock.getAttack());
-    }
-
-    private static double calculateDistance(int x1, int y1, int x2, int y2) {
-        return Math.sqrt(Math.pow((x1 - x2), 2) + Math.pow((y1 - y2), 2));
+        return attack;
     }
 
     private static int getZombieThreatLevel(Zombie zombie) {
@@ -264,13 +255,12 @@ public class ShootScript {
         };
     }
 
-    private static void logAttackSummary(List<Attack> attacks, List<Zombie> remainingZombies, InfoResponse infoResponse, int highPriorityAttacks, int totalEnemyBlockAttacks) {
-        int totalZombies = infoResponse.getZombies().length;
-        int zombiesKilled = totalZombies - remainingZombies.size();
-        int zombiesWounded = remainingZombies.size();
+    private static void logAttackSummary(List<Attack> attacks, int totalZombies, InfoResponse infoResponse, int highPriorityAttacks, int totalEnemyBlockAttacks) {
+        int remainingZombies = infoResponse.getZombies() != null ? infoResponse.getZombies().length : 0;
+        int zombiesKilled = totalZombies - remainingZombies;
         int totalAttacks = attacks.size();
         int normalEnemyBlockAttacks = totalEnemyBlockAttacks - highPriorityAttacks;
 
-        logger.info(String.format("Итог атаки: всего атак: %d, зомби убито: %d, зомби ранено: %d, атаковано EnemyBlock: %d (приоритетных: %d, обычных: %d)", totalAttacks, zombiesKilled, zombiesWounded, totalEnemyBlockAttacks, highPriorityAttacks, normalEnemyBlockAttacks));
+        logger.info(String.format("Итог атаки: всего атак: %d, зомби убито: %d, зомби ранено: %d, атаковано EnemyBlock: %d (приоритетных: %d, обычных: %d)", totalAttacks, zombiesKilled, remainingZombies, totalEnemyBlockAttacks, highPriorityAttacks, normalEnemyBlockAttacks));
     }
 }
@@ -0,0 +1,378 @@
+package org.example.scripts;
+
+import org.example.models.mapInfo.Base;
+import org.example.models.mapInfo.InfoResponse;
+import org.example.models.mapInfo.Zombie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Прогноз движения зомби на несколько ходов вперёд по правилам их типов.
+ * <p>
+ * Результат — тепловая карта в плоских массивах вокруг базы: ход, на котором
+ * на клетку впервые придёт (или ударит) какой-либо зомби, и ожидаемый суммарный урон
+ * по блокам базы за горизонт. Для каждого зомби запоминается ход первого удара по базе.
+ * <p>
+ * Правила:
+ * <ul>
+ *     <li>первое действие через waitTurns ходов, дальше каждый ход;</li>
+ *     <li>normal, fast — speed клеток по направлению, перед блоком базы останавливаются и бьют его каждый ход;</li>
+ *     <li>bomber — как normal, но взрывается один раз и задевает квадрат 3x3;</li>
+ *     <li>liner — бьёт блок и все блоки базы, идущие за ним подряд по направлению;</li>
+ *     <li>juggernaut — идёт сквозь базу, разрушая каждый блок на пути;</li>
+ *     <li>chaos_knight — ход конём: 2 клетки по направлению и 1 вбок, сторона равновероятна.</li>
+ * </ul>
+ * Разрушение блоков и смерть зомби от наших выстрелов не моделируются: карта — оценка сверху.
+ * <p>
+ * Прогноз считается один раз за ход и читается всеми скриптами. Путь и удары каждого зомби
+ * сохраняются, поэтому {@link #damageWithBlocks} оценивает базу с новыми блоками, пересчитывая
+ * только зомби, чей путь эти блоки задевают.
+ */
+public class ZombiePredictor {
+
+    public static final int NEVER = Integer.MAX_VALUE;
+
+    private static final int MAX_MARGIN = 64;
+
+    private final int originX;
+    private final int originY;
+    private final int width;
+    private final int height;
+    private final int horizon;
+
+    private final boolean[] base;
+    private final int[] arrivalTurn;
+    private final double[] expectedDamage;
+    private final Map<String, Integer> hitTurnById = new HashMap<>();
+    private final List<Zombie> simulated = new ArrayList<>();
+    private final List<Trace> traces = new ArrayList<>();
+
+    /**
+     * Вес урона по клетке базы (например, голова дороже).
+     */
+    @FunctionalInterface
+    public interface DamageWeight {
+        double of(int x, int y);
+    }
+
+    /**
+     * Прогон одного зомби: клетки пути с ходом прихода и удары по базе.
+     */
+    private static final class Trace {
+        int[] pathCells = new int[16];
+        int[] pathTurns = new int[16];
+        int pathSize;
+        int[] hitCells = new int[4];
+        int[] hitTurns = new int[4];
+        double[] hitDamage = new double[4];
+        int hitCount;
+
+        void arrive(int cell, int turn) {
+            if (pathSize == pathCells.length) {
+                pathCells = Arrays.copyOf(pathCells, pathSize * 2);
+                pathTurns = Arrays.copyOf(pathTurns, pathSize * 2);
+            }
+            pathCells[pathSize] = cell;
+            pathTurns[pathSize] = turn;
+            pathSize++;
+        }
+
+        void hit(int cell, int turn, double damage) {
+            if (hitCount == hitCells.length) {
+                hitCells = Arrays.copyOf(hitCells, hitCount * 2);
+                hitTurns = Arrays.copyOf(hitTurns, hitCount * 2);
+                hitDamage = Arrays.copyOf(hitDamage, hitCount * 2);
+            }
+            hitCells[hitCount] = cell;
+            hitTurns[hitCount] = turn;
+            hitDamage[hitCount] = damage;
+            hitCount++;
+        }
+    }
+
+    private ZombiePredictor(int originX, int originY, int width, int height, int horizon) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        this.horizon = horizon;
+        this.base = new boolean[width * height];
+        this.arrivalTurn = new int[width * height];
+        this.expectedDamage = new double[width * height];
+        Arrays.fill(arrivalTurn, NEVER);
+    }
+
+    /**
+     * Прогоняет всех зомби на turns ходов вперёд.
+     */
+    public static ZombiePredictor simulate(InfoResponse infoResponse, int turns) {
+        Base[] bases = infoResponse.getBase() != null ? infoResponse.getBase() : new Base[0];
+        Zombie[] zombies = infoResponse.getZombies() != null ? infoResponse.getZombies() : new Zombie[0];
+
+        int maxSpeed = 2; // Ход коня смещает на 2 клетки
+        for (Zombie zombie : zombies) {
+            maxSpeed = Math.max(maxSpeed, zombie.getSpeed());
+        }
+        int margin = Math.min(MAX_MARGIN, turns * maxSpeed + 1);
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (Base block : bases) {
+            minX = Math.min(minX, block.getX());
+            minY = Math.min(minY, block.getY());
+            maxX = Math.max(maxX, block.getX());
+            maxY = Math.max(maxY, block.getY());
+        }
+        if (bases.length == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+
+        ZombiePredictor predictor = new ZombiePredictor(minX - margin, minY - margin,
+                maxX - minX + 2 * margin + 1, maxY - minY + 2 * margin + 1, turns);
+        for (Base block : bases) {
+            predictor.base[predictor.index(block.getX(), block.getY())] = true;
+        }
+        for (Zombie zombie : zombies) {
+            // Зомби, которому не дойти до окна за горизонт, базе не угрожает
+            if (predictor.contains(zombie.getX(), zombie.getY())) {
+                Trace trace = predictor.trace(zombie, null);
+                predictor.simulated.add(zombie);
+                predictor.traces.add(trace);
+                predictor.apply(zombie, trace);
+            }
+        }
+        return predictor;
+    }
+
+    /**
+     * Ожидаемый взвешенный урон за горизонт по базе, к которой добавлены блоки (blockX[i], blockY[i]).
+     * Зомби, чей путь проходит через новые блоки или рядом с клетками их ударов (взрыв бомбера,
+     * цепочка лайнера), прогоняются заново; остальные берутся из прогноза. Блоки вне окна прогноза
+     * не учитываются. Прогноз не меняется, поэтому метод можно вызывать из разных потоков.
+     */
+    public double damageWithBlocks(int[] blockX, int[] blockY, int count, DamageWeight weight) {
+        BitSet extra = new BitSet(width * height);
+        for (int i = 0; i < count; i++) {
+            if (contains(blockX[i], blockY[i]) && !base[index(blockX[i], blockY[i])]) {
+                extra.set(index(blockX[i], blockY[i]));
+            }
+        }
+
+        double total = 0;
+        for (int i = 0; i < traces.size(); i++) {
+            Trace trace = traces.get(i);
+            if (!extra.isEmpty() && crosses(trace, extra)) {
+                trace = trace(simulated.get(i), extra);
+            }
+            for (int h = 0; h < trace.hitCount; h++) {
+                int cell = trace.hitCells[h];
+                total += trace.hitDamage[h] * weight.of(originX + cell % width, originY + cell / width);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Ход, на котором на клетку впервые придёт зомби, или {@link #NEVER}.
+     */
+    public int arrivalTurn(int x, int y) {
+        return contains(x, y) ? arrivalTurn[index(x, y)] : NEVER;
+    }
+
+    /**
+     * Ожидаемый урон по блоку базы в клетке за весь горизонт.
+     */
+    public double expectedDamage(int x, int y) {
+        return contains(x, y) ? expectedDamage[index(x, y)] : 0;
+    }
+
+    /**
+     * Ход первого удара зомби по базе или {@link #NEVER}, если за горизонт он до базы не дойдёт.
+     */
+    public int hitTurn(Zombie zombie) {
+        return hitTurnById.getOrDefault(zombie.getId(), NEVER);
+    }
+
+    public int getHorizon() {
+        return horizon;
+    }
+
+    private Trace trace(Zombie zombie, BitSet extraBase) {
+        Trace trace = new Trace();
+        int[] direction = direction(zombie.getDirection());
+        if (direction == null) {
+            return trace;
+        }
+        int firstTurn = Math.max(1, zombie.getWaitTurns());
+        if ("chaos_knight".equals(zombie.getType())) {
+            simulateKnight(zombie, zombie.getX(), zombie.getY(), direction, firstTurn, 1.0, extraBase, trace);
+            return trace;
+        }
+
+        int x = zombie.getX();
+        int y = zombie.getY();
+        int speed = Math.max(1, zombie.getSpeed());
+        boolean juggernaut = "juggernaut".equals(zombie.getType());
+        for (int turn = firstTurn; turn <= horizon; turn++) {
+            for (int step = 0; step < speed; step++) {
+                int nx = x + direction[0];
+                int ny = y + direction[1];
+                if (isBase(nx, ny, extraBase) && !juggernaut) {
+                    if (attack(zombie, nx, ny, direction, turn, 1.0, extraBase, trace)) {
+                        return trace; // Бомбер взорвался
+                    }
+                    break;
+                }
+                x = nx;
+                y = ny;
+                markArrival(x, y, turn, trace);
+                if (juggernaut && isBase(x, y, extraBase)) {
+                    hit(zombie, x, y, turn, 1.0, trace);
+                }
+            }
+        }
+        return trace;
+    }
+
+    private void simulateKnight(Zombie zombie, int x, int y, int[] direction, int turn, double probability,
+                                BitSet extraBase, Trace trace) {
+        if (turn > horizon || !contains(x, y)) {
+            return;
+        }
+        for (int side = -1; side <= 1; side += 2) {
+            int nx = x + 2 * direction[0] + side * direction[1];
+            int ny = y + 2 * direction[1] + side * direction[0];
+            double branch = probability / 2;
+            if (isBase(nx, ny, extraBase)) {
+                // Встал перед блоком и бьёт его до конца горизонта
+                for (int t = turn; t <= horizon; t++) {
+                    attack(zombie, nx, ny, direction, t, branch, extraBase, trace);
+                }
+                continue;
+            }
+            markArrival(nx, ny, turn, trace);
+            simulateKnight(zombie, nx, ny, direction, turn + 1, branch, extraBase, trace);
+        }
+    }
+
+    /**
+     * Удар по блоку в (x, y) с учётом типа зомби.
+     *
+     * @return true, если зомби после удара исчезает.
+     */
+    private boolean attack(Zombie zombie, int x, int y, int[] direction, int turn, double probability,
+                           BitSet extraBase, Trace trace) {
+        switch (Objects.toString(zombie.getType(), "")) {
+            case "bomber" -> {
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if (isBase(x + dx, y + dy, extraBase)) {
+                            hit(zombie, x + dx, y + dy, turn, probability, trace);
+                        }
+                    }
+                }
+                return true;
+            }
+            case "liner" -> {
+                int cx = x;
+                int cy = y;
+                while (isBase(cx, cy, extraBase)) {
+                    hit(zombie, cx, cy, turn, probability, trace);
+                    cx += direction[0];
+                    cy += direction[1];
+                }
+                return false;
+            }
+            default -> {
+                hit(zombie, x, y, turn, probability, trace);
+                return false;
+            }
+        }
+    }
+
+    private void hit(Zombie zombie, int x, int y, int turn, double probability, Trace trace) {
+        trace.hit(index(x, y), turn, zombie.getAttack() * probability);
+    }
+
+    private void markArrival(int x, int y, int turn, Trace trace) {
+        if (contains(x, y)) {
+            trace.arrive(index(x, y), turn);
+        }
+    }
+
+    /**
+     * Переносит прогон зомби в общую тепловую карту.
+     */
+    private void apply(Zombie zombie, Trace trace) {
+        for (int i = 0; i < trace.pathSize; i++) {
+            int cell = trace.pathCells[i];
+            arrivalTurn[cell] = Math.min(arrivalTurn[cell], trace.pathTurns[i]);
+        }
+        for (int i = 0; i < trace.hitCount; i++) {
+            int cell = trace.hitCells[i];
+            expectedDamage[cell] += trace.hitDamage[i];
+            arrivalTurn[cell] = Math.min(arrivalTurn[cell], trace.hitTurns[i]);
+            hitTurnById.merge(zombie.getId(), trace.hitTurns[i], Math::min);
+        }
+    }
+
+    // Новый блок на пути или рядом с клеткой удара меняет прогон зомби
+    private boolean crosses(Trace trace, BitSet extra) {
+        for (int i = 0; i < trace.pathSize; i++) {
+            if (extra.get(trace.pathCells[i])) {
+                return true;
+            }
+        }
+        for (int i = 0; i < trace.hitCount; i++) {
+            int cell = trace.hitCells[i];
+            int x = originX + cell % width;
+            int y = originY + cell / width;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (contains(x + dx, y + dy) && extra.get(index(x + dx, y + dy))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isBase(int x, int y, BitSet extraBase) {
+        if (!contains(x, y)) {
+            return false;
+        }
+        int i = index(x, y);
+        return base[i] || (extraBase != null && extraBase.get(i));
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= originX && y >= originY && x < originX + width && y < originY + height;
+    }
+
+    private int index(int x, int y) {
+        return (y - originY) * width + (x - originX);
+    }
+
+    // Ось Y направлена вниз, как на карте сервера
+    private static int[] direction(String direction) {
+        if (direction == null) {
+            return null;
+        }
+        return switch (direction) {
+            case "up" -> new int[]{0, -1};
+            case "down" -> new int[]{0, 1};
+            case "left" -> new int[]{-1, 0};
+            case "right" -> new int[]{1, 0};
+            default -> null;
+        };
+    }
+}
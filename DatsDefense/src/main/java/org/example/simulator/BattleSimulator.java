@@ -0,0 +1,458 @@
+package org.example.simulator;
+
+import org.example.models.TargetIndex;
+import org.example.models.mapInfo.Base;
+import org.example.models.mapInfo.EnemyBlock;
+import org.example.models.mapInfo.InfoResponse;
+import org.example.models.mapInfo.Player;
+import org.example.models.mapInfo.Zombie;
+import org.example.models.play.Attack;
+import org.example.models.play.Build;
+import org.example.models.play.PlayRequest;
+import org.example.models.worldInfo.StaticWorld;
+import org.example.models.worldInfo.WorldDataResponse;
+import org.example.models.worldInfo.ZPot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Локальная модель раунда zombidef для прогона скриптов без сервера.
+ * <p>
+ * Порядок хода: наши атаки → постройки → перенос центра управления → атаки вражеских блоков →
+ * действия зомби → появление новых зомби на спотах. Правила зомби те же, что в
+ * {@link org.example.scripts.ZombiePredictor}, но с настоящим уроном: блоки теряют здоровье и исчезают.
+ * Параметры блоков, доход и частота появления зомби — приближение правил, их можно подстроить
+ * константами. Случайность (типы, направления, ход коня) задаётся seed, поэтому прогоны воспроизводимы.
+ */
+public class BattleSimulator {
+
+    private static final int BLOCK_HEALTH = 100;
+    private static final int BLOCK_ATTACK = 10;
+    private static final int BLOCK_RANGE = 8;
+    private static final int HEAD_HEALTH = 300;
+    private static final int HEAD_ATTACK = 40;
+    private static final int HEAD_RANGE = 12;
+    private static final int ENEMY_RANGE = 8;
+
+    private static final int BUILD_COST = 1;
+    private static final int GOLD_PER_ZOMBIE = 1;
+    private static final int GOLD_PER_ENEMY_BLOCK = 10;
+
+    private static final double SPAWN_CHANCE = 0.2; // Вероятность появления зомби на споте за ход
+    private static final String[] ZOMBIE_TYPES = {"normal", "normal", "normal", "fast", "bomber", "liner", "juggernaut", "chaos_knight"};
+    private static final String[] DIRECTIONS = {"up", "down", "left", "right"};
+
+    private final Random random;
+    private final int mapSize;
+    private final List<ZPot> zpots;
+
+    private final Map<Long, Base> blocks = new LinkedHashMap<>();
+    private final Map<Long, EnemyBlock> enemyBlocks = new LinkedHashMap<>();
+    private final List<Zombie> zombies = new ArrayList<>();
+    private final Player player = new Player();
+
+    private int turn;
+    private int nextId;
+
+    public BattleSimulator(long seed, int mapSize, int headX, int headY, List<ZPot> zpots, List<EnemyBlock> enemies) {
+        this.random = new Random(seed);
+        this.mapSize = mapSize;
+        this.zpots = List.copyOf(zpots);
+        this.player.setName("simulator");
+
+        // Стартовая база 2x2, как на сервере
+        for (int dx = 0; dx < 2; dx++) {
+            for (int dy = 0; dy < 2; dy++) {
+                addBlock(headX + dx, headY + dy, dx == 0 && dy == 0);
+            }
+        }
+        for (EnemyBlock enemy : enemies) {
+            enemyBlocks.put(TargetIndex.pack(enemy.getX(), enemy.getY()), enemy);
+        }
+    }
+
+    /**
+     * Случайный мир: споты и вражеские базы вокруг нашей стартовой точки в центре карты.
+     */
+    public static BattleSimulator randomWorld(long seed, int mapSize, int zpotCount, int enemyCount) {
+        Random random = new Random(seed);
+        int center = mapSize / 2;
+        List<ZPot> zpots = new ArrayList<>();
+        for (int i = 0; i < zpotCount; i++) {
+            ZPot zpot = new ZPot();
+            zpot.setX(center + random.nextInt(120) - 60);
+            zpot.setY(center + random.nextInt(120) - 60);
+            zpot.setType(random.nextInt(5) == 0 ? "wall" : "default");
+            if (Math.abs(zpot.getX() - center) > 6 || Math.abs(zpot.getY() - center) > 6) {
+                zpots.add(zpot);
+            }
+        }
+        List<EnemyBlock> enemies = new ArrayList<>();
+        for (int i = 0; i < enemyCount; i++) {
+            int ex = center + random.nextInt(160) - 80;
+            int ey = center + random.nextInt(160) - 80;
+            if (Math.abs(ex - center) < 20 && Math.abs(ey - center) < 20) {
+                continue;
+            }
+            for (int k = 0; k < 6; k++) {
+                EnemyBlock enemy = new EnemyBlock();
+                enemy.setX(ex + k % 3);
+                enemy.setY(ey + k / 3);
+                enemy.setAttack(k == 0 ? HEAD_ATTACK : BLOCK_ATTACK);
+                enemy.setHealth(k == 0 ? HEAD_HEALTH : BLOCK_HEALTH);
+                enemy.setName("enemy-" + i);
+                enemies.add(enemy);
+            }
+        }
+        return new BattleSimulator(seed, mapSize, center, center, zpots, enemies);
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public int getBaseSize() {
+        return blocks.size();
+    }
+
+    public boolean isGameOver() {
+        return blocks.values().stream().noneMatch(Base::isHead);
+    }
+
+    public StaticWorld staticWorld() {
+        WorldDataResponse world = new WorldDataResponse();
+        world.setRealmName("simulator");
+        world.setZpots(zpots);
+        return new StaticWorld(1, "simulator", world);
+    }
+
+    /**
+     * Состояние хода в формате /units. Объекты новые: скрипты могут менять их как угодно.
+     */
+    public InfoResponse snapshot() {
+        InfoResponse info = new InfoResponse();
+        info.setRealmName("simulator");
+        info.setTurn(turn);
+        info.setTurnEndsInMs(2000);
+        info.setBase(blocks.values().stream()
+                .map(b -> new Base(b.getAttack(), b.getHealth(), b.getId(), b.isHead(), null, b.getRange(), b.getX(), b.getY()))
+                .toArray(Base[]::new));
+        info.setEnemyBlocks(enemyBlocks.values().stream().map(BattleSimulator::copy).toArray(EnemyBlock[]::new));
+        info.setZombies(zombies.stream().map(BattleSimulator::copy).toArray(Zombie[]::new));
+
+        Player copy = new Player();
+        copy.setName(player.getName());
+        copy.setGold(player.getGold());
+        copy.setPoints(player.getPoints());
+        copy.setZombieKills(player.getZombieKills());
+        copy.setEnemyBlockKills(player.getEnemyBlockKills());
+        info.setPlayer(copy);
+        return info;
+    }
+
+    /**
+     * Применяет команды и проигрывает ход.
+     *
+     * @return Ошибки команд в духе ответа сервера.
+     */
+    public List<String> step(PlayRequest request) {
+        List<String> errors = new ArrayList<>();
+        if (request.getAttack() != null) {
+            applyAttacks(request.getAttack(), errors);
+        }
+        if (request.getBuild() != null) {
+            applyBuilds(request.getBuild(), errors);
+        }
+        if (request.getMoveBase() != null) {
+            moveHead(request.getMoveBase().getX(), request.getMoveBase().getY(), errors);
+        }
+        enemyAttacks();
+        moveZombies();
+        spawnZombies();
+        turn++;
+        return errors;
+    }
+
+    private void applyAttacks(List<Attack> attacks, List<String> errors) {
+        Map<String, Base> byId = new HashMap<>();
+        for (Base block : blocks.values()) {
+            byId.put(block.getId(), block);
+        }
+        Set<String> fired = new HashSet<>();
+        for (Attack attack : attacks) {
+            Base block = byId.get(attack.getBlockId());
+            if (block == null || !fired.add(block.getId())) {
+                errors.add("block " + attack.getBlockId() + " can't attack");
+                continue;
+            }
+            int tx = attack.getTarget().getX();
+            int ty = attack.getTarget().getY();
+            long dx = tx - block.getX();
+            long dy = ty - block.getY();
+            if (dx * dx + dy * dy > (long) block.getRange() * block.getRange()) {
+                errors.add("target out of range for block " + block.getId());
+                continue;
+            }
+
+            Iterator<Zombie> iterator = zombies.iterator();
+            while (iterator.hasNext()) {
+                Zombie zombie = iterator.next();
+                if (zombie.getX() == tx && zombie.getY() == ty) {
+                    zombie.setHealth(zombie.getHealth() - block.getAttack());
+                    if (zombie.getHealth() <= 0) {
+                        iterator.remove();
+                        player.setZombieKills(player.getZombieKills() + 1);
+                        player.setGold(player.getGold() + GOLD_PER_ZOMBIE);
+                        player.setPoints(player.getPoints() + GOLD_PER_ZOMBIE);
+                    }
+                }
+            }
+            long key = TargetIndex.pack(tx, ty);
+            EnemyBlock enemy = enemyBlocks.get(key);
+            if (enemy != null) {
+                enemy.setHealth(enemy.getHealth() - block.getAttack());
+                if (enemy.getHealth() <= 0) {
+                    enemyBlocks.remove(key);
+                    player.setEnemyBlockKills(player.getEnemyBlockKills() + 1);
+                    player.setGold(player.getGold() + GOLD_PER_ENEMY_BLOCK);
+                    player.setPoints(player.getPoints() + GOLD_PER_ENEMY_BLOCK);
+                }
+            }
+        }
+    }
+
+    private void applyBuilds(List<Build> builds, List<String> errors) {
+        for (Build build : builds) {
+            int x = build.getX();
+            int y = build.getY();
+            long key = TargetIndex.pack(x, y);
+            if (player.getGold() < BUILD_COST) {
+                errors.add("not enough gold");
+                return;
+            }
+            if (blocks.containsKey(key) || enemyBlocks.containsKey(key) || !isAdjacentToBase(x, y)
+                    || isNearZpot(x, y) || hasZombie(x, y)) {
+                errors.add("can't build at " + x + "," + y);
+                continue;
+            }
+            player.setGold(player.getGold() - BUILD_COST);
+            addBlock(x, y, false);
+        }
+    }
+
+    private void moveHead(int x, int y, List<String> errors) {
+        Base target = blocks.get(TargetIndex.pack(x, y));
+        if (target == null) {
+            errors.add("can't move base to " + x + "," + y);
+            return;
+        }
+        for (Base block : blocks.values()) {
+            if (block.isHead()) {
+                block.setHead(false);
+                block.setAttack(BLOCK_ATTACK);
+                block.setRange(BLOCK_RANGE);
+            }
+        }
+        target.setHead(true);
+        target.setAttack(HEAD_ATTACK);
+        target.setRange(HEAD_RANGE);
+    }
+
+    // Каждый вражеский блок бьёт ближайший наш блок в радиусе
+    private void enemyAttacks() {
+        for (EnemyBlock enemy : enemyBlocks.values()) {
+            Base nearest = null;
+            long best = (long) ENEMY_RANGE * ENEMY_RANGE;
+            for (Base block : blocks.values()) {
+                long dx = block.getX() - enemy.getX();
+                long dy = block.getY() - enemy.getY();
+                long distance = dx * dx + dy * dy;
+                if (distance <= best) {
+                    best = distance;
+                    nearest = block;
+                }
+            }
+            if (nearest != null) {
+                damageBlock(nearest.getX(), nearest.getY(), enemy.getAttack());
+            }
+        }
+    }
+
+    private void moveZombies() {
+        Iterator<Zombie> iterator = zombies.iterator();
+        while (iterator.hasNext()) {
+            Zombie zombie = iterator.next();
+            if (zombie.getWaitTurns() > 1) {
+                zombie.setWaitTurns(zombie.getWaitTurns() - 1);
+                continue;
+            }
+            zombie.setWaitTurns(1);
+            if (!act(zombie) || zombie.getX() < 0 || zombie.getY() < 0 || zombie.getX() >= mapSize || zombie.getY() >= mapSize) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Одно действие зомби.
+     *
+     * @return false, если зомби исчез (взорвался).
+     */
+    private boolean act(Zombie zombie) {
+        int[] direction = direction(zombie.getDirection());
+        String type = zombie.getType();
+
+        if ("chaos_knight".equals(type)) {
+            int side = random.nextBoolean() ? 1 : -1;
+            int nx = zombie.getX() + 2 * direction[0] + side * direction[1];
+            int ny = zombie.getY() + 2 * direction[1] + side * direction[0];
+            if (blocks.containsKey(TargetIndex.pack(nx, ny))) {
+                damageBlock(nx, ny, zombie.getAttack());
+            } else {
+                zombie.setX(nx);
+                zombie.setY(ny);
+            }
+            return true;
+        }
+
+        for (int step = 0; step < Math.max(1, zombie.getSpeed()); step++) {
+            int nx = zombie.getX() + direction[0];
+            int ny = zombie.getY() + direction[1];
+            boolean blocked = blocks.containsKey(TargetIndex.pack(nx, ny));
+            if (blocked && "juggernaut".equals(type)) {
+                damageBlock(nx, ny, zombie.getAttack());
+            } else if (blocked) {
+                switch (type) {
+                    case "bomber" -> {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            for (int dy = -1; dy <= 1; dy++) {
+                                damageBlock(nx + dx, ny + dy, zombie.getAttack());
+                            }
+                        }
+                        return false;
+                    }
+                    case "liner" -> {
+                        int cx = nx;
+                        int cy = ny;
+                        while (blocks.containsKey(TargetIndex.pack(cx, cy))) {
+                            damageBlock(cx, cy, zombie.getAttack());
+                            cx += direction[0];
+                            cy += direction[1];
+                        }
+                    }
+                    default -> damageBlock(nx, ny, zombie.getAttack());
+                }
+                return true;
+            }
+            zombie.setX(nx);
+            zombie.setY(ny);
+        }
+        return true;
+    }
+
+    private void spawnZombies() {
+        for (ZPot zpot : zpots) {
+            if (!"default".equals(zpot.getType()) || random.nextDouble() >= SPAWN_CHANCE) {
+                continue;
+            }
+            Zombie zombie = new Zombie();
+            zombie.setId("z" + nextId++);
+            zombie.setType(ZOMBIE_TYPES[random.nextInt(ZOMBIE_TYPES.length)]);
+            zombie.setDirection(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+            zombie.setX(zpot.getX());
+            zombie.setY(zpot.getY());
+            // Зомби крепнут со временем
+            zombie.setHealth(5 + turn / 10);
+            zombie.setAttack("juggernaut".equals(zombie.getType()) ? 999999 : 10 + turn / 20);
+            zombie.setSpeed("fast".equals(zombie.getType()) ? 2 : 1);
+            zombie.setWaitTurns(1);
+            zombies.add(zombie);
+        }
+    }
+
+    private void damageBlock(int x, int y, int damage) {
+        long key = TargetIndex.pack(x, y);
+        Base block = blocks.get(key);
+        if (block == null) {
+            return;
+        }
+        block.setHealth(block.getHealth() - damage);
+        if (block.getHealth() <= 0) {
+            blocks.remove(key);
+        }
+    }
+
+    private void addBlock(int x, int y, boolean head) {
+        Base block = new Base(head ? HEAD_ATTACK : BLOCK_ATTACK, head ? HEAD_HEALTH : BLOCK_HEALTH,
+                "b" + nextId++, head, null, head ? HEAD_RANGE : BLOCK_RANGE, x, y);
+        blocks.put(TargetIndex.pack(x, y), block);
+    }
+
+    private boolean isAdjacentToBase(int x, int y) {
+        return blocks.containsKey(TargetIndex.pack(x - 1, y)) || blocks.containsKey(TargetIndex.pack(x + 1, y))
+                || blocks.containsKey(TargetIndex.pack(x, y - 1)) || blocks.containsKey(TargetIndex.pack(x, y + 1));
+    }
+
+    private boolean isNearZpot(int x, int y) {
+        for (ZPot zpot : zpots) {
+            if (Math.abs(zpot.getX() - x) + Math.abs(zpot.getY() - y) <= 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasZombie(int x, int y) {
+        for (Zombie zombie : zombies) {
+            if (zombie.getX() == x && zombie.getY() == y) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] direction(String direction) {
+        return switch (direction) {
+            case "up" -> new int[]{0, -1};
+            case "down" -> new int[]{0, 1};
+            case "left" -> new int[]{-1, 0};
+            default -> new int[]{1, 0};
+        };
+    }
+
+    private static EnemyBlock copy(EnemyBlock enemy) {
+        EnemyBlock copy = new EnemyBlock();
+        copy.setX(enemy.getX());
+        copy.setY(enemy.getY());
+        copy.setAttack(enemy.getAttack());
+        copy.setHealth(enemy.getHealth());
+        copy.setName(enemy.getName());
+        return copy;
+    }
+
+    private static Zombie copy(Zombie zombie) {
+        Zombie copy = new Zombie();
+        copy.setId(zombie.getId());
+        copy.setX(zombie.getX());
+        copy.setY(zombie.getY());
+        copy.setType(zombie.getType());
+        copy.setDirection(zombie.getDirection());
+        copy.setHealth(zombie.getHealth());
+        copy.setAttack(zombie.getAttack());
+        copy.setSpeed(zombie.getSpeed());
+        copy.setWaitTurns(zombie.getWaitTurns());
+        return copy;
+    }
+}
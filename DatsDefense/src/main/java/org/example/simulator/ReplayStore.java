@@ -0,0 +1,63 @@
+package org.example.simulator;
+
+import org.example.clients.ApiTransport;
+import org.example.models.mapInfo.InfoResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Запись и чтение последовательности ответов /units: один JSON на ход, имя файла — номер хода.
+ * Запись в живой игре включается свойством -Dzombidef.record.dir=&lt;каталог&gt;.
+ */
+public class ReplayStore {
+
+    private static final Logger logger = Logger.getLogger(ReplayStore.class.getName());
+
+    public static final String RECORD_DIR_PROPERTY = "zombidef.record.dir";
+
+    private final Path directory;
+
+    public ReplayStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Хранилище из системного свойства или null, если запись выключена.
+     */
+    public static ReplayStore fromSystemProperty() {
+        String dir = System.getProperty(RECORD_DIR_PROPERTY);
+        return dir != null ? new ReplayStore(Paths.get(dir)) : null;
+    }
+
+    public void record(InfoResponse infoResponse) {
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(String.format("turn-%06d.json", infoResponse.getTurn()));
+            Files.writeString(file, ApiTransport.write(infoResponse));
+        } catch (IOException e) {
+            logger.warning("Не удалось записать ход " + infoResponse.getTurn() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Все записанные ходы по порядку.
+     */
+    public List<InfoResponse> load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(".json")).sorted().toList();
+        }
+        List<InfoResponse> turns = new ArrayList<>(files.size());
+        for (Path file : files) {
+            turns.add(ApiTransport.read(Files.readString(file), InfoResponse.class));
+        }
+        return turns;
+    }
+}
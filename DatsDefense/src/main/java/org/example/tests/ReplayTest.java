@@ -0,0 +1,58 @@
+package org.example.tests;
+
+import org.example.AutoPlayScript;
+import org.example.models.mapInfo.InfoResponse;
+import org.example.models.play.PlayRequest;
+import org.example.models.worldInfo.StaticWorld;
+import org.example.models.worldInfo.WorldDataResponse;
+import org.example.simulator.ReplayStore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Прогон скриптов по записанным ходам (AutoPlayScript с -Dzombidef.record.dir).
+ * Аргумент: каталог с записью, по умолчанию user.dir/replay. Споты не записываются,
+ * поэтому BuildScript работает без них.
+ */
+public class ReplayTest {
+
+    public static void main(String[] args) throws IOException {
+        String dir = args.length > 0 ? args[0] : System.getProperty("user.dir") + "/replay";
+        List<InfoResponse> turns = new ReplayStore(Paths.get(dir)).load();
+        WorldDataResponse emptyWorld = new WorldDataResponse();
+        emptyWorld.setZpots(List.of());
+        StaticWorld world = new StaticWorld(1, "replay", emptyWorld);
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Logger.getLogger("").setLevel(Level.OFF);
+
+        long totalNanos = 0;
+        long maxNanos = 0;
+        int attacks = 0;
+        int builds = 0;
+        try {
+            for (InfoResponse info : turns) {
+                long start = System.nanoTime();
+                PlayRequest request = AutoPlayScript.planTurn(info, world);
+                long elapsed = System.nanoTime() - start;
+                totalNanos += elapsed;
+                maxNanos = Math.max(maxNanos, elapsed);
+                attacks += request.getAttack().size();
+                builds += request.getBuild().size();
+            }
+        } finally {
+            System.setOut(out);
+        }
+
+        int count = Math.max(1, turns.size());
+        System.out.printf("Ходов: %d, атак: %d, построек: %d%n", turns.size(), attacks, builds);
+        System.out.printf("План: среднее %.3f мс, максимум %.3f мс%n", totalNanos / 1e6 / count, maxNanos / 1e6);
+    }
+}
@@ -0,0 +1,457 @@
+package com.belarus.riga.scripts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Укладка мусора в трюм на битовых масках.
+ * <p>
+ * Трюм — массив long, по одному на строку (бит x — ячейка x), поэтому ширина трюма не больше 64.
+ * Для каждой фигуры заранее строятся её различные повороты (в порядке 0, 90, 180, 270, как в
+ * {@link SpaceGarbageScript#rotateFigure}) и маски строк каждого поворота, уже сдвинутые на
+ * каждый допустимый x. Проверка положения — по одному AND на строку фигуры, укладка и снятие — OR
+ * и AND NOT. Загрузка считается по ходу перебора, а не пересчётом выбранных фигур.
+ * <p>
+ * {@link #load(List)} повторяет перебор {@link SpaceGarbageScript#loadGarbage}: подмножества фигур
+ * по порядку, каждая фигура — в первое подходящее положение (строка, затем столбец).
+ * <p>
+ * {@link #load(List, long)} — поиск с отсечениями по (фигура, поворот, положение): начальный рекорд —
+ * лучшая из жадной укладки и перебора {@link #load(List)}, на который отводится десятая часть
+ * бюджета; ветка отбрасывается, если даже
+ * min(свободные ячейки, размер оставшихся фигур) не улучшит рекорд. Трюм однозначно задаёт загрузку,
+ * поэтому уже виденные состояния (номер фигуры и трюм) по хешу не раскрываются повторно; хеши
+ * хранятся в таблице с открытой адресацией на long[], которая живёт между вызовами (своя у потока).
+ * По истечении бюджета возвращается лучшее найденное.
+ */
+public class GarbagePacker {
+    private static final int[] ANGLES = {0, 90, 180, 270};
+    private static final int DEADLINE_CHECK_MASK = 1023; // Время проверяем раз в 1024 узла
+    private static final int MEMO_LIMIT = 1 << 20;
+    private static final int SEED_BUDGET_SHARE = 10; // Перебору подмножеств — 1/10 бюджета, остальное отсечениям
+    private static final ThreadLocal<Memo> MEMO = ThreadLocal.withInitial(Memo::new);
+
+    private final int width;
+    private final int height;
+    private final long[] rows;
+
+    /**
+     * Поворот фигуры: нормализованные ячейки и маски строк, сдвинутые на каждый допустимый x
+     * (shifted[x][r] — строка r фигуры при левом крае в столбце x).
+     */
+    private record Rotation(List<List<Integer>> cells, int height, long[][] shifted) {
+    }
+
+    private record Figure(String id, int size, Rotation[] rotations) {
+    }
+
+    /**
+     * Положение фигуры в трюме.
+     */
+    private record Placement(int figure, Rotation rotation, int x, int y) {
+    }
+
+    private Figure[] figures;
+    private Placement[] stack;
+    private int depth;
+    private Placement[] best;
+    private int bestCount;
+    private int bestLoad;
+
+    private int free;
+    private int[] remainingSize; // remainingSize[i] — суммарный размер фигур i..n-1
+    private Memo visited;
+    private long deadlineNanos;
+    private long nodes;
+    private boolean expired;
+
+    public GarbagePacker(Integer[][] hold) {
+        this.height = hold.length;
+        this.width = height == 0 ? 0 : hold[0].length;
+        if (width > Long.SIZE) {
+            throw new IllegalArgumentException("Трюм шире " + Long.SIZE + " ячеек: " + width);
+        }
+        this.rows = new long[height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (hold[y][x] != 0) {
+                    rows[y] |= 1L << x;
+                } else {
+                    free++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Лучшая загрузка: id мусора → новые координаты в трюме. Трюм пакера после вызова не меняется.
+     */
+    public Map<String, List<List<Integer>>> load(List<Map.Entry<String, List<List<Integer>>>> sortedPlanetGarbage) {
+        deadlineNanos = Long.MAX_VALUE;
+        prepare(sortedPlanetGarbage);
+        search(0, 0);
+        return bestCombination();
+    }
+
+    /**
+     * Лучшая загрузка, найденная за budgetMillis. Всегда не хуже жадной укладки по порядку фигур;
+     * не хуже {@link #load(List)}, если перебор подмножеств уложился в свою долю бюджета;
+     * оптимальна, если поиск с отсечениями успел закончиться.
+     */
+    public Map<String, List<List<Integer>>> load(List<Map.Entry<String, List<List<Integer>>>> sortedPlanetGarbage, long budgetMillis) {
+        long started = System.nanoTime();
+        long budgetNanos = budgetMillis * 1_000_000L;
+        deadlineNanos = started + budgetNanos / SEED_BUDGET_SHARE;
+        prepare(sortedPlanetGarbage);
+        // Начальный рекорд: жадная укладка, затем перебор подмножеств в пределах своей доли
+        greedy();
+        search(0, 0);
+
+        deadlineNanos = started + budgetNanos;
+        nodes = 0;
+        expired = false;
+
+        remainingSize = new int[figures.length + 1];
+        for (int i = figures.length - 1; i >= 0; i--) {
+            remainingSize[i] = remainingSize[i + 1] + figures[i].size();
+        }
+        visited = MEMO.get();
+        visited.clear();
+        branch(0, 0);
+        visited = null;
+        return bestCombination();
+    }
+
+    private void prepare(List<Map.Entry<String, List<List<Integer>>>> garbage) {
+        figures = new Figure[garbage.size()];
+        for (int i = 0; i < figures.length; i++) {
+            Map.Entry<String, List<List<Integer>>> entry = garbage.get(i);
+            figures[i] = new Figure(entry.getKey(), entry.getValue().size(), rotations(entry.getValue()));
+        }
+        stack = new Placement[figures.length];
+        best = new Placement[figures.length];
+        depth = 0;
+        bestCount = 0;
+        bestLoad = 0;
+        nodes = 0;
+        expired = false;
+    }
+
+    private void search(int from, int load) {
+        if (load > bestLoad) {
+            bestLoad = load;
+            bestCount = depth;
+            System.arraycopy(stack, 0, best, 0, depth);
+        }
+        if (expired()) {
+            return;
+        }
+
+        for (int i = from; i < figures.length; i++) {
+            Placement placement = firstFit(i);
+            if (placement == null) {
+                continue;
+            }
+            place(placement);
+            stack[depth++] = placement;
+            search(i + 1, load + figures[i].size());
+            depth--;
+            remove(placement);
+        }
+    }
+
+    /**
+     * Каждая фигура по порядку — в первое подходящее положение; результат — начальный рекорд.
+     */
+    private void greedy() {
+        int load = 0;
+        for (int i = 0; i < figures.length; i++) {
+            Placement placement = firstFit(i);
+            if (placement != null) {
+                place(placement);
+                stack[depth++] = placement;
+                load += figures[i].size();
+            }
+        }
+        bestLoad = load;
+        bestCount = depth;
+        System.arraycopy(stack, 0, best, 0, depth);
+        while (depth > 0) {
+            remove(stack[--depth]);
+        }
+    }
+
+    /**
+     * Фигура figure: каждое её положение, затем вариант без неё.
+     */
+    private void branch(int figure, int load) {
+        if (load > bestLoad) {
+            bestLoad = load;
+            bestCount = depth;
+            System.arraycopy(stack, 0, best, 0, depth);
+        }
+        if (figure == figures.length || bounded(figure, load) || expired()) {
+            return;
+        }
+        if (visited.size() < MEMO_LIMIT && !visited.add(stateKey(figure))) {
+            return;
+        }
+
+        int size = figures[figure].size();
+        if (size <= free) {
+            for (Rotation rotation : figures[figure].rotations()) {
+                for (int y = 0; y + rotation.height() <= height; y++) {
+                    for (int x = 0; x < rotation.shifted().length; x++) {
+                        if (!fits(rotation, x, y)) {
+                            continue;
+                        }
+                        Placement placement = new Placement(figure, rotation, x, y);
+                        place(placement);
+                        stack[depth++] = placement;
+                        branch(figure + 1, load + size);
+                        depth--;
+                        remove(placement);
+                        // Рекорд мог дорасти до оценки этой ветки
+                        if (expired || bounded(figure, load)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        branch(figure + 1, load);
+    }
+
+    /**
+     * Верхняя оценка: больше, чем свободных ячеек и чем размер оставшихся фигур, не загрузить.
+     */
+    private boolean bounded(int figure, int load) {
+        return load + Math.min(free, remainingSize[figure]) <= bestLoad;
+    }
+
+    private boolean expired() {
+        if (!expired && (++nodes & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadlineNanos) {
+            expired = true;
+        }
+        return expired;
+    }
+
+    private long stateKey(int figure) {
+        long hash = figure;
+        for (long row : rows) {
+            hash = (hash ^ row) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+
+    private Placement firstFit(int figure) {
+        for (Rotation rotation : figures[figure].rotations()) {
+            for (int y = 0; y + rotation.height() <= height; y++) {
+                for (int x = 0; x < rotation.shifted().length; x++) {
+                    if (fits(rotation, x, y)) {
+                        return new Placement(figure, rotation, x, y);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean fits(Rotation rotation, int x, int y) {
+        long[] masks = rotation.shifted()[x];
+        for (int r = 0; r < masks.length; r++) {
+            if ((rows[y + r] & masks[r]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void place(Placement placement) {
+        long[] masks = placement.rotation().shifted()[placement.x()];
+        for (int r = 0; r < masks.length; r++) {
+            rows[placement.y() + r] |= masks[r];
+        }
+        free -= figures[placement.figure()].size();
+    }
+
+    private void remove(Placement placement) {
+        long[] masks = placement.rotation().shifted()[placement.x()];
+        for (int r = 0; r < masks.length; r++) {
+            rows[placement.y() + r] &= ~masks[r];
+        }
+        free += figures[placement.figure()].size();
+    }
+
+    private Map<String, List<List<Integer>>> bestCombination() {
+        Map<String, List<List<Integer>>> combination = new HashMap<>();
+        for (int i = 0; i < bestCount; i++) {
+            Placement placement = best[i];
+            List<List<Integer>> cells = placement.rotation().cells();
+            List<List<Integer>> coordinates = new ArrayList<>(cells.size());
+            for (List<Integer> block : cells) {
+                coordinates.add(Arrays.asList(placement.x() + block.get(0), placement.y() + block.get(1)));
+            }
+            combination.put(figures[placement.figure()].id(), coordinates);
+        }
+        return combination;
+    }
+
+    /**
+     * Различные повороты фигуры, которые помещаются в трюм, в порядке 0, 90, 180, 270.
+     */
+    private Rotation[] rotations(List<List<Integer>> figure) {
+        int size = figure.size();
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = figure.get(i).get(0);
+            ys[i] = figure.get(i).get(1);
+        }
+
+        List<Rotation> rotations = new ArrayList<>(ANGLES.length);
+        int[] rotatedX = new int[size];
+        int[] rotatedY = new int[size];
+        for (int angle : ANGLES) {
+            rotate(xs, ys, angle, rotatedX, rotatedY);
+            Rotation rotation = rotation(rotatedX, rotatedY);
+            // Нормализованные маски однозначно задают форму: совпавший поворот не даёт новых положений
+            if (rotation != null && rotations.stream().noneMatch(other -> Arrays.equals(other.shifted()[0], rotation.shifted()[0]))) {
+                rotations.add(rotation);
+            }
+        }
+        return rotations.toArray(new Rotation[0]);
+    }
+
+    /**
+     * Поворот как в {@link SpaceGarbageScript#rotateFigure}, без нормализации.
+     */
+    private static void rotate(int[] xs, int[] ys, int angle, int[] rotatedX, int[] rotatedY) {
+        for (int i = 0; i < xs.length; i++) {
+            int x = xs[i];
+            int y = ys[i];
+            switch (angle) {
+                case 90 -> {
+                    rotatedX[i] = y;
+                    rotatedY[i] = -x;
+                }
+                case 180 -> {
+                    rotatedX[i] = -x;
+                    rotatedY[i] = -y;
+                }
+                case 270 -> {
+                    rotatedX[i] = -y;
+                    rotatedY[i] = x;
+                }
+                default -> {
+                    rotatedX[i] = x;
+                    rotatedY[i] = y;
+                }
+            }
+        }
+    }
+
+    /**
+     * Нормализованный поворот или null, если он не помещается в трюм.
+     */
+    private Rotation rotation(int[] xs, int[] ys) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        int figureWidth = maxX - minX + 1;
+        int figureHeight = maxY - minY + 1;
+        if (figureWidth > width || figureHeight > height) {
+            return null;
+        }
+        long[] masks = new long[figureHeight];
+        List<List<Integer>> cells = new ArrayList<>(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            masks[ys[i] - minY] |= 1L << (xs[i] - minX);
+            cells.add(List.of(xs[i] - minX, ys[i] - minY));
+        }
+        long[][] shifted = new long[width - figureWidth + 1][];
+        for (int x = 0; x < shifted.length; x++) {
+            shifted[x] = new long[figureHeight];
+            for (int r = 0; r < figureHeight; r++) {
+                shifted[x][r] = masks[r] << x;
+            }
+        }
+        return new Rotation(cells, figureHeight, shifted);
+    }
+
+    /**
+     * Множество хешей состояний: открытая адресация с линейным пробированием на long[].
+     * Массивы не чистятся между вызовами: ячейка занята, только если её поколение текущее.
+     */
+    private static final class Memo {
+        private static final int INITIAL_CAPACITY = 1 << 12;
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private int[] generations = new int[INITIAL_CAPACITY];
+        private int generation;
+        private int size;
+
+        void clear() {
+            size = 0;
+            if (++generation == 0) {
+                // Поколения пошли по второму кругу: старые отметки могли бы совпасть с новыми
+                Arrays.fill(generations, 0);
+                generation = 1;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return false, если ключ уже был.
+         */
+        boolean add(long key) {
+            if (2 * size >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int i = (int) (key ^ key >>> 32) & mask;
+            while (generations[i] == generation) {
+                if (keys[i] == key) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            generations[i] = generation;
+            size++;
+            return true;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldGenerations = generations;
+            keys = new long[oldKeys.length * 2];
+            generations = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldGenerations[j] != generation) {
+                    continue;
+                }
+                int i = (int) (oldKeys[j] ^ oldKeys[j] >>> 32) & mask;
+                while (generations[i] == generation) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                generations[i] = generation;
+            }
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class SpaceGarbageScript {
+    private static final long LOAD_BUDGET_MS = 200; // Поиск загрузки между вызовами collectGarbage
 
     public static Integer[][] parseShipGarbage(Ship ship) {
         Integer[][] cargoSpace = new Integer[ship.getCapacityY()][ship.getCapacityX()];
@@ -66,20 +67,19 @@ public class SpaceGarbageScript {
         Integer[][] shipGarbage = parseShipGarbage(response.getShip());
         print2DArray(shipGarbage);
 
-        Integer[][] shipGarbageCopy = copyArray(shipGarbage);
-
-
         System.out.println();
         List<Map.Entry<String, List<List<Integer>>>> sortedPlanetGarbage = sortPlanetGarbage(response.getShip().getPlanet().getGarbage());
 
-        Map<String, List<List<Integer>>> garbageToLoad = loadGarbage(shipGarbage, sortedPlanetGarbage);
+        Map<String, List<List<Integer>>> garbageToLoad = new GarbagePacker(shipGarbage).load(sortedPlanetGarbage, LOAD_BUDGET_MS);
 
-        printArrayWithNewGarbage(shipGarbageCopy, shipGarbage);
+        Integer[][] loadedGarbage = copyArray(shipGarbage);
+        markGarbage(loadedGarbage, garbageToLoad);
+        printArrayWithNewGarbage(shipGarbage, loadedGarbage);
 
         //printGarbageDetails(garbageToLoad);
 
         if (isValidGarbageLoad(shipGarbage, garbageToLoad, sortedPlanetGarbage.size() == 1)) {
-            print2DArray(shipGarbage);
+            print2DArray(loadedGarbage);
             try {
                 garbageToLoad.putAll(response.getShip().getGarbage());
                 System.out.println("Примерная загрузка: "+garbageToLoad);
@@ -171,7 +171,7 @@ public class SpaceGarbageScript {
                 currentCombination.remove(garbageID);
 
                 // Удаляем фигуру из трюма после просмотра всех возможных комбинаций с ней
-                for (List<Integer> block : figure) {
+                for (List<Integer> block : newCoordinates) {
                     int x = block.get(0);
                     int y = block.get(1);
                     shipGarbage[y][x] = 0;
@@ -194,6 +194,14 @@ public class SpaceGarbageScript {
         }
     }
 
+    public static void markGarbage(Integer[][] cargoSpace, Map<String, List<List<Integer>>> garbage) {
+        for (List<List<Integer>> figure : garbage.values()) {
+            for (List<Integer> block : figure) {
+                cargoSpace[block.get(1)][block.getFirst()] = 1;
+            }
+        }
+    }
+
     public static void print2DArray(Integer[][] array) {
         for (Integer[] row : array) {
             for (Integer item : row) {
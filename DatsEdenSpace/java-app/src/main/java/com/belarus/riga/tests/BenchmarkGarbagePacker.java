@@ -0,0 +1,80 @@
+package com.belarus.riga.tests;
+
+import com.belarus.riga.scripts.GarbagePacker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.belarus.riga.scripts.SpaceGarbageScript.*;
+
+public class BenchmarkGarbagePacker {
+    private static final int WARMUP_ITERATIONS = 5_000;
+    private static final int MEASURE_ITERATIONS = 20_000;
+    private static final long SEARCH_BUDGET_MS = 200;
+
+    private static int sink;
+
+    private static int load(Map<String, List<List<Integer>>> garbage) {
+        int total = 0;
+        for (List<List<Integer>> figure : garbage.values()) {
+            total += figure.size();
+        }
+        return total;
+    }
+
+    private static void benchmark(String name, Supplier<Map<String, List<List<Integer>>>> loader) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += load(loader.get());
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            sink += load(loader.get());
+        }
+        double nanosPerOp = (double) (System.nanoTime() - started) / MEASURE_ITERATIONS;
+        System.out.printf("%-14s %10.0f нс/оп, загружено ячеек: %d%n", name, nanosPerOp, load(loader.get()));
+    }
+
+    public static void main(String[] args) {
+        // Трюм и мусор — как в TestGarbageScript
+        Integer[][] shipGarbage = new Integer[11][8];
+        initializeCargoSpace(shipGarbage);
+
+        List<Map.Entry<String, List<List<Integer>>>> sortedPlanetGarbage = new ArrayList<>();
+        sortedPlanetGarbage.add(Map.entry("6fSWkmU", List.of(List.of(0, 3), List.of(0, 2), List.of(0, 1), List.of(0, 0), List.of(1, 3), List.of(1, 0), List.of(2, 3), List.of(2, 2), List.of(2, 1), List.of(2, 0), List.of(3, 1))));
+        sortedPlanetGarbage.add(Map.entry("6tjTLHP", List.of(List.of(0, 3), List.of(0, 2), List.of(0, 1), List.of(0, 0), List.of(1, 3), List.of(2, 3), List.of(2, 2), List.of(2, 1), List.of(2, 0), List.of(3, 2), List.of(3, 0))));
+
+        // Тот же трюм, больше мусора: перебор подмножеств становится заметнее подготовки
+        List<Map.Entry<String, List<List<Integer>>>> morePlanetGarbage = new ArrayList<>(sortedPlanetGarbage);
+        morePlanetGarbage.add(Map.entry("L5", List.of(List.of(0, 0), List.of(0, 1), List.of(0, 2), List.of(0, 3), List.of(1, 3))));
+        morePlanetGarbage.add(Map.entry("T4", List.of(List.of(0, 0), List.of(1, 0), List.of(2, 0), List.of(1, 1))));
+        morePlanetGarbage.add(Map.entry("S4", List.of(List.of(1, 0), List.of(2, 0), List.of(0, 1), List.of(1, 1))));
+        morePlanetGarbage.add(Map.entry("O4", List.of(List.of(0, 0), List.of(1, 0), List.of(0, 1), List.of(1, 1))));
+        morePlanetGarbage.add(Map.entry("I3", List.of(List.of(0, 0), List.of(0, 1), List.of(0, 2))));
+        morePlanetGarbage.add(Map.entry("J3", List.of(List.of(0, 0), List.of(1, 0), List.of(1, 1))));
+        Map<String, List<List<Integer>>> moreGarbage = new LinkedHashMap<>();
+        for (Map.Entry<String, List<List<Integer>>> entry : morePlanetGarbage) {
+            moreGarbage.put(entry.getKey(), entry.getValue());
+        }
+        morePlanetGarbage = sortPlanetGarbage(moreGarbage);
+
+        for (List<Map.Entry<String, List<List<Integer>>>> garbage : List.of(sortedPlanetGarbage, morePlanetGarbage)) {
+            System.out.println("Трюм 11x8, фигур: " + garbage.size());
+            // Каждый вызов получает свежую копию трюма
+            for (int round = 0; round < 3; round++) {
+                System.out.println("Прогон " + (round + 1) + ":");
+                benchmark("loadGarbage", () -> loadGarbage(copyArray(shipGarbage), garbage));
+                benchmark("GarbagePacker", () -> new GarbagePacker(copyArray(shipGarbage)).load(garbage));
+            }
+
+            long started = System.nanoTime();
+            Map<String, List<List<Integer>>> searched = new GarbagePacker(copyArray(shipGarbage)).load(garbage, SEARCH_BUDGET_MS);
+            System.out.printf("Поиск за %d мс: %.1f мс, загружено ячеек: %d%n",
+                    SEARCH_BUDGET_MS, (System.nanoTime() - started) / 1e6, load(searched));
+        }
+        // Печать суммы не даёт JIT выбросить замеряемые вызовы
+        System.out.println("Контрольная сумма: " + sink);
+    }
+}
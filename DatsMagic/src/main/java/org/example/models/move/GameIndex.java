@@ -0,0 +1,38 @@
+package org.example.models.move;
+
+import lombok.Getter;
+
+/**
+ * Пространственные индексы по всем объектам одного тика.
+ * Создаётся лениво через {@link GameState#getIndex()} и общий для всех скриптов.
+ */
+@Getter
+public class GameIndex {
+
+    private static final double CELL_SIZE = 250.0; // Размер ячейки сетки
+
+    private final SpatialIndex<Enemy> enemies;
+    private final SpatialIndex<Bounty> bounties;
+    private final SpatialIndex<Anomaly> anomalies;
+    private final SpatialIndex<TransportResponse> transports;
+    private final double maxEnemySpeed;
+
+    public GameIndex(GameState gameState) {
+        MapSize mapSize = gameState.getMapSize();
+        this.enemies = SpatialIndex.of(gameState.getEnemies(), Enemy::getX, Enemy::getY, mapSize, CELL_SIZE);
+        this.bounties = SpatialIndex.of(gameState.getBounties(), Bounty::getX, Bounty::getY, mapSize, CELL_SIZE);
+        // Радиус аномалии нужен для isNearAnomaly, поэтому хранится вместе с точкой
+        this.anomalies = SpatialIndex.of(gameState.getAnomalies(), Anomaly::getX, Anomaly::getY, Anomaly::getRadius, mapSize, CELL_SIZE);
+        this.transports = SpatialIndex.of(gameState.getTransports(), TransportResponse::getX, TransportResponse::getY, mapSize, CELL_SIZE);
+
+        double maxSpeed = 0;
+        if (gameState.getEnemies() != null) {
+            for (Enemy enemy : gameState.getEnemies()) {
+                if (enemy.getVelocity() != null) {
+                    maxSpeed = Math.max(maxSpeed, enemy.getVelocity().magnitude());
+                }
+            }
+        }
+        this.maxEnemySpeed = maxSpeed;
+    }
+}
@@ -24,4 +24,14 @@ public class GameState {
     private int transportRadius;
     private List<TransportResponse> transports;
     private List<Wanted> wantedList;
+
+    // Не приходит с сервера, строится по первому запросу в тике
+    private transient GameIndex index;
+
+    public GameIndex getIndex() {
+        if (index == null) {
+            index = new GameIndex(this);
+        }
+        return index;
+    }
 }
@@ -0,0 +1,96 @@
+package org.example.models.move;
+
+/**
+ * Изменяемый вектор-аккумулятор: все операции меняют его на месте и возвращают this.
+ * Один экземпляр переиспользуется в цикле, а в Vector2D переводится только результат.
+ */
+public class MutableVector2D {
+    private double x;
+    private double y;
+
+    public MutableVector2D() {
+    }
+
+    public MutableVector2D(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public MutableVector2D set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public MutableVector2D set(Vector2D other) {
+        return set(other.getX(), other.getY());
+    }
+
+    public MutableVector2D add(double dx, double dy) {
+        x += dx;
+        y += dy;
+        return this;
+    }
+
+    public MutableVector2D subtract(double dx, double dy) {
+        x -= dx;
+        y -= dy;
+        return this;
+    }
+
+    // this += (dx, dy) * scalar
+    public MutableVector2D addScaled(double dx, double dy, double scalar) {
+        x += dx * scalar;
+        y += dy * scalar;
+        return this;
+    }
+
+    public MutableVector2D scale(double scalar) {
+        x *= scalar;
+        y *= scalar;
+        return this;
+    }
+
+    public double magnitude() {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    public double magnitudeSquared() {
+        return x * x + y * y;
+    }
+
+    // Нулевой вектор остаётся нулевым, как в Vector2D.normalize
+    public MutableVector2D normalize() {
+        double mag = magnitude();
+        if (mag == 0) {
+            return set(0, 0);
+        }
+        return scale(1.0 / mag);
+    }
+
+    // Ограничивает длину вектора, направление сохраняется
+    public MutableVector2D clampLength(double maxLength) {
+        double magSquared = magnitudeSquared();
+        if (magSquared > maxLength * maxLength) {
+            scale(maxLength / Math.sqrt(magSquared));
+        }
+        return this;
+    }
+
+    public Vector2D toVector2D() {
+        return new Vector2D(x, y);
+    }
+
+    @Override
+    public String toString() {
+        return "MutableVector2D(x=" + x + ", y=" + y + ")";
+    }
+}
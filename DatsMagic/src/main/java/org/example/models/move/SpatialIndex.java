@@ -0,0 +1,302 @@
+package org.example.models.move;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Равномерная сетка поверх карты для быстрых запросов «кто рядом».
+ * Строится один раз за тик, дальше запросы по радиусу и поиск ближайшего
+ * проверяют только соседние ячейки, а не весь список объектов.
+ * <p>
+ * У каждого объекта может быть свой радиус (например, радиус аномалии):
+ * объект попадает в запрос, если его круг пересекается с кругом запроса.
+ * Объекты за пределами карты (аномалии бывают с отрицательными координатами)
+ * прижимаются к крайним ячейкам, расстояние всё равно считается точно.
+ */
+public class SpatialIndex<T> {
+
+    private final List<T> items;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] radii;
+    private final double maxItemRadius;
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    // CSR-раскладка: объекты ячейки c лежат в order[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellStart;
+    private final int[] order;
+
+    private SpatialIndex(List<T> items, double[] xs, double[] ys, double[] radii, MapSize mapSize, double cellSize) {
+        this.items = items;
+        this.xs = xs;
+        this.ys = ys;
+        this.radii = radii;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(mapSize.getX() / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(mapSize.getY() / cellSize));
+
+        double maxRadius = 0;
+        for (double r : radii) {
+            maxRadius = Math.max(maxRadius, r);
+        }
+        this.maxItemRadius = maxRadius;
+
+        int n = items.size();
+        int[] cellOf = new int[n];
+        cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = cellIndex(column(xs[i]), row(ys[i]));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        order = new int[n];
+        int[] fill = Arrays.copyOf(cellStart, cellStart.length - 1);
+        for (int i = 0; i < n; i++) {
+            order[fill[cellOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Индекс точечных объектов.
+     */
+    public static <T> SpatialIndex<T> of(List<T> items, ToDoubleFunction<T> x, ToDoubleFunction<T> y,
+                                         MapSize mapSize, double cellSize) {
+        return of(items, x, y, item -> 0.0, mapSize, cellSize);
+    }
+
+    /**
+     * Индекс объектов с собственным радиусом.
+     */
+    public static <T> SpatialIndex<T> of(List<T> items, ToDoubleFunction<T> x, ToDoubleFunction<T> y,
+                                         ToDoubleFunction<T> radius, MapSize mapSize, double cellSize) {
+        List<T> source = items != null ? items : List.of();
+        int n = source.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] radii = new double[n];
+        for (int i = 0; i < n; i++) {
+            T item = source.get(i);
+            xs[i] = x.applyAsDouble(item);
+            ys[i] = y.applyAsDouble(item);
+            radii[i] = Math.max(0, radius.applyAsDouble(item));
+        }
+        return new SpatialIndex<>(source, xs, ys, radii, mapSize, cellSize);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    /**
+     * Обходит объекты, чей круг пересекается с кругом (x, y, radius).
+     * Порядок обхода — по ячейкам, не по исходному списку.
+     */
+    public void forEachInRadius(double x, double y, double radius, Consumer<T> action) {
+        double reach = radius + maxItemRadius;
+        int minColumn = column(x - reach);
+        int maxColumn = column(x + reach);
+        int minRow = row(y - reach);
+        int maxRow = row(y + reach);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                int cell = cellIndex(c, r);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = order[k];
+                    if (intersects(i, x, y, radius)) {
+                        action.accept(items.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Объекты в радиусе в том же порядке, что и в исходном списке,
+     * поэтому индекс можно подставить вместо линейного прохода без изменения логики.
+     */
+    public List<T> queryRadius(double x, double y, double radius) {
+        int[] hits = new int[8];
+        int count = 0;
+        double reach = radius + maxItemRadius;
+        int minColumn = column(x - reach);
+        int maxColumn = column(x + reach);
+        int minRow = row(y - reach);
+        int maxRow = row(y + reach);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                int cell = cellIndex(c, r);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = order[k];
+                    if (intersects(i, x, y, radius)) {
+                        if (count == hits.length) {
+                            hits = Arrays.copyOf(hits, count * 2);
+                        }
+                        hits[count++] = i;
+                    }
+                }
+            }
+        }
+        Arrays.sort(hits, 0, count);
+        List<T> result = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            result.add(items.get(hits[k]));
+        }
+        return result;
+    }
+
+    /**
+     * Записывает в out индексы (в исходном списке) объектов в радиусе, без создания объектов.
+     * Если объектов больше, чем out.length, лишние отбрасываются.
+     *
+     * @return сколько индексов записано
+     */
+    public int indicesInRadius(double x, double y, double radius, int[] out) {
+        int count = 0;
+        double reach = radius + maxItemRadius;
+        int minColumn = column(x - reach);
+        int maxColumn = column(x + reach);
+        int minRow = row(y - reach);
+        int maxRow = row(y + reach);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                int cell = cellIndex(c, r);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = order[k];
+                    if (intersects(i, x, y, radius)) {
+                        if (count == out.length) {
+                            return count;
+                        }
+                        out[count++] = i;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    public int countInRadius(double x, double y, double radius) {
+        return countInRadius(x, y, radius, item -> true);
+    }
+
+    public int countInRadius(double x, double y, double radius, Predicate<T> filter) {
+        int count = 0;
+        double reach = radius + maxItemRadius;
+        int minColumn = column(x - reach);
+        int maxColumn = column(x + reach);
+        int minRow = row(y - reach);
+        int maxRow = row(y + reach);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                int cell = cellIndex(c, r);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = order[k];
+                    if (intersects(i, x, y, radius) && filter.test(items.get(i))) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    public boolean anyInRadius(double x, double y, double radius) {
+        return anyInRadius(x, y, radius, item -> true);
+    }
+
+    public boolean anyInRadius(double x, double y, double radius, Predicate<T> filter) {
+        double reach = radius + maxItemRadius;
+        int minColumn = column(x - reach);
+        int maxColumn = column(x + reach);
+        int minRow = row(y - reach);
+        int maxRow = row(y + reach);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                int cell = cellIndex(c, r);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = order[k];
+                    if (intersects(i, x, y, radius) && filter.test(items.get(i))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ближайший к точке объект (по центру) не дальше maxDistance, или null.
+     * Ячейки обходятся кольцами, поиск останавливается, как только
+     * следующее кольцо заведомо дальше найденного объекта.
+     */
+    public T nearest(double x, double y, double maxDistance) {
+        if (items.isEmpty()) {
+            return null;
+        }
+        int centerColumn = column(x);
+        int centerRow = row(y);
+        int maxRing = Math.max(columns, rows);
+        double bestDistanceSquared = maxDistance * maxDistance;
+        int best = -1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Ближайшая точка кольца не ближе (ring - 1) ячеек от запроса
+            double ringDistance = Math.max(0, ring - 1) * cellSize;
+            if (ringDistance * ringDistance > bestDistanceSquared) {
+                break;
+            }
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                if (r < 0 || r >= rows) continue;
+                boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                for (int c = centerColumn - ring; c <= centerColumn + ring; c++) {
+                    if (c < 0 || c >= columns) continue;
+                    if (!edgeRow && c != centerColumn - ring && c != centerColumn + ring) continue;
+                    int cell = cellIndex(c, r);
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int i = order[k];
+                        double dx = xs[i] - x;
+                        double dy = ys[i] - y;
+                        double distanceSquared = dx * dx + dy * dy;
+                        if (distanceSquared <= bestDistanceSquared && (best < 0 || distanceSquared < bestDistanceSquared || i < best)) {
+                            bestDistanceSquared = distanceSquared;
+                            best = i;
+                        }
+                    }
+                }
+            }
+        }
+        return best >= 0 ? items.get(best) : null;
+    }
+
+    private boolean intersects(int i, double x, double y, double radius) {
+        double dx = xs[i] - x;
+        double dy = ys[i] - y;
+        double reach = radius + radii[i];
+        return dx * dx + dy * dy <= reach * reach;
+    }
+
+    private int column(double x) {
+        int c = (int) Math.floor(x / cellSize);
+        return c < 0 ? 0 : Math.min(c, columns - 1);
+    }
+
+    private int row(double y) {
+        int r = (int) Math.floor(y / cellSize);
+        return r < 0 ? 0 : Math.min(r, rows - 1);
+    }
+
+    private int cellIndex(int column, int row) {
+        return row * columns + column;
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.models.move;
+
+import java.util.List;
+
+/**
+ * Численный интегратор движения ковра на несколько шагов вперёд.
+ * <p>
+ * Учитывает собственное ускорение (ограничено maxAccel), ограничение скорости maxSpeed
+ * и поле всех аномалий. Ускорение от аномалии: strength² / d², к центру при strength > 0
+ * и от центра при strength < 0, действует в пределах effectiveRadius
+ * (сверено с anomalyAcceleration из ответа сервера). Аномалии движутся со своей скоростью.
+ * <p>
+ * Снимок аномалий хранится в примитивных массивах и не меняется после создания,
+ * поэтому один экземпляр можно использовать из нескольких потоков.
+ * Состояние ковра — массив {x, y, vx, vy}, который шаг изменяет на месте.
+ */
+public class TrajectorySimulator {
+
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int VX = 2;
+    public static final int VY = 3;
+
+    private final double dt;
+    private final double maxSpeed;
+    private final double maxAccel;
+    private final double transportRadius;
+    private final double mapWidth;
+    private final double mapHeight;
+
+    private final int anomalyCount;
+    private final double[] anomalyX;
+    private final double[] anomalyY;
+    private final double[] anomalyVx;
+    private final double[] anomalyVy;
+    private final double[] anomalyStrengthSquared;
+    private final double[] anomalySign;
+    private final double[] effectiveRadiusSquared;
+    private final double[] deadlyRadiusSquared;
+
+    public TrajectorySimulator(GameState gameState, double dt) {
+        this.dt = dt;
+        this.maxSpeed = gameState.getMaxSpeed();
+        this.maxAccel = gameState.getMaxAccel();
+        this.transportRadius = gameState.getTransportRadius();
+        this.mapWidth = gameState.getMapSize().getX();
+        this.mapHeight = gameState.getMapSize().getY();
+
+        List<Anomaly> anomalies = gameState.getAnomalies() != null ? gameState.getAnomalies() : List.of();
+        this.anomalyCount = anomalies.size();
+        this.anomalyX = new double[anomalyCount];
+        this.anomalyY = new double[anomalyCount];
+        this.anomalyVx = new double[anomalyCount];
+        this.anomalyVy = new double[anomalyCount];
+        this.anomalyStrengthSquared = new double[anomalyCount];
+        this.anomalySign = new double[anomalyCount];
+        this.effectiveRadiusSquared = new double[anomalyCount];
+        this.deadlyRadiusSquared = new double[anomalyCount];
+        for (int i = 0; i < anomalyCount; i++) {
+            Anomaly anomaly = anomalies.get(i);
+            anomalyX[i] = anomaly.getX();
+            anomalyY[i] = anomaly.getY();
+            if (anomaly.getVelocity() != null) {
+                anomalyVx[i] = anomaly.getVelocity().getX();
+                anomalyVy[i] = anomaly.getVelocity().getY();
+            }
+            anomalyStrengthSquared[i] = anomaly.getStrength() * anomaly.getStrength();
+            anomalySign[i] = Math.signum(anomaly.getStrength());
+            effectiveRadiusSquared[i] = anomaly.getEffectiveRadius() * anomaly.getEffectiveRadius();
+            double deadly = anomaly.getRadius() + transportRadius;
+            deadlyRadiusSquared[i] = deadly * deadly;
+        }
+    }
+
+    public double getDt() {
+        return dt;
+    }
+
+    public double getMaxAccel() {
+        return maxAccel;
+    }
+
+    /**
+     * Записывает в state начальное состояние ковра.
+     */
+    public static void load(TransportResponse transport, double[] state) {
+        state[X] = transport.getX();
+        state[Y] = transport.getY();
+        state[VX] = transport.getVelocity() != null ? transport.getVelocity().getX() : 0;
+        state[VY] = transport.getVelocity() != null ? transport.getVelocity().getY() : 0;
+    }
+
+    /**
+     * Один шаг интегрирования (полунеявный Эйлер: сначала скорость, затем позиция).
+     *
+     * @param state  {x, y, vx, vy}, изменяется на месте
+     * @param selfAx собственное ускорение по X (ограничивается maxAccel)
+     * @param selfAy собственное ускорение по Y
+     * @param time   время от начала прогноза, нужно для положения аномалий
+     */
+    public void step(double[] state, double selfAx, double selfAy, double time) {
+        double selfSquared = selfAx * selfAx + selfAy * selfAy;
+        if (selfSquared > maxAccel * maxAccel) {
+            double k = maxAccel / Math.sqrt(selfSquared);
+            selfAx *= k;
+            selfAy *= k;
+        }
+
+        double ax = selfAx;
+        double ay = selfAy;
+        double x = state[X];
+        double y = state[Y];
+        for (int i = 0; i < anomalyCount; i++) {
+            double dx = anomalyX[i] + anomalyVx[i] * time - x;
+            double dy = anomalyY[i] + anomalyVy[i] * time - y;
+            double distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared == 0 || distanceSquared > effectiveRadiusSquared[i]) {
+                continue;
+            }
+            // |a| = strength² / d², направление (dx, dy) / d
+            double k = anomalySign[i] * anomalyStrengthSquared[i] / (distanceSquared * Math.sqrt(distanceSquared));
+            ax += dx * k;
+            ay += dy * k;
+        }
+
+        double vx = state[VX] + ax * dt;
+        double vy = state[VY] + ay * dt;
+        double speedSquared = vx * vx + vy * vy;
+        if (speedSquared > maxSpeed * maxSpeed) {
+            double k = maxSpeed / Math.sqrt(speedSquared);
+            vx *= k;
+            vy *= k;
+        }
+        state[VX] = vx;
+        state[VY] = vy;
+        state[X] = x + vx * dt;
+        state[Y] = y + vy * dt;
+    }
+
+    /**
+     * Ковёр в точке (x, y) в момент time вылетел за карту или попал в ядро аномалии.
+     */
+    public boolean isFatal(double x, double y, double time) {
+        if (x < 0 || y < 0 || x > mapWidth || y > mapHeight) {
+            return true;
+        }
+        for (int i = 0; i < anomalyCount; i++) {
+            double dx = anomalyX[i] + anomalyVx[i] * time - x;
+            double dy = anomalyY[i] + anomalyVy[i] * time - y;
+            if (dx * dx + dy * dy <= deadlyRadiusSquared[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.models.move;
+
+/**
+ * Векторная математика на примитивах double без создания объектов.
+ * Для горячих циклов скриптов вместо цепочек Vector2D.add/subtract/scale,
+ * где каждая операция создаёт новый Vector2D.
+ */
+public final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    public static double lengthSquared(double x, double y) {
+        return x * x + y * y;
+    }
+
+    public static double length(double x, double y) {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    public static double distanceSquared(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return dx * dx + dy * dy;
+    }
+
+    public static double distance(double x1, double y1, double x2, double y2) {
+        return Math.sqrt(distanceSquared(x1, y1, x2, y2));
+    }
+
+    /**
+     * Точки не дальше radius друг от друга (сравнение квадратов, без sqrt).
+     */
+    public static boolean withinRadius(double x1, double y1, double x2, double y2, double radius) {
+        return distanceSquared(x1, y1, x2, y2) <= radius * radius;
+    }
+
+    public static double dot(double x1, double y1, double x2, double y2) {
+        return x1 * x2 + y1 * y2;
+    }
+}
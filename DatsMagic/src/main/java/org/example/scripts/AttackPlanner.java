@@ -0,0 +1,309 @@
+package org.example.scripts;
+
+import org.example.POST.Attack;
+import org.example.models.move.Enemy;
+import org.example.models.move.GameState;
+import org.example.models.move.SpatialIndex;
+import org.example.models.move.TransportResponse;
+import org.example.models.move.Wanted;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Совместный выбор точек взрыва для всех наших ковров.
+ * <p>
+ * Кандидаты в центры взрыва для стрелка: позиции врагов в досягаемости, проекции
+ * дальних врагов на окружность дальности и точки пересечения окружностей радиуса
+ * взрыва вокруг пар врагов (такая точка задевает обоих). Все расстояния считаются
+ * в квадратах по примитивным массивам.
+ * <p>
+ * Ценность попадания: нанесённый урон, бонус за добивание (killBounty),
+ * множитель для врагов из wantedList; враги под щитом не стоят ничего.
+ * Стрелки назначаются жадно: на каждом шаге берётся пара (ковёр, точка) с максимальной
+ * ценностью, после чего урон вычитается из остатка здоровья задетых врагов,
+ * поэтому второй ковёр не стреляет в уже добитого.
+ * <p>
+ * Если рядом со стрелком (дальность + радиус взрыва) есть почти добитый враг под щитом,
+ * стрелок ждёт конца щита и стреляет только выстрелом, который добивает другого
+ * почти добитого врага, как и раньше в ShootScript.
+ */
+public class AttackPlanner {
+
+    private static final double DAMAGE_WEIGHT = 1.0; // Очков за единицу урона
+    private static final double KILL_WEIGHT = 50.0; // Бонус за добивание сверх killBounty
+    private static final double WANTED_MULTIPLIER = 2.0;
+    private static final double EXPLOSION_MARGIN = 5.0; // Запас на округление и движение врага
+    private static final double RANGE_MARGIN = 1.0; // Запас на округление координат атаки
+    private static final double WANTED_MATCH_DISTANCE = 1.0;
+    private static final int MAX_LOCAL_ENEMIES = 128;
+    private static final int LOW_HEALTH = 30; // Враг добивается одним выстрелом
+
+    private final SpatialIndex<Enemy> enemyIndex;
+    private final int damage;
+    private final double explosionRadius;
+    private final double explosionRadiusSquared;
+    private final double attackRange;
+    private final double holdRange;
+
+    private final double[] enemyX;
+    private final double[] enemyY;
+    private final int[] remainingHealth;
+    private final boolean[] shielded;
+    private final boolean[] alive;
+    private final int[] killBounty;
+    private final boolean[] wanted;
+
+    // Рабочие массивы
+    private final int[] local = new int[MAX_LOCAL_ENEMIES];
+    private final int[] nearby = new int[MAX_LOCAL_ENEMIES];
+    private double[] candidateX = new double[64];
+    private double[] candidateY = new double[64];
+
+    public AttackPlanner(GameState gameState) {
+        this.enemyIndex = gameState.getIndex().getEnemies();
+        this.damage = gameState.getAttackDamage();
+        this.explosionRadius = Math.max(0, gameState.getAttackExplosionRadius() - EXPLOSION_MARGIN);
+        this.explosionRadiusSquared = explosionRadius * explosionRadius;
+        this.attackRange = Math.max(0, gameState.getAttackRange() - RANGE_MARGIN);
+        this.holdRange = gameState.getAttackRange() + gameState.getAttackExplosionRadius();
+
+        List<Enemy> enemies = gameState.getEnemies() != null ? gameState.getEnemies() : List.of();
+        int n = enemies.size();
+        enemyX = new double[n];
+        enemyY = new double[n];
+        remainingHealth = new int[n];
+        shielded = new boolean[n];
+        alive = new boolean[n];
+        killBounty = new int[n];
+        wanted = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Enemy enemy = enemies.get(i);
+            enemyX[i] = enemy.getX();
+            enemyY[i] = enemy.getY();
+            remainingHealth[i] = enemy.getHealth();
+            shielded[i] = enemy.getShieldLeftMs() > 0;
+            alive[i] = !"dead".equals(enemy.getStatus()) && enemy.getHealth() > 0;
+            killBounty[i] = enemy.getKillBounty();
+        }
+
+        List<Wanted> wantedList = gameState.getWantedList() != null ? gameState.getWantedList() : List.of();
+        for (Wanted target : wantedList) {
+            int count = enemyIndex.indicesInRadius(target.getX(), target.getY(), WANTED_MATCH_DISTANCE, local);
+            for (int k = 0; k < count; k++) {
+                wanted[local[k]] = true;
+            }
+        }
+    }
+
+    /**
+     * Назначает атаки стрелкам.
+     *
+     * @param shooters Ковры, которые могут стрелять в этом тике.
+     * @return Атака по id ковра (только для тех, кому нашлась цель).
+     */
+    public Map<String, Attack> assign(List<TransportResponse> shooters) {
+        Map<String, Attack> result = new HashMap<>();
+        boolean[] assigned = new boolean[shooters.size()];
+
+        while (true) {
+            int bestShooter = -1;
+            double bestValue = 0;
+            double bestX = 0;
+            double bestY = 0;
+
+            for (int s = 0; s < shooters.size(); s++) {
+                if (assigned[s]) {
+                    continue;
+                }
+                TransportResponse shooter = shooters.get(s);
+                int localCount = collectLocalEnemies(shooter);
+                boolean holdFire = hasShieldedLowHealthNearby(shooter);
+                int candidates = generateCandidates(shooter, localCount);
+                for (int c = 0; c < candidates; c++) {
+                    if (holdFire && !finishesLowHealth(candidateX[c], candidateY[c], localCount)) {
+                        continue;
+                    }
+                    double value = blastValue(candidateX[c], candidateY[c], localCount);
+                    if (value > bestValue) {
+                        bestValue = value;
+                        bestShooter = s;
+                        bestX = candidateX[c];
+                        bestY = candidateY[c];
+                    }
+                }
+            }
+
+            if (bestShooter < 0) {
+                break;
+            }
+
+            assigned[bestShooter] = true;
+            TransportResponse shooter = shooters.get(bestShooter);
+            Attack attack = new Attack((int) Math.round(bestX), (int) Math.round(bestY));
+            result.put(shooter.getId(), attack);
+            applyBlast(attack.getX(), attack.getY(), collectLocalEnemies(shooter));
+        }
+
+        return result;
+    }
+
+    /**
+     * Враги, которых стрелок может задеть хоть каким-то взрывом, в local[0..count).
+     */
+    private int collectLocalEnemies(TransportResponse shooter) {
+        return enemyIndex.indicesInRadius(shooter.getX(), shooter.getY(), attackRange + explosionRadius, local);
+    }
+
+    private int generateCandidates(TransportResponse shooter, int localCount) {
+        double sx = shooter.getX();
+        double sy = shooter.getY();
+        double rangeSquared = attackRange * attackRange;
+        int count = 0;
+
+        for (int a = 0; a < localCount; a++) {
+            int i = local[a];
+            if (!isTarget(i)) {
+                continue;
+            }
+            double dx = enemyX[i] - sx;
+            double dy = enemyY[i] - sy;
+            double distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared <= rangeSquared) {
+                count = addCandidate(count, enemyX[i], enemyY[i]);
+            } else {
+                // Ближайшая к врагу точка на окружности дальности
+                double k = attackRange / Math.sqrt(distanceSquared);
+                count = addCandidate(count, sx + dx * k, sy + dy * k);
+            }
+
+            for (int b = a + 1; b < localCount; b++) {
+                int j = local[b];
+                if (!isTarget(j)) {
+                    continue;
+                }
+                count = addPairCandidates(count, i, j);
+            }
+        }
+
+        // Оставляем только точки в пределах дальности
+        int kept = 0;
+        for (int c = 0; c < count; c++) {
+            double dx = candidateX[c] - sx;
+            double dy = candidateY[c] - sy;
+            if (dx * dx + dy * dy <= rangeSquared) {
+                candidateX[kept] = candidateX[c];
+                candidateY[kept] = candidateY[c];
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Середина пары и точки пересечения окружностей радиуса взрыва вокруг врагов i и j.
+     */
+    private int addPairCandidates(int count, int i, int j) {
+        double dx = enemyX[j] - enemyX[i];
+        double dy = enemyY[j] - enemyY[i];
+        double distanceSquared = dx * dx + dy * dy;
+        if (distanceSquared > 4 * explosionRadiusSquared) {
+            return count;
+        }
+        double midX = (enemyX[i] + enemyX[j]) / 2;
+        double midY = (enemyY[i] + enemyY[j]) / 2;
+        count = addCandidate(count, midX, midY);
+        if (distanceSquared == 0) {
+            return count;
+        }
+        // Смещение от середины по перпендикуляру: h² = R² - (d/2)²
+        double h = Math.sqrt(Math.max(0, explosionRadiusSquared - distanceSquared / 4));
+        double k = h / Math.sqrt(distanceSquared);
+        count = addCandidate(count, midX - dy * k, midY + dx * k);
+        return addCandidate(count, midX + dy * k, midY - dx * k);
+    }
+
+    private int addCandidate(int count, double x, double y) {
+        if (count == candidateX.length) {
+            candidateX = Arrays.copyOf(candidateX, count * 2);
+            candidateY = Arrays.copyOf(candidateY, count * 2);
+        }
+        candidateX[count] = x;
+        candidateY[count] = y;
+        return count + 1;
+    }
+
+    private double blastValue(double x, double y, int localCount) {
+        double value = 0;
+        for (int a = 0; a < localCount; a++) {
+            int i = local[a];
+            if (!isTarget(i)) {
+                continue;
+            }
+            double dx = enemyX[i] - x;
+            double dy = enemyY[i] - y;
+            if (dx * dx + dy * dy > explosionRadiusSquared) {
+                continue;
+            }
+            int health = remainingHealth[i];
+            double hitValue = Math.min(damage, health) * DAMAGE_WEIGHT;
+            if (damage >= health) {
+                hitValue += KILL_WEIGHT + killBounty[i];
+            }
+            if (wanted[i]) {
+                hitValue *= WANTED_MULTIPLIER;
+            }
+            value += hitValue;
+        }
+        return value;
+    }
+
+    private void applyBlast(double x, double y, int localCount) {
+        for (int a = 0; a < localCount; a++) {
+            int i = local[a];
+            if (!isTarget(i)) {
+                continue;
+            }
+            double dx = enemyX[i] - x;
+            double dy = enemyY[i] - y;
+            if (dx * dx + dy * dy <= explosionRadiusSquared) {
+                remainingHealth[i] -= damage;
+            }
+        }
+    }
+
+    // Почти добитый враг под щитом в пределах дальности и взрыва: выстрел сейчас уйдёт в щит
+    private boolean hasShieldedLowHealthNearby(TransportResponse shooter) {
+        int count = enemyIndex.indicesInRadius(shooter.getX(), shooter.getY(), holdRange, nearby);
+        for (int a = 0; a < count; a++) {
+            int i = nearby[a];
+            if (alive[i] && shielded[i] && remainingHealth[i] <= LOW_HEALTH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Взрыв в (x, y) добивает хотя бы одного почти добитого врага без щита
+    private boolean finishesLowHealth(double x, double y, int localCount) {
+        for (int a = 0; a < localCount; a++) {
+            int i = local[a];
+            if (!isTarget(i) || remainingHealth[i] > LOW_HEALTH || remainingHealth[i] > damage) {
+                continue;
+            }
+            double dx = enemyX[i] - x;
+            double dy = enemyY[i] - y;
+            if (dx * dx + dy * dy <= explosionRadiusSquared) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Живой, без щита и ещё не добит запланированными выстрелами
+    private boolean isTarget(int i) {
+        return alive[i] && !shielded[i] && remainingHealth[i] > 0;
+    }
+}
@@ -3,7 +3,8 @@ package org.example.scripts;
 import org.example.models.move.*;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -29,71 +30,32 @@ public class MoveScript {
                 "Desired Acceleration");
         System.out.println("------------------------------------------------------------------------------------------------------------");
 
-        // Для каждого ковра
-        for (TransportResponse transport : gameState.getTransports()) {
-            if (!"alive".equals(transport.getStatus())) {
-                continue; // Пропускаем уничтоженные ковры
-            }
+        // Индекс строится лениво и не потокобезопасно, поэтому создаём его до параллельной части
+        gameState.getIndex();
+        TrajectoryPlanner trajectoryPlanner = new TrajectoryPlanner(gameState);
 
-            // Проверяем, не находимся ли слишком близко к границе карты
-            if (isNearBoundary(transport, gameState)) {
-                // Если ковёр слишком близко к границе, поворачиваем его к центру карты
-                Vector2D desiredAcceleration = calculateAccelerationTowardsCenter(transport, gameState.getMaxAccel());
-                TransportAction command = createTransportCommand(transport, desiredAcceleration);
-                commands.add(command);
-                continue; // Переходим к следующему ковру
-            }
+        // Ковры планируются независимо, поэтому считаем их параллельно, порядок сохраняется
+        List<TransportPlan> plans = gameState.getTransports().parallelStream()
+                .filter(transport -> "alive".equals(transport.getStatus())) // Пропускаем уничтоженные ковры
+                .map(transport -> planTransport(transport, gameState, trajectoryPlanner))
+                .toList();
 
-            // Проверяем возможные столкновения с врагами через 2 секунды
-            if (willCollideWithEnemies(transport, gameState)) {
-                // Избегаем столкновения с врагами
-                Vector2D avoidanceAcceleration = calculateAvoidanceFromEnemies(transport, gameState);
-                TransportAction command = createTransportCommand(transport, avoidanceAcceleration);
-                commands.add(command);
-                continue; // Переходим к следующему ковру
-            }
+        for (TransportPlan plan : plans) {
+            commands.add(plan.command());
 
-            // Построение маршрута для сбора всех возможных баунти
-            List<Bounty> route = buildGreedyRoute(transport, gameState);
-
-            Vector2D targetPosition;
-            if (!route.isEmpty()) {
-                // Если есть баунти на маршруте, выбираем ближайший
-                targetPosition = route.get(0).getPosition(); // Первая цель на маршруте
-            } else {
-                // Если баунти нет, целевая позиция — точка 5000:5000
-                targetPosition = TARGET_POINT;
+            if (plan.targetPosition() == null) {
+                continue;
             }
 
-            // Используем текущее ускорение из TransportResponse
-            Vector2D selfAcceleration = transport.getSelfAcceleration();
-
-            // Вычисляем желаемое ускорение в направлении цели с учётом максимальной скорости и ускорения
-            Vector2D desiredAcceleration = calculateDesiredAcceleration(
-                    transport,
-                    targetPosition,
-                    transport.getAnomalyAcceleration(),
-                    gameState.getMaxAccel()
-            );
-
-            // Проверяем, не приведет ли желаемое ускорение к столкновению
-            if (willCollide(transport, desiredAcceleration, gameState)) {
-                // Если столкновение возможно, корректируем ускорение
-                desiredAcceleration = calculateSafeAcceleration(transport, targetPosition, transport.getAnomalyAcceleration(), gameState);
-            }
-
-            // Создаем команду для ковра
-            TransportAction command = createTransportCommand(transport, desiredAcceleration);
-            commands.add(command);
-
             // Выводим информацию о текущем транспортном средстве в виде строки таблицы
+            TransportResponse transport = plan.transport();
             System.out.printf("%-10s %-25s %-25s %-25s %-25s %-25s\n",
                     transport.getId(),
                     formatVector(transport.getPosition()),
                     formatVector(transport.getVelocity()),
-                    formatVector(selfAcceleration),
-                    formatVector(targetPosition),
-                    formatVector(desiredAcceleration)
+                    formatVector(transport.getSelfAcceleration()),
+                    formatVector(plan.targetPosition()),
+                    formatVector(plan.command().getAcceleration())
             );
         }
 
@@ -103,24 +65,76 @@ public class MoveScript {
         return response;
     }
 
+    /**
+     * Команда для одного ковра и цель, к которой он летит (null — манёвр уклонения).
+     */
+    private record TransportPlan(TransportResponse transport, TransportAction command, Vector2D targetPosition) {
+    }
+
+    private TransportPlan planTransport(TransportResponse transport, GameState gameState, TrajectoryPlanner trajectoryPlanner) {
+        // Проверяем, не находимся ли слишком близко к границе карты
+        if (isNearBoundary(transport, gameState)) {
+            // Если ковёр слишком близко к границе, поворачиваем его к центру карты
+            Vector2D desiredAcceleration = calculateAccelerationTowardsCenter(transport, gameState.getMaxAccel());
+            return new TransportPlan(transport, createTransportCommand(transport, desiredAcceleration), null);
+        }
+
+        // Проверяем возможные столкновения с врагами через 2 секунды
+        if (willCollideWithEnemies(transport, gameState)) {
+            // Избегаем столкновения с врагами
+            Vector2D avoidanceAcceleration = calculateAvoidanceFromEnemies(transport, gameState);
+            return new TransportPlan(transport, createTransportCommand(transport, avoidanceAcceleration), null);
+        }
+
+        // Построение маршрута для сбора всех возможных баунти
+        List<Bounty> route = buildGreedyRoute(transport, gameState);
+
+        Vector2D targetPosition;
+        if (!route.isEmpty()) {
+            // Если есть баунти на маршруте, выбираем ближайший
+            targetPosition = route.get(0).getPosition(); // Первая цель на маршруте
+        } else {
+            // Если баунти нет, целевая позиция — точка 5000:5000
+            targetPosition = TARGET_POINT;
+        }
+
+        // Вычисляем желаемое ускорение в направлении цели с учётом максимальной скорости и ускорения
+        Vector2D desiredAcceleration = calculateDesiredAcceleration(
+                transport,
+                targetPosition,
+                transport.getAnomalyAcceleration(),
+                gameState.getMaxAccel()
+        );
+
+        // Прогоняем кандидатов через симулятор с аномалиями и берём лучший по баунти без гибели и столкновений с коврами
+        Vector2D plannedAcceleration = trajectoryPlanner.chooseAcceleration(transport, targetPosition, desiredAcceleration);
+        if (plannedAcceleration != null) {
+            desiredAcceleration = plannedAcceleration;
+        } else if (willCollide(transport, desiredAcceleration.getX(), desiredAcceleration.getY(), gameState)) {
+            // Все кандидаты гибельные на горизонте — хотя бы избегаем столкновения на следующем шаге
+            desiredAcceleration = calculateSafeAcceleration(transport, targetPosition, transport.getAnomalyAcceleration(), gameState);
+        }
+
+        return new TransportPlan(transport, createTransportCommand(transport, desiredAcceleration), targetPosition);
+    }
+
     /**
      * Проверяет, столкнётся ли ковёр с врагами через заданное время.
      */
     private boolean willCollideWithEnemies(TransportResponse transport, GameState gameState) {
-        Vector2D currentPosition = transport.getPosition();
+        // Прогнозируем положение ковра через AVOIDANCE_TIME_THRESHOLD секунд
         Vector2D currentVelocity = transport.getVelocity();
+        double futureX = transport.getX() + currentVelocity.getX() * AVOIDANCE_TIME_THRESHOLD;
+        double futureY = transport.getY() + currentVelocity.getY() * AVOIDANCE_TIME_THRESHOLD;
 
-        for (Enemy enemy : gameState.getEnemies()) {
+        for (Enemy enemy : findEnemiesInAvoidanceRange(transport, gameState)) {
             if ("alive".equals(enemy.getStatus())) {
-                Vector2D enemyPosition = new Vector2D(enemy.getX(), enemy.getY());
-                Vector2D enemyVelocity = new Vector2D(enemy.getVelocity().getX(), enemy.getVelocity().getY());
-
-                // Прогнозируем положение ковра и врага через AVOIDANCE_TIME_THRESHOLD секунд
-                Vector2D futureTransportPosition = currentPosition.add(currentVelocity.scale(AVOIDANCE_TIME_THRESHOLD));
-                Vector2D futureEnemyPosition = enemyPosition.add(enemyVelocity.scale(AVOIDANCE_TIME_THRESHOLD));
+                // И положение врага через то же время
+                double enemyFutureX = enemy.getX() + enemy.getVelocity().getX() * AVOIDANCE_TIME_THRESHOLD;
+                double enemyFutureY = enemy.getY() + enemy.getVelocity().getY() * AVOIDANCE_TIME_THRESHOLD;
 
                 // Проверяем, будет ли расстояние между ними меньше радиуса столкновения
-                if (futureTransportPosition.subtract(futureEnemyPosition).magnitude() < ENEMY_COLLISION_RADIUS) {
+                if (VectorMath.distanceSquared(futureX, futureY, enemyFutureX, enemyFutureY) < ENEMY_COLLISION_RADIUS * ENEMY_COLLISION_RADIUS) {
                     return true;
                 }
             }
@@ -128,6 +142,17 @@ public class MoveScript {
         return false;
     }
 
+    /**
+     * Враги, которые за AVOIDANCE_TIME_THRESHOLD секунд могут оказаться в радиусе столкновения.
+     * Дальше ковёр и враг не успеют сблизиться даже на максимальных скоростях.
+     */
+    private List<Enemy> findEnemiesInAvoidanceRange(TransportResponse transport, GameState gameState) {
+        GameIndex index = gameState.getIndex();
+        double reach = ENEMY_COLLISION_RADIUS
+                + (transport.getVelocity().magnitude() + index.getMaxEnemySpeed()) * AVOIDANCE_TIME_THRESHOLD;
+        return index.getEnemies().queryRadius(transport.getX(), transport.getY(), reach);
+    }
+
 
     /**
      * Проверяет, находится ли ковёр слишком близко к границе карты.
@@ -162,18 +187,21 @@ public class MoveScript {
      * Рассчитывает ускорение для избегания столкновения с врагами.
      */
     private Vector2D calculateAvoidanceFromEnemies(TransportResponse transport, GameState gameState) {
-        Vector2D currentPosition = transport.getPosition();
-        Vector2D totalAvoidanceVector = new Vector2D(0, 0);
+        MutableVector2D totalAvoidanceVector = new MutableVector2D();
 
-        for (Enemy enemy : gameState.getEnemies()) {
+        for (Enemy enemy : findEnemiesInAvoidanceRange(transport, gameState)) {
             if ("alive".equals(enemy.getStatus())) {
-                Vector2D enemyPosition = new Vector2D(enemy.getX(), enemy.getY());
-                Vector2D avoidanceVector = currentPosition.subtract(enemyPosition).normalize().scale(ENEMY_COLLISION_RADIUS);
-                totalAvoidanceVector = totalAvoidanceVector.add(avoidanceVector);
+                // Единичный вектор от врага к ковру, умноженный на радиус столкновения
+                double dx = transport.getX() - enemy.getX();
+                double dy = transport.getY() - enemy.getY();
+                double distance = VectorMath.length(dx, dy);
+                if (distance > 0) {
+                    totalAvoidanceVector.addScaled(dx, dy, ENEMY_COLLISION_RADIUS / distance);
+                }
             }
         }
 
-        return totalAvoidanceVector.normalize().scale(gameState.getMaxAccel()); // Ускоряемся в безопасное направление
+        return totalAvoidanceVector.normalize().scale(gameState.getMaxAccel()).toVector2D(); // Ускоряемся в безопасное направление
     }
 
     /**
@@ -190,29 +218,30 @@ public class MoveScript {
      * Построение жадного маршрута для сбора всех баунти в радиусе 400 метров.
      */
     private List<Bounty> buildGreedyRoute(TransportResponse transport, GameState gameState) {
-        Set<Bounty> remainingBounties = new HashSet<>(gameState.getBounties());
+        GameIndex index = gameState.getIndex();
+        Set<Bounty> visitedBounties = Collections.newSetFromMap(new IdentityHashMap<>());
         List<Bounty> route = new ArrayList<>();
 
-        Vector2D currentPosition = transport.getPosition();
+        double currentX = transport.getX();
+        double currentY = transport.getY();
         Vector2D currentVelocity = transport.getVelocity();
 
-        while (!remainingBounties.isEmpty()) {
+        while (true) {
             Bounty bestBounty = null;
             double bestScore = Double.MAX_VALUE; // Минимальный скоринг
 
-            // Ищем баунти в радиусе 400 метров
-            for (Bounty bounty : remainingBounties) {
-                // Проверяем, находится ли баунти в радиусе 400 метров от текущего ковра
-                if (bounty.getPosition().subtract(currentPosition).magnitude() > BOUNTY_DETECTION_RADIUS) {
-                    continue; // Пропускаем баунти вне радиуса
+            // Ищем баунти в радиусе 400 метров от текущей точки маршрута
+            for (Bounty bounty : index.getBounties().queryRadius(currentX, currentY, BOUNTY_DETECTION_RADIUS)) {
+                if (visitedBounties.contains(bounty)) {
+                    continue; // Уже в маршруте
                 }
 
-                if (isNearAnomaly(bounty.getPosition(), gameState.getAnomalies(), gameState.getTransportRadius())) {
+                if (isNearAnomaly(bounty.getX(), bounty.getY(), index, gameState.getTransportRadius())) {
                     continue; // Пропускаем баунти, которые слишком близки к аномалиям
                 }
 
                 // Оценка времени достижения баунти
-                double estimatedTime = estimateTimeToReach(currentPosition, currentVelocity, bounty.getPosition(), bounty.getRadius(), gameState);
+                double estimatedTime = estimateTimeToReach(currentX, currentY, currentVelocity, bounty.getX(), bounty.getY(), bounty.getRadius(), gameState);
 
                 // Оценка только по времени достижения
                 if (estimatedTime < bestScore) {
@@ -224,9 +253,10 @@ public class MoveScript {
             if (bestBounty != null) {
                 // Добавляем ближайший баунти в маршрут
                 route.add(bestBounty);
-                remainingBounties.remove(bestBounty);
+                visitedBounties.add(bestBounty);
                 // Обновляем текущую позицию
-                currentPosition = bestBounty.getPosition();
+                currentX = bestBounty.getX();
+                currentY = bestBounty.getY();
             } else {
                 // Если не осталось доступных баунти, выходим
                 break;
@@ -239,9 +269,12 @@ public class MoveScript {
     /**
      * Оценка времени достижения цели, учитывая текущее ускорение и скорость транспорта, и радиус баунти.
      */
-    private double estimateTimeToReach(Vector2D currentPosition, Vector2D currentVelocity, Vector2D targetPosition, double targetRadius, GameState gameState) {
-        Vector2D deltaPosition = targetPosition.subtract(currentPosition);
-        double distance = deltaPosition.magnitude();
+    private double estimateTimeToReach(double currentX, double currentY, Vector2D currentVelocity,
+                                       double targetX, double targetY, double targetRadius, GameState gameState) {
+        double deltaX = targetX - currentX;
+        double deltaY = targetY - currentY;
+        double centerDistance = VectorMath.length(deltaX, deltaY);
+        double distance = centerDistance;
 
         // Учитываем радиус баунти
         distance -= targetRadius;
@@ -254,11 +287,8 @@ public class MoveScript {
         double maxAcceleration = gameState.getMaxAccel();
         double maxSpeed = gameState.getMaxSpeed();
 
-        // Направление к цели
-        Vector2D directionToTarget = deltaPosition.normalize();
-
-        // Проекция скорости на направление к цели
-        double velocityInTargetDirection = currentVelocity.dot(directionToTarget);
+        // Проекция скорости на направление к цели (centerDistance > 0, раз distance > 0)
+        double velocityInTargetDirection = VectorMath.dot(currentVelocity.getX(), currentVelocity.getY(), deltaX, deltaY) / centerDistance;
 
         // Теперь определим, как быстро транспорт может ускориться к цели:
         if (velocityInTargetDirection >= maxSpeed) {
@@ -270,7 +300,7 @@ public class MoveScript {
         double timeToMaxSpeed = (maxSpeed - velocityInTargetDirection) / maxAcceleration;
 
         // Шаг 2: Расстояние, которое мы пройдем за время разгона до максимальной скорости
-        double distanceToMaxSpeed = velocityInTargetDirection * timeToMaxSpeed + 0.5 * maxAcceleration * Math.pow(timeToMaxSpeed, 2);
+        double distanceToMaxSpeed = velocityInTargetDirection * timeToMaxSpeed + 0.5 * maxAcceleration * timeToMaxSpeed * timeToMaxSpeed;
 
         if (distanceToMaxSpeed >= distance) {
             // Если можем достичь цели до того, как наберем максимальную скорость
@@ -286,124 +316,84 @@ public class MoveScript {
     /**
      * Проверяет, приведет ли текущее ускорение к столкновению с границами карты, коврами или аномалиями.
      */
-    private boolean willCollide(TransportResponse transport, Vector2D desiredAcceleration, GameState gameState) {
-        Vector2D predictedPosition = predictPosition(transport, desiredAcceleration);
+    private boolean willCollide(TransportResponse transport, double accelerationX, double accelerationY, GameState gameState) {
+        // Прогнозируем следующую позицию, предполагаем dt = 1 сек
+        Vector2D velocity = transport.getVelocity();
+        double predictedX = transport.getX() + velocity.getX() + accelerationX;
+        double predictedY = transport.getY() + velocity.getY() + accelerationY;
 
         // Проверка на границы карты
-        if (isOutOfBounds(predictedPosition, gameState.getMapSize())) {
+        if (isOutOfBounds(predictedX, predictedY, gameState.getMapSize())) {
             return true;
         }
 
+        GameIndex index = gameState.getIndex();
+
         // Проверка на другие ковры
-        for (TransportResponse other : gameState.getTransports()) {
-            if (!other.getId().equals(transport.getId()) && "alive".equals(other.getStatus())) {
-                if (isCollision(predictedPosition, other.getPosition(), gameState.getTransportRadius())) {
-                    return true;
-                }
-            }
+        String transportId = transport.getId();
+        if (index.getTransports().anyInRadius(predictedX, predictedY, 2.0 * gameState.getTransportRadius(),
+                other -> !other.getId().equals(transportId) && "alive".equals(other.getStatus()))) {
+            return true;
         }
 
         // Проверка на аномалии
-        for (Anomaly anomaly : gameState.getAnomalies()) {
-            if (isNearAnomaly(predictedPosition, anomaly, gameState.getTransportRadius())) {
-                return true;
-            }
-        }
-
-        return false;
+        return isNearAnomaly(predictedX, predictedY, index, gameState.getTransportRadius());
     }
 
     /**
      * Вычисляет желаемое ускорение к цели, учитывая ограничение на максимальное ускорение и скорость.
      */
     private Vector2D calculateDesiredAcceleration(TransportResponse transport, Vector2D targetPosition, Vector2D anomalyAcceleration, double maxAccel) {
-        Vector2D position = transport.getPosition();
         Vector2D velocity = transport.getVelocity();
-        Vector2D toTarget = targetPosition.subtract(position);
-
-        // Направление к цели
-        Vector2D desiredDirection = toTarget.normalize();
 
-        // Рассчитываем желаемую скорость в направлении цели
-        Vector2D desiredVelocity = desiredDirection.scale(MAX_SPEED); // Вектор желаемой скорости
+        // Желаемая скорость: направление к цели длиной MAX_SPEED
+        MutableVector2D control = new MutableVector2D(targetPosition.getX() - transport.getX(), targetPosition.getY() - transport.getY())
+                .normalize()
+                .scale(MAX_SPEED);
 
-        // Разница между желаемой скоростью и текущей скоростью ковра
-        Vector2D velocityDifference = desiredVelocity.subtract(velocity);
-
-        // Рассчитываем необходимое ускорение для достижения желаемой скорости
-        Vector2D requiredAcceleration = velocityDifference; // Предполагаем dt = 1 сек
+        // Разница между желаемой скоростью и текущей скоростью ковра — необходимое ускорение (dt = 1 сек)
+        control.subtract(velocity.getX(), velocity.getY());
 
         // Компенсируем ускорение от аномалий (используем предоставленное значение)
-        Vector2D controlAcceleration = requiredAcceleration.subtract(anomalyAcceleration);
+        control.subtract(anomalyAcceleration.getX(), anomalyAcceleration.getY());
 
         // Ограничиваем ускорение до максимального значения
-        if (controlAcceleration.magnitude() > maxAccel) {
-            controlAcceleration = controlAcceleration.normalize().scale(maxAccel);
-        }
-
-        return controlAcceleration;
+        return control.clampLength(maxAccel).toVector2D();
     }
 
     /**
      * Вычисляет безопасное ускорение, избегая столкновений.
      */
     private Vector2D calculateSafeAcceleration(TransportResponse transport, Vector2D targetPosition, Vector2D anomalyAcceleration, GameState gameState) {
-        Vector2D safeAcceleration = calculateDesiredAcceleration(transport, targetPosition, anomalyAcceleration, gameState.getMaxAccel());
+        Vector2D desiredAcceleration = calculateDesiredAcceleration(transport, targetPosition, anomalyAcceleration, gameState.getMaxAccel());
+        double accelerationX = desiredAcceleration.getX();
+        double accelerationY = desiredAcceleration.getY();
 
         int i = 0;
 
         // Если безопасное ускорение все еще ведет к столкновению, уменьшаем его
-        while (willCollide(transport, safeAcceleration, gameState) && i <= 50) {
-            safeAcceleration = safeAcceleration.scale(0.9); // Постепенно уменьшаем ускорение
+        while (willCollide(transport, accelerationX, accelerationY, gameState) && i <= 50) {
+            // Постепенно уменьшаем ускорение
+            accelerationX *= 0.9;
+            accelerationY *= 0.9;
             i++;
         }
 
-        return safeAcceleration;
-    }
-
-    /**
-     * Прогнозирует следующую позицию ковра на основе текущего ускорения.
-     */
-    private Vector2D predictPosition(TransportResponse transport, Vector2D acceleration) {
-        Vector2D currentPosition = transport.getPosition();
-        Vector2D currentVelocity = transport.getVelocity();
-        return currentPosition.add(currentVelocity).add(acceleration); // Предполагаем, что dt = 1 сек
+        return new Vector2D(accelerationX, accelerationY);
     }
 
     /**
      * Проверяет, находится ли позиция за границами карты.
      */
-    private boolean isOutOfBounds(Vector2D position, MapSize mapSize) {
-        return position.getX() < 0 || position.getY() < 0 || position.getX() > mapSize.getX() || position.getY() > mapSize.getY();
-    }
-
-    /**
-     * Проверяет столкновение двух ковров.
-     */
-    private boolean isCollision(Vector2D pos1, Vector2D pos2, double radius) {
-        return pos1.subtract(pos2).magnitude() <= 2 * radius;
-    }
-
-    /**
-     * Проверяет, находится ли позиция ковра слишком близко к аномалии.
-     */
-    private boolean isNearAnomaly(Vector2D position, Anomaly anomaly, double safetyRadius) {
-        Vector2D anomalyPosition = anomaly.getPosition();
-        double distanceSquared = position.subtract(anomalyPosition).magnitude();
-        double safeDistance = anomaly.getRadius() + safetyRadius;
-
-        return distanceSquared <= safeDistance;
+    private boolean isOutOfBounds(double x, double y, MapSize mapSize) {
+        return x < 0 || y < 0 || x > mapSize.getX() || y > mapSize.getY();
     }
 
     /**
      * Проверяет, находится ли позиция ковра слишком близко к аномалиям.
+     * Индекс хранит радиус каждой аномалии, поэтому запрос идёт по safetyRadius.
      */
-    private boolean isNearAnomaly(Vector2D position, List<Anomaly> anomalies, double safetyRadius) {
-        for (Anomaly anomaly : anomalies) {
-            if (isNearAnomaly(position, anomaly, safetyRadius)) {
-                return true;
-            }
-        }
-        return false;
+    private boolean isNearAnomaly(double x, double y, GameIndex index, double safetyRadius) {
+        return index.getAnomalies().anyInRadius(x, y, safetyRadius);
     }
-}
\ No newline at end of file
+}
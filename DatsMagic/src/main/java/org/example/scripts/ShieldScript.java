@@ -1,7 +1,6 @@
 package org.example.scripts;
 
 
-import org.example.models.move.Enemy;
 import org.example.models.move.GameState;
 import org.example.models.move.TransportAction;
 import org.example.models.move.TransportResponse;
@@ -31,10 +30,10 @@ public class ShieldScript {
 
     private boolean checkShieldSuitability(TransportResponse currentTransport, GameState gameState) {
 
-        List<Enemy> enemies = gameState.getEnemies();
-        long radiusEnemyCount = enemies.stream()
-                .filter(enemy -> getDistance(currentTransport, enemy) <= gameState.getAttackRange() + gameState.getAttackExplosionRadius())
-                .count();
+        long radiusEnemyCount = gameState.getIndex().getEnemies().countInRadius(
+                currentTransport.getX(),
+                currentTransport.getY(),
+                gameState.getAttackRange() + gameState.getAttackExplosionRadius());
         int currentHealth = currentTransport.getHealth();
 
         // 1 Если >=2 врагов, в радиусе стрельбы и хп <= 59хп, то ставим щит
@@ -51,10 +50,6 @@ public class ShieldScript {
         return radiusEnemyCount == 1 && currentHealth <= MINIMAL_HEALTH_WOUT_SHIELD;
     }
 
-    private double getDistance(TransportResponse currentTransport, Enemy enemy) {
-        return Math.sqrt(Math.pow(enemy.getX() - currentTransport.getX(), 2) + Math.pow(enemy.getY() - currentTransport.getY(), 2));
-    }
-
     private TransportResponse getCurrentTransport(TransportAction transport, GameState gameState) {
         return gameState.getTransports().stream()
                 .filter(t1 -> t1.getId().equals(transport.getId()))
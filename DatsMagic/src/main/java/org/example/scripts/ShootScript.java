@@ -4,163 +4,40 @@ package org.example.scripts;
 import org.example.POST.Attack;
 import org.example.models.move.*;
 
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 public class ShootScript {
     public List<TransportAction> shoot(List<TransportAction> transports, GameState gameState) {
-        return transports.stream()
-                .map(transport -> findGoal(transport, gameState)) // Обновляем каждый транспорт
+        // Стрелки: живые ковры без перезарядки и без активного щита
+        List<TransportResponse> shooters = transports.stream()
+                .map(transport -> findTransport(transport, gameState))
+                .filter(Objects::nonNull)
+                .filter(transport -> "alive".equals(transport.getStatus()))
+                .filter(transport -> transport.getAttackCooldownMs() <= 0)
+                .filter(transport -> transport.getShieldLeftMs() <= 0)
                 .collect(Collectors.toList());
-    }
 
-    private TransportAction findGoal(TransportAction transport, GameState gameState) {
-        // Находим соответствующий Transport1 по id
-        TransportResponse currentTransport = gameState.getTransports().stream()
-                .filter(t1 -> t1.getId().equals(transport.getId()))
-                .findFirst()
-                .orElse(null);
+        // Цели распределяются сразу на всех, чтобы два ковра не били одного добитого врага
+        Map<String, Attack> attacks = new AttackPlanner(gameState).assign(shooters);
 
-        if (currentTransport != null) {
-            // Получаем состояние игры
-            Attack attack = decideAttack(gameState.getEnemies(), currentTransport, gameState.getAttackRange(), gameState.getAttackExplosionRadius());
-            //TODO
+        for (TransportAction transport : transports) {
+            Attack attack = attacks.get(transport.getId());
             if (attack != null) {
-                System.out.println("Корабль - " + currentTransport + "выстрелил по " + attack.getX() + ":" + attack.getY());
+                System.out.println("Корабль - " + transport.getId() + " выстрелил по " + attack.getX() + ":" + attack.getY());
             }
             transport.setAttack(attack);
         }
-
-        return transport;
-    }
-
-    private Attack decideAttack(List<Enemy> enemies, TransportResponse currentTransport, int attackRange, int attackExplosionRadius) {
-        int currentHealth = currentTransport.getHealth(); // Текущее здоровье транспорта
-
-        // 1) Проверяем шотных врагов в радиусе атаки
-        for (Enemy enemy : enemies) {
-            if (enemy.getHealth() <= 30) {
-                Attack newAttack = getAttack(enemies, currentTransport, attackRange, attackExplosionRadius, enemy);
-                if (newAttack != null) return newAttack;
-            }
-        }
-
-        // 1.2) Проверяем на наличие шотных врагов с щитом
-        for (Enemy enemy : enemies) {
-            if (enemy.getHealth() <= 30) {
-                double distance = Math.sqrt(Math.pow(enemy.getX() - currentTransport.getX(), 2) + Math.pow(enemy.getY() - currentTransport.getY(), 2));
-                if (distance <= attackRange + attackExplosionRadius && enemy.getShieldLeftMs() > 0) {
-                    System.out.println("Транспорт " + currentTransport + "Не стрелял, так как есть шотные враги со щитом в мин дальности");
-                    return null;
-                }
-            }
-        }
-
-        // 2) Если врагов меньше 4, выбираем ближайшего
-        if (enemies.size() <= 4) {
-            System.out.println("Транспорт " + currentTransport + "Не стрелял");
-            return findClosestEnemy(enemies, currentTransport.getX(), currentTransport.getY(), attackRange);
-        }
-
-        if (currentTransport.getShieldLeftMs() > 0) {
-            System.out.println("Транспорт " + currentTransport + "Не стрелял, так как щит активен");
-            return null;
-        }
-
-
-        //TODO Заменить на <100
-        // 3) Если врагов 4 или больше, действуем в зависимости от здоровья
-        if (currentHealth < 100) {
-            for (Enemy enemy : enemies) {
-                Attack newAttack = getAttack(enemies, currentTransport, attackRange, attackExplosionRadius, enemy);
-                if (newAttack != null) return newAttack;
-            }
-
-        }
-        System.out.println("Транспорт " + currentTransport + "Не стрелял, так как никого нет в радиусе действия или у всех 100 хп");
-
-        return null; // Если ничего не подходит
+        return transports;
     }
 
-    private Attack getAttack(List<Enemy> enemies, TransportResponse currentTransport, int attackRange, int attackExplosionRadius, Enemy enemy) {
-        double distance = Math.sqrt(Math.pow(enemy.getX() - currentTransport.getX(), 2) + Math.pow(enemy.getY() - currentTransport.getY(), 2));
-        if (distance <= attackRange + attackExplosionRadius - 10) {
-            // 1.1) Если враг без щита
-            if (enemy.getShieldLeftMs() <= 0) {
-                // Проверяем возможность задетия нескольких врагов
-                Attack newAttack = canHitMultipleEnemies(enemies, new Attack(enemy.getX(), enemy.getY()), attackExplosionRadius - 5, attackRange, enemy, currentTransport);
-                // Возвращаем атаку, если только один враг
-                return Objects.requireNonNullElseGet(newAttack, () -> new Attack(enemy.getX(), enemy.getY())); // Возвращаем новые координаты
-            }
-        }
-        return null;
-    }
-
-
-    private Attack canHitMultipleEnemies(List<Enemy> enemies, Attack attack, int explosionRadius, int attackRange, Enemy currentEnemy, TransportResponse currentTransport) {
-        int hitCount = 0;
-
-        // Перебираем врагов и проверяем, можем ли мы задеть их в радиусе взрыва
-        for (Enemy enemy : enemies) {
-            if (currentEnemy.getY() == enemy.getY() && currentEnemy.getX() == enemy.getX()) {
-                continue;
-            }
-            double distance = Math.sqrt(Math.pow(enemy.getX() - attack.getX(), 2) + Math.pow(enemy.getY() - attack.getY(), 2));
-            if (distance <= explosionRadius) {
-                hitCount++;
-            }
-        }
-
-        // Если мы можем задеть 2 и более врагов, возвращаем текущую позицию как объект Attack
-        if (hitCount >= 2) {
-            System.out.println("Задеваем 2");
-            return new Attack(attack.getX(), attack.getY());
-        }
-        Attack lastAttack = null;
-        int lastHitCount = 0;
-
-        // Проверяем возможность смещения точки атаки для достижения большего количества врагов
-        for (int offsetX = -explosionRadius; offsetX <= explosionRadius; offsetX += explosionRadius / 5) {
-            for (int offsetY = -explosionRadius; offsetY <= explosionRadius; offsetY += explosionRadius / 5) {
-                int newAttackX = currentEnemy.getX() + offsetX;
-                int newAttackY = currentEnemy.getY() + offsetY;
-                double newDistance1 = Math.sqrt(Math.pow(currentTransport.getX() - newAttackX, 2) + Math.pow(currentTransport.getY() - newAttackY, 2));
-                if (newDistance1 >= attackRange) {
-                    continue;
-                }
-                int newHitCount = 0;
-                Attack newAttack = null;
-                for (Enemy innerEnemy : enemies) {
-                    if (currentEnemy.getY() == innerEnemy.getY() && currentEnemy.getX() == innerEnemy.getX()) {
-                        continue;
-                    }
-                    double newDistance = Math.sqrt(Math.pow(innerEnemy.getX() - newAttackX, 2) + Math.pow(innerEnemy.getY() - newAttackY, 2));
-                    if (newDistance <= explosionRadius) {
-                        newHitCount++;
-                        newAttack = new Attack(newAttackX, newAttackY);
-                    }
-
-                }
-
-                if (newHitCount > lastHitCount) {
-                    lastHitCount = newHitCount;
-                    lastAttack = newAttack;
-                }
-
-            }
-        }
-        System.out.println("Стреляем по " + ++lastHitCount);
-        return lastAttack;
-
-    }
-
-    private Attack findClosestEnemy(List<Enemy> enemies, double shooterX, double shooterY, int rangeAttack) {
-        return enemies.stream()
-                .filter(enemy -> Math.sqrt(Math.pow(enemy.getX() - shooterX, 2) + Math.pow(enemy.getY() - shooterY, 2)) < rangeAttack) // Игнорируем мертвых врагов
-                .min(Comparator.comparingDouble(enemy -> Math.sqrt(Math.pow(enemy.getX() - shooterX, 2) + Math.pow(enemy.getY() - shooterY, 2))))
-                .map(enemy -> new Attack(enemy.getX(), enemy.getY()))
+    private TransportResponse findTransport(TransportAction transport, GameState gameState) {
+        // Находим соответствующий TransportResponse по id
+        return gameState.getTransports().stream()
+                .filter(t1 -> t1.getId().equals(transport.getId()))
+                .findFirst()
                 .orElse(null);
     }
 }
@@ -0,0 +1,185 @@
+package org.example.scripts;
+
+import org.example.models.move.Bounty;
+import org.example.models.move.GameState;
+import org.example.models.move.SpatialIndex;
+import org.example.models.move.TrajectorySimulator;
+import org.example.models.move.TransportResponse;
+import org.example.models.move.Vector2D;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Выбор ускорения ковра перебором кандидатов с прогоном через {@link TrajectorySimulator}.
+ * <p>
+ * Для каждого кандидата (предложенное MoveScript ускорение, его ослабленные варианты,
+ * веер направлений с полным и половинным ускорением) траектория моделируется на
+ * HORIZON_STEPS шагов с учётом аномалий. Отбрасываются кандидаты с гибелью и те, что на
+ * первом шаге сводят ковёр с другим ковром ближе двух радиусов (как MoveScript.willCollide,
+ * по текущим положениям ковров). Остальные оцениваются по собранным баунти (с дисконтом
+ * по времени) и по остаточному расстоянию до цели.
+ * <p>
+ * Создаётся на тик. Общие данные только читаются, поэтому {@link #chooseAcceleration}
+ * можно вызывать параллельно для разных ковров.
+ */
+public class TrajectoryPlanner {
+
+    private static final int HORIZON_STEPS = 8; // Горизонт прогноза в шагах
+    private static final double STEP_DT = 1.0; // Длина шага, сек
+    private static final int DIRECTIONS = 16; // Направления в веере кандидатов
+    private static final double[] MAGNITUDE_FRACTIONS = {1.0, 0.5};
+    private static final double[] SEED_FRACTIONS = {1.0, 0.9, 0.7, 0.5, 0.25, 0.0};
+    private static final double BOUNTY_DISCOUNT = 0.85; // Чем позже баунти, тем меньше его ценность
+    private static final double TARGET_WEIGHT = 0.01; // Вес расстояния до цели (очков за метр)
+    private static final int MAX_BOUNTIES_PER_STEP = 64;
+
+    private final TrajectorySimulator simulator;
+    private final SpatialIndex<Bounty> bounties;
+    private final SpatialIndex<TransportResponse> transports;
+    private final double carpetCollisionRadius;
+    private final double[] bountyX;
+    private final double[] bountyY;
+    private final double[] bountyReachSquared;
+    private final int[] bountyPoints;
+    private final double bountyQueryRadius;
+
+    public TrajectoryPlanner(GameState gameState) {
+        this.simulator = new TrajectorySimulator(gameState, STEP_DT);
+        this.bounties = gameState.getIndex().getBounties();
+        this.transports = gameState.getIndex().getTransports();
+        this.carpetCollisionRadius = 2.0 * gameState.getTransportRadius();
+
+        List<Bounty> bountyList = gameState.getBounties() != null ? gameState.getBounties() : List.of();
+        int n = bountyList.size();
+        bountyX = new double[n];
+        bountyY = new double[n];
+        bountyReachSquared = new double[n];
+        bountyPoints = new int[n];
+        double maxReach = 0;
+        for (int i = 0; i < n; i++) {
+            Bounty bounty = bountyList.get(i);
+            double reach = bounty.getRadius() + gameState.getTransportRadius();
+            bountyX[i] = bounty.getX();
+            bountyY[i] = bounty.getY();
+            bountyReachSquared[i] = reach * reach;
+            bountyPoints[i] = bounty.getPoints();
+            maxReach = Math.max(maxReach, reach);
+        }
+        bountyQueryRadius = maxReach;
+    }
+
+    /**
+     * Лучшее безопасное ускорение для ковра или null, если все кандидаты ведут к гибели.
+     *
+     * @param transport Ковёр.
+     * @param target    Цель, к которой стремимся при отсутствии баунти на траектории.
+     * @param seed      Ускорение, предложенное MoveScript.
+     */
+    public Vector2D chooseAcceleration(TransportResponse transport, Vector2D target, Vector2D seed) {
+        Scratch scratch = new Scratch(bountyX.length);
+        String transportId = transport.getId();
+        scratch.otherCarpet = other -> !other.getId().equals(transportId) && "alive".equals(other.getStatus());
+        double maxAccel = simulator.getMaxAccel();
+
+        double bestScore = Double.NEGATIVE_INFINITY;
+        double bestAx = 0;
+        double bestAy = 0;
+        boolean found = false;
+
+        // Сначала вариации предложенного ускорения: при равной оценке они выигрывают
+        for (double fraction : SEED_FRACTIONS) {
+            double ax = seed.getX() * fraction;
+            double ay = seed.getY() * fraction;
+            double score = evaluate(transport, target, ax, ay, scratch);
+            if (score > bestScore) {
+                bestScore = score;
+                bestAx = ax;
+                bestAy = ay;
+                found = true;
+            }
+        }
+
+        for (int d = 0; d < DIRECTIONS; d++) {
+            double angle = 2 * Math.PI * d / DIRECTIONS;
+            double cos = Math.cos(angle);
+            double sin = Math.sin(angle);
+            for (double fraction : MAGNITUDE_FRACTIONS) {
+                double ax = cos * maxAccel * fraction;
+                double ay = sin * maxAccel * fraction;
+                double score = evaluate(transport, target, ax, ay, scratch);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestAx = ax;
+                    bestAy = ay;
+                    found = true;
+                }
+            }
+        }
+
+        return found ? new Vector2D(bestAx, bestAy) : null;
+    }
+
+    /**
+     * Оценка траектории с постоянным собственным ускорением (ax, ay).
+     * NEGATIVE_INFINITY — ковёр погибает на горизонте или сталкивается с другим ковром.
+     */
+    private double evaluate(TransportResponse transport, Vector2D target, double ax, double ay, Scratch scratch) {
+        double[] state = scratch.state;
+        TrajectorySimulator.load(transport, state);
+        scratch.nextEpoch();
+
+        double score = 0;
+        double discount = 1.0;
+        for (int step = 1; step <= HORIZON_STEPS; step++) {
+            double time = step * STEP_DT;
+            simulator.step(state, ax, ay, time - STEP_DT);
+            double x = state[TrajectorySimulator.X];
+            double y = state[TrajectorySimulator.Y];
+            if (simulator.isFatal(x, y, time)) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            if (step == 1 && transports.anyInRadius(x, y, carpetCollisionRadius, scratch.otherCarpet)) {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            discount *= BOUNTY_DISCOUNT;
+            int found = bounties.indicesInRadius(x, y, bountyQueryRadius, scratch.hits);
+            for (int k = 0; k < found; k++) {
+                int i = scratch.hits[k];
+                if (scratch.collected[i] == scratch.epoch) {
+                    continue;
+                }
+                double dx = bountyX[i] - x;
+                double dy = bountyY[i] - y;
+                if (dx * dx + dy * dy <= bountyReachSquared[i]) {
+                    scratch.collected[i] = scratch.epoch;
+                    score += bountyPoints[i] * discount;
+                }
+            }
+        }
+
+        double dx = target.getX() - state[TrajectorySimulator.X];
+        double dy = target.getY() - state[TrajectorySimulator.Y];
+        return score - TARGET_WEIGHT * Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Рабочие массивы одного вызова: не делятся между потоками.
+     */
+    private static final class Scratch {
+        final double[] state = new double[4];
+        final int[] hits = new int[MAX_BOUNTIES_PER_STEP];
+        final int[] collected;
+        int epoch;
+        Predicate<TransportResponse> otherCarpet;
+
+        Scratch(int bountyCount) {
+            collected = new int[bountyCount];
+        }
+
+        void nextEpoch() {
+            epoch++;
+        }
+    }
+}
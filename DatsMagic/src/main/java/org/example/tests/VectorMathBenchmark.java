@@ -0,0 +1,72 @@
+package org.example.tests;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.example.models.move.GameState;
+import org.example.scripts.MoveScript;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Замер MoveScript.planTransportMovements на сохранённом ответе сервера
+ * (по умолчанию data/response.json, путь можно передать первым аргументом).
+ * На каждую итерацию GameState разбирается заново, чтобы индекс строился как в реальном тике;
+ * разбор в замер не входит. Печатает время и количество выделенных байт на один тик
+ * (байты суммируются по всем потокам: ковры планируются в parallelStream).
+ */
+public class VectorMathBenchmark {
+
+    private static final int WARMUP_ROUNDS = 300;
+    private static final int MEASURE_ROUNDS = 1_000;
+
+    private static int sink;
+
+    public static void main(String[] args) throws IOException {
+        String filePath = args.length > 0 ? args[0] : System.getProperty("user.dir") + "/data/response.json";
+        String jsonContent = new String(Files.readAllBytes(Paths.get(filePath)));
+        Gson gson = new GsonBuilder().create();
+        MoveScript moveScript = new MoveScript();
+
+        // Таблица ковров печатается на каждом вызове: на время замера глушим вывод
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sink += moveScript.planTransportMovements(gson.fromJson(jsonContent, GameState.class)).getTransports().size();
+            }
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long elapsed = 0;
+            long bytes = 0;
+            for (int i = 0; i < MEASURE_ROUNDS; i++) {
+                GameState gameState = gson.fromJson(jsonContent, GameState.class);
+                long bytesBefore = allocatedBytes(threads);
+                long start = System.nanoTime();
+                sink += moveScript.planTransportMovements(gameState).getTransports().size();
+                elapsed += System.nanoTime() - start;
+                bytes += allocatedBytes(threads) - bytesBefore;
+            }
+
+            out.printf("planTransportMovements %10.1f us/op %10.1f KB/op%n",
+                    elapsed / 1_000.0 / MEASURE_ROUNDS, bytes / 1024.0 / MEASURE_ROUNDS);
+            out.println("(sink " + sink + ")");
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
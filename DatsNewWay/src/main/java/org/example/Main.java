@@ -6,6 +6,7 @@ import org.example.service.FileService;
 import org.example.service.FoodService;
 import org.example.service.MovementService;
 import org.example.service.PathFindingService;
+import org.example.service.SurvivalSearchService;
 
 public class Main {
     public static void main(String[] args) {
@@ -14,6 +15,8 @@ public class Main {
         FileService fileService = new FileService();
         FoodService foodService = new FoodService();
         PathFindingService pathFindingService = new PathFindingService();
+        // Глубина поиска 8 тиков, бюджет 100 мс на тик (цикл — 200 мс)
+        SurvivalSearchService survivalSearchService = new SurvivalSearchService(8, 100);
 
         // 2. Конфигурируем MovementService
         //    К примеру, вот такой URL и token (можно менять под вашу игру)
@@ -26,7 +29,8 @@ public class Main {
                 gson,
                 fileService,
                 pathFindingService,
-                foodService
+                foodService,
+                survivalSearchService
         );
 
         // 3. Создаем GameEngine
@@ -23,19 +23,22 @@ public class MovementService {
 
     private final PathFindingService pathFindingService;
     private final FoodService foodService;
+    private final SurvivalSearchService survivalSearchService;
 
     public MovementService(String baseUrl,
                            String token,
                            Gson gson,
                            FileService fileService,
                            PathFindingService pathFindingService,
-                           FoodService foodService) {
+                           FoodService foodService,
+                           SurvivalSearchService survivalSearchService) {
         this.baseUrl = baseUrl;
         this.token = token;
         this.gson = gson;
         this.fileService = fileService;
         this.pathFindingService = pathFindingService;
         this.foodService = foodService;
+        this.survivalSearchService = survivalSearchService;
     }
 
     /**
@@ -94,10 +97,17 @@ public class MovementService {
 
     /**
      * Сформировать команду движения для всех змей.
+     * Первый шаг пути к еде проверяется поиском на выживание и заменяется,
+     * если он ведёт в ловушку.
      */
     public SnakeRequest buildMoveRequest(GameState gameState) {
         SnakeRequest moveRequest = new SnakeRequest();
 
+        int aliveSnakes = (int) gameState.getSnakes().stream()
+                .filter(snake -> "alive".equals(snake.getStatus()) && snake.getHead() != null)
+                .count();
+        survivalSearchService.beginTick(gameState, aliveSnakes);
+
         gameState.getSnakes().forEach(snake -> {
             if ("alive".equals(snake.getStatus()) && snake.getHead() != null) {
                 Point3D head = snake.getHead();
@@ -112,11 +122,15 @@ public class MovementService {
                             30
                     );
 
+                    int[] preferred = null;
                     if (path != null && !path.isEmpty()) {
-                        moveRequest.getSnakes().add(new SnakeRequest.SnakeCommand(snake.getId(), path.get(0)));
+                        preferred = path.get(0);
                     } else {
                         logger.warning("Путь не найден для змейки: " + snake.getId());
                     }
+
+                    int[] direction = survivalSearchService.chooseDirection(snake, preferred);
+                    moveRequest.getSnakes().add(new SnakeRequest.SnakeCommand(snake.getId(), direction));
                 }
             }
         });
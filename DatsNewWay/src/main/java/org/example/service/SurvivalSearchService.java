@@ -0,0 +1,518 @@
+package org.example.service;
+
+import org.example.models.Enemy;
+import org.example.models.Food;
+import org.example.models.GameState;
+import org.example.models.Snake;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/* ---------------------------------------------------
+ * SurvivalSearchService — поиск безопасного хода на N тиков вперёд.
+ *
+ * Симулирует тело змейки (кольцевой буфер) на битовой карте занятости,
+ * учитывает зоны, куда могут дотянуться головы врагов, и оценивает
+ * каждый ход по свободному объёму (flood-fill) и собранной еде.
+ * Все изменения состояния обратимы, поэтому один и тот же набор массивов
+ * переиспользуется для тысяч узлов за тик.
+ * --------------------------------------------------- */
+public class SurvivalSearchService {
+    private static final Logger logger = Logger.getLogger(SurvivalSearchService.class.getName());
+
+    private static final int[][] DIRECTIONS = {
+            {1, 0, 0}, {-1, 0, 0},
+            {0, 1, 0}, {0, -1, 0},
+            {0, 0, 1}, {0, 0, -1}
+    };
+
+    private static final double DEAD_SCORE = -1_000_000.0;
+    private static final double FOOD_WEIGHT = 10.0;
+    private static final double DANGER_PENALTY = 500.0;
+    private static final double PREFERRED_BONUS = 25.0;
+    private static final int MIN_VOLUME_CAP = 64;
+    private static final int MAX_VOLUME_CAP = 512;
+
+    private final int maxDepth;
+    private final long tickBudgetNanos;
+
+    // Геометрия карты текущего тика
+    private int sizeX;
+    private int sizeY;
+    private int sizeZ;
+    private int cellCount;
+    private int[] neighbourOffsets = new int[6];
+
+    // Битовая карта занятых клеток (заборы, тела змей)
+    private long[] occupied = new long[0];
+    // Через сколько тиков голова врага может оказаться в клетке (0 — недостижима)
+    private byte[] enemyReach = new byte[0];
+    private int[] enemyReachTouched = new int[1024];
+    private int enemyReachTouchedCount;
+
+    // Еда: отсортированные индексы клеток и их ценность
+    private int[] foodCells = new int[0];
+    private int[] foodPoints = new int[0];
+    private boolean[] foodEaten = new boolean[0];
+
+    // Буферы flood-fill: метка посещения по эпохе, чтобы не очищать массив
+    private int[] visitStamp = new int[0];
+    private int[] fillQueue = new int[0];
+    private int stamp;
+
+    // Тело текущей змейки
+    private final RingBody body = new RingBody();
+
+    private long tickDeadline;
+    private int snakesLeft;
+    private long nodes;
+    private boolean timedOut;
+    private long searchDeadline;
+
+    public SurvivalSearchService(int maxDepth, long tickBudgetMillis) {
+        this.maxDepth = maxDepth;
+        this.tickBudgetNanos = tickBudgetMillis * 1_000_000L;
+    }
+
+    /**
+     * Готовит общую для всех змеек карту занятости на текущий тик
+     * и запускает отсчёт бюджета времени.
+     *
+     * @param gameState  Состояние игры.
+     * @param aliveSnakes Сколько змеек будет искаться в этом тике (делят бюджет).
+     */
+    public void beginTick(GameState gameState, int aliveSnakes) {
+        tickDeadline = System.nanoTime() + tickBudgetNanos;
+        snakesLeft = Math.max(1, aliveSnakes);
+
+        List<Integer> mapSize = gameState.getMapSize();
+        resize(mapSize.get(0), mapSize.get(1), mapSize.get(2));
+
+        Arrays.fill(occupied, 0L);
+        clearEnemyReach();
+
+        if (gameState.getFences() != null) {
+            gameState.getFences().forEach(f -> setOccupied(toCell(f)));
+        }
+        if (gameState.getSnakes() != null) {
+            for (Snake snake : gameState.getSnakes()) {
+                if ("alive".equals(snake.getStatus()) && snake.getGeometry() != null) {
+                    snake.getGeometry().forEach(segment -> setOccupied(toCell(segment)));
+                }
+            }
+        }
+        if (gameState.getEnemies() != null) {
+            for (Enemy enemy : gameState.getEnemies()) {
+                if (enemy.getGeometry() == null || enemy.getGeometry().isEmpty()) {
+                    continue;
+                }
+                enemy.getGeometry().forEach(segment -> setOccupied(toCell(segment)));
+                if ("alive".equals(enemy.getStatus())) {
+                    markEnemyReach(enemy.getGeometry().get(0));
+                }
+            }
+        }
+
+        prepareFood(gameState.getFood());
+    }
+
+    /**
+     * Выбирает направление для змейки.
+     *
+     * @param snake     Змейка (живая, с головой).
+     * @param preferred Направление, предложенное планировщиком пути (может быть null).
+     * @return Лучшее найденное направление [dx, dy, dz].
+     */
+    public int[] chooseDirection(Snake snake, int[] preferred) {
+        long now = System.nanoTime();
+        long share = Math.max(0, (tickDeadline - now) / snakesLeft);
+        snakesLeft = Math.max(1, snakesLeft - 1);
+        searchDeadline = now + share;
+
+        List<List<Integer>> geometry = snake.getGeometry();
+        // Своё тело уже лежит на общей карте: ход в него — столкновение, освобождается только уходящий хвост
+        body.load(geometry, maxDepth);
+
+        int preferredIndex = directionIndex(preferred);
+        double[] rootScores = new double[DIRECTIONS.length];
+        double[] completedScores = null;
+        int completedDepth = 0;
+        nodes = 0;
+        timedOut = false;
+
+        for (int depth = 1; depth <= maxDepth && !timedOut; depth++) {
+            Arrays.fill(rootScores, DEAD_SCORE);
+            for (int d = 0; d < DIRECTIONS.length && !timedOut; d++) {
+                rootScores[d] = evaluateMove(d, 1, depth);
+            }
+            if (!timedOut) {
+                completedScores = rootScores.clone();
+                completedDepth = depth;
+            }
+        }
+
+        if (completedScores == null) {
+            logger.warning("Поиск не уложился в бюджет для змейки " + snake.getId() + ", оставляем ход планировщика.");
+            return preferred != null ? preferred : DIRECTIONS[0].clone();
+        }
+
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            double score = completedScores[d];
+            if (d == preferredIndex && score > DEAD_SCORE) {
+                score += PREFERRED_BONUS;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = d;
+            }
+        }
+
+        logger.info("[Survival] Змейка " + snake.getId() + ": глубина " + completedDepth
+                + ", узлов " + nodes + ", ход " + Arrays.toString(DIRECTIONS[best])
+                + ", оценка " + String.format("%.1f", bestScore));
+        return DIRECTIONS[best].clone();
+    }
+
+    /**
+     * Делает ход, рекурсивно оценивает поддерево и откатывает ход.
+     */
+    private double evaluateMove(int direction, int tick, int depth) {
+        if ((++nodes & 0xFF) == 0 && System.nanoTime() > searchDeadline) {
+            timedOut = true;
+            return DEAD_SCORE;
+        }
+
+        int head = body.head();
+        int next = step(head, direction);
+        if (next < 0) {
+            return DEAD_SCORE + tick;
+        }
+
+        // Хвост уходит раньше, чем голова занимает новую клетку
+        int foodIndex = findFood(next);
+        boolean grows = foodIndex >= 0 && !foodEaten[foodIndex];
+        int removedTail = -1;
+        boolean tailCleared = false;
+        if (!grows && body.size > 1) {
+            removedTail = body.popTail();
+            // В начале жизни сегменты могут лежать в одной клетке: тогда клетка остаётся занятой.
+            // Откат снова занимает клетку, только если её освободили здесь
+            if (body.tail() != removedTail && isOccupied(removedTail)) {
+                clearOccupied(removedTail);
+                tailCleared = true;
+            }
+        }
+
+        if (isOccupied(next)) {
+            if (removedTail >= 0) {
+                body.pushTail(removedTail);
+                if (tailCleared) {
+                    setOccupied(removedTail);
+                }
+            }
+            return DEAD_SCORE + tick;
+        }
+
+        int reach = enemyReach[next];
+        if (reach != 0 && reach <= 1 && tick == 1) {
+            if (removedTail >= 0) {
+                body.pushTail(removedTail);
+                if (tailCleared) {
+                    setOccupied(removedTail);
+                }
+            }
+            return DEAD_SCORE + tick;
+        }
+
+        body.pushHead(next);
+        setOccupied(next);
+        if (grows) {
+            foodEaten[foodIndex] = true;
+        }
+
+        double score = 0;
+        if (grows) {
+            score += FOOD_WEIGHT * foodPoints[foodIndex] / tick;
+        }
+        if (reach != 0 && reach <= tick) {
+            score -= DANGER_PENALTY / tick;
+        }
+
+        if (tick >= depth) {
+            score += floodVolume(next, volumeCap());
+        } else {
+            double best = DEAD_SCORE;
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                double child = evaluateMove(d, tick + 1, depth);
+                if (child > best) {
+                    best = child;
+                }
+                if (timedOut) {
+                    break;
+                }
+            }
+            score += best;
+        }
+
+        // Откат
+        if (grows) {
+            foodEaten[foodIndex] = false;
+        }
+        clearOccupied(next);
+        body.popHead();
+        if (removedTail >= 0) {
+            body.pushTail(removedTail);
+            if (tailCleared) {
+                setOccupied(removedTail);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Количество свободных клеток, достижимых из start (не больше cap).
+     */
+    private int floodVolume(int start, int cap) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamp, 0);
+            stamp = 1;
+        }
+        int readPos = 0;
+        int writePos = 0;
+        int count = 0;
+        fillQueue[writePos++] = start;
+        visitStamp[start] = stamp;
+
+        while (readPos < writePos && count < cap) {
+            int cell = fillQueue[readPos++];
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int neighbour = step(cell, d);
+                if (neighbour < 0 || visitStamp[neighbour] == stamp || isOccupied(neighbour)) {
+                    continue;
+                }
+                visitStamp[neighbour] = stamp;
+                fillQueue[writePos++] = neighbour;
+                count++;
+            }
+        }
+        return Math.min(count, cap);
+    }
+
+    private int volumeCap() {
+        return Math.max(MIN_VOLUME_CAP, Math.min(MAX_VOLUME_CAP, body.size * 2));
+    }
+
+    /**
+     * Клетка-сосед по направлению или -1, если за границей карты.
+     */
+    private int step(int cell, int direction) {
+        int z = cell % sizeZ;
+        int y = (cell / sizeZ) % sizeY;
+        int x = cell / (sizeZ * sizeY);
+        switch (direction) {
+            case 0: if (x + 1 >= sizeX) return -1; break;
+            case 1: if (x == 0) return -1; break;
+            case 2: if (y + 1 >= sizeY) return -1; break;
+            case 3: if (y == 0) return -1; break;
+            case 4: if (z + 1 >= sizeZ) return -1; break;
+            default: if (z == 0) return -1; break;
+        }
+        return cell + neighbourOffsets[direction];
+    }
+
+    private void resize(int x, int y, int z) {
+        if (x == sizeX && y == sizeY && z == sizeZ) {
+            return;
+        }
+        sizeX = x;
+        sizeY = y;
+        sizeZ = z;
+        cellCount = x * y * z;
+        neighbourOffsets = new int[]{y * z, -y * z, z, -z, 1, -1};
+        occupied = new long[(cellCount + 63) >>> 6];
+        enemyReach = new byte[cellCount];
+        enemyReachTouchedCount = 0;
+        visitStamp = new int[cellCount];
+        fillQueue = new int[MAX_VOLUME_CAP + 8];
+        stamp = 0;
+    }
+
+    private int toCell(List<Integer> c) {
+        int x = c.get(0);
+        int y = c.get(1);
+        int z = c.get(2);
+        if (x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ) {
+            return -1;
+        }
+        return (x * sizeY + y) * sizeZ + z;
+    }
+
+    private boolean isOccupied(int cell) {
+        return (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    private void setOccupied(int cell) {
+        if (cell >= 0) {
+            occupied[cell >>> 6] |= 1L << cell;
+        }
+    }
+
+    private void clearOccupied(int cell) {
+        if (cell >= 0) {
+            occupied[cell >>> 6] &= ~(1L << cell);
+        }
+    }
+
+    /**
+     * Отмечает клетки, до которых голова врага дотянется за 1..maxDepth тиков
+     * (шар в манхэттенской метрике, препятствия не учитываются — оценка сверху).
+     */
+    private void markEnemyReach(List<Integer> head) {
+        int hx = head.get(0);
+        int hy = head.get(1);
+        int hz = head.get(2);
+        int radius = Math.min(maxDepth, Byte.MAX_VALUE);
+        for (int dx = -radius; dx <= radius; dx++) {
+            int x = hx + dx;
+            if (x < 0 || x >= sizeX) continue;
+            int restX = radius - Math.abs(dx);
+            for (int dy = -restX; dy <= restX; dy++) {
+                int y = hy + dy;
+                if (y < 0 || y >= sizeY) continue;
+                int restY = restX - Math.abs(dy);
+                for (int dz = -restY; dz <= restY; dz++) {
+                    int z = hz + dz;
+                    if (z < 0 || z >= sizeZ) continue;
+                    int distance = Math.abs(dx) + Math.abs(dy) + Math.abs(dz);
+                    if (distance == 0) continue;
+                    int cell = (x * sizeY + y) * sizeZ + z;
+                    if (enemyReach[cell] == 0) {
+                        if (enemyReachTouchedCount == enemyReachTouched.length) {
+                            enemyReachTouched = Arrays.copyOf(enemyReachTouched, enemyReachTouched.length * 2);
+                        }
+                        enemyReachTouched[enemyReachTouchedCount++] = cell;
+                        enemyReach[cell] = (byte) distance;
+                    } else if (enemyReach[cell] > distance) {
+                        enemyReach[cell] = (byte) distance;
+                    }
+                }
+            }
+        }
+    }
+
+    private void clearEnemyReach() {
+        for (int i = 0; i < enemyReachTouchedCount; i++) {
+            enemyReach[enemyReachTouched[i]] = 0;
+        }
+        enemyReachTouchedCount = 0;
+    }
+
+    private void prepareFood(List<Food> foodList) {
+        if (foodList == null || foodList.isEmpty()) {
+            foodCells = new int[0];
+            foodPoints = new int[0];
+            foodEaten = new boolean[0];
+            return;
+        }
+        long[] packed = new long[foodList.size()];
+        int count = 0;
+        for (Food food : foodList) {
+            if (food.getC() == null || food.getC().size() != 3 || food.getPoints() <= 0) {
+                continue;
+            }
+            int cell = toCell(food.getC());
+            if (cell >= 0) {
+                packed[count++] = ((long) cell << 32) | (food.getPoints() & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(packed, 0, count);
+        foodCells = new int[count];
+        foodPoints = new int[count];
+        foodEaten = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            foodCells[i] = (int) (packed[i] >>> 32);
+            foodPoints[i] = (int) packed[i];
+        }
+    }
+
+    private int findFood(int cell) {
+        int index = Arrays.binarySearch(foodCells, cell);
+        return index >= 0 ? index : -1;
+    }
+
+    private int directionIndex(int[] direction) {
+        if (direction == null || direction.length != 3) {
+            return -1;
+        }
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            if (Arrays.equals(DIRECTIONS[d], direction)) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Тело змейки в кольцевом буфере: голова — по индексу headPos,
+     * хвост — size-1 элементов назад. Все операции O(1).
+     */
+    private final class RingBody {
+        private int[] cells = new int[64];
+        private int headPos;
+        private int size;
+
+        void load(List<List<Integer>> geometry, int extra) {
+            int needed = geometry.size() + extra + 1;
+            if (cells.length < needed) {
+                cells = new int[Integer.highestOneBit(needed) << 1];
+            }
+            size = 0;
+            headPos = 0;
+            // geometry[0] — голова, поэтому заполняем с хвоста
+            for (int i = geometry.size() - 1; i >= 0; i--) {
+                int cell = toCell(geometry.get(i));
+                if (cell >= 0) {
+                    pushHead(cell);
+                }
+            }
+        }
+
+        int head() {
+            return cells[headPos];
+        }
+
+        int tail() {
+            return get(size - 1);
+        }
+
+        /** i = 0 — голова, size-1 — хвост. */
+        int get(int i) {
+            return cells[(headPos - i) & (cells.length - 1)];
+        }
+
+        void pushHead(int cell) {
+            headPos = (headPos + 1) & (cells.length - 1);
+            cells[headPos] = cell;
+            size++;
+        }
+
+        void popHead() {
+            headPos = (headPos - 1) & (cells.length - 1);
+            size--;
+        }
+
+        int popTail() {
+            int cell = tail();
+            size--;
+            return cell;
+        }
+
+        void pushTail(int cell) {
+            size++;
+            cells[(headPos - size + 1) & (cells.length - 1)] = cell;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.tests;
+
+import org.example.models.GameState;
+import org.example.models.Snake;
+import org.example.service.SurvivalSearchService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Проверка SurvivalSearchService на столкновения змейки с собственным телом.
+ */
+public class TestSurvivalSearch {
+
+    private static int failures;
+
+    private static List<List<Integer>> cells(int[]... points) {
+        List<List<Integer>> result = new ArrayList<>();
+        for (int[] p : points) {
+            result.add(List.of(p[0], p[1], p[2]));
+        }
+        return result;
+    }
+
+    private static GameState state(List<List<Integer>> fences, List<List<Integer>> geometry) {
+        Snake snake = new Snake("me", new int[]{1, 0, 0}, new int[]{1, 0, 0}, geometry, "alive");
+        return new GameState(List.of(12, 12, 12), 0, fences, List.of(), List.of(snake), List.of(), null, List.of());
+    }
+
+    private static void check(String name, SurvivalSearchService service, GameState state, int[] expected) {
+        service.beginTick(state, 1);
+        int[] chosen = service.chooseDirection(state.getSnakes().get(0), null);
+        boolean ok = Arrays.equals(chosen, expected);
+        if (!ok) {
+            failures++;
+        }
+        System.out.println((ok ? "OK   " : "FAIL ") + name + ": ход " + Arrays.toString(chosen) + ", ожидался " + Arrays.toString(expected));
+    }
+
+    private static void checkNot(String name, SurvivalSearchService service, GameState state, int[] forbidden) {
+        service.beginTick(state, 1);
+        int[] chosen = service.chooseDirection(state.getSnakes().get(0), null);
+        boolean ok = !Arrays.equals(chosen, forbidden);
+        if (!ok) {
+            failures++;
+        }
+        System.out.println((ok ? "OK   " : "FAIL ") + name + ": ход " + Arrays.toString(chosen) + ", запрещён " + Arrays.toString(forbidden));
+    }
+
+    public static void main(String[] args) {
+        SurvivalSearchService service = new SurvivalSearchService(6, 200);
+
+        // Голова идёт по +x, шея сзади, заборы по y и z: разворот в шею — смерть, остаётся только +x
+        check("разворот в шею", service, state(
+                cells(new int[]{5, 6, 5}, new int[]{5, 4, 5}, new int[]{5, 5, 6}, new int[]{5, 5, 4}),
+                cells(new int[]{5, 5, 5}, new int[]{4, 5, 5}, new int[]{3, 5, 5}, new int[]{2, 5, 5})),
+                new int[]{1, 0, 0});
+
+        // Все пять соседей, кроме шеи, закрыты заборами: разворот в шею не должен выглядеть спасением
+        checkNot("разворот в шею при закрытых соседях", service, state(
+                cells(new int[]{6, 5, 5}, new int[]{5, 6, 5}, new int[]{5, 4, 5}, new int[]{5, 5, 6}, new int[]{5, 5, 4}),
+                cells(new int[]{5, 5, 5}, new int[]{4, 5, 5}, new int[]{3, 5, 5}, new int[]{2, 5, 5})),
+                new int[]{-1, 0, 0});
+
+        // Змейка свернулась: по +x и +y — собственное тело (не хвост), свободен только -y
+        check("свёрнутое тело", service, state(
+                cells(new int[]{5, 5, 6}, new int[]{5, 5, 4}),
+                cells(new int[]{5, 5, 5}, new int[]{4, 5, 5}, new int[]{4, 6, 5}, new int[]{5, 6, 5},
+                        new int[]{6, 6, 5}, new int[]{6, 5, 5}, new int[]{6, 4, 5}, new int[]{6, 3, 5})),
+                new int[]{0, -1, 0});
+
+        // Единственный выход — клетка хвоста, которая освобождается в этот же тик
+        GameState tailChase = state(
+                cells(new int[]{4, 5, 5}, new int[]{5, 4, 5}, new int[]{5, 5, 6}, new int[]{5, 5, 4}),
+                cells(new int[]{5, 5, 5}, new int[]{5, 6, 5}, new int[]{6, 6, 5}, new int[]{6, 5, 5}));
+        check("ход в уходящий хвост", service, tailChase, new int[]{1, 0, 0});
+
+        // Откат должен вернуть карту в исходное состояние: второй поиск в том же тике даёт тот же ход
+        int[] again = service.chooseDirection(tailChase.getSnakes().get(0), null);
+        boolean same = Arrays.equals(again, new int[]{1, 0, 0});
+        if (!same) {
+            failures++;
+        }
+        System.out.println((same ? "OK   " : "FAIL ") + "повторный поиск после отката: ход " + Arrays.toString(again));
+
+        System.out.println(failures == 0 ? "Все проверки пройдены" : "Провалено проверок: " + failures);
+    }
+}